@@ -1,5 +1,8 @@
 package com.mycompany.myapp.config;
 
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -9,4 +12,50 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Spaces spaces = new Spaces();
+
+    public Spaces getSpaces() {
+        return spaces;
+    }
+
+    /**
+     * The capacity of the study spaces: the number of spaces that can be booked on a day, unless that day has a capacity
+     * of its own, such as a closure or an exam week.
+     */
+    public static class Spaces {
+
+        private int dailyCapacity = 40;
+
+        /**
+         * The capacity of the days that have one of their own, by ISO date, such as {@code 2026-12-24}.
+         */
+
+        private Map<String, Integer> capacityByDate = new HashMap<>();
+
+        public int getDailyCapacity() {
+            return dailyCapacity;
+        }
+
+        public void setDailyCapacity(int dailyCapacity) {
+            this.dailyCapacity = dailyCapacity;
+        }
+
+        public Map<String, Integer> getCapacityByDate() {
+            return capacityByDate;
+        }
+
+        public void setCapacityByDate(Map<String, Integer> capacityByDate) {
+            this.capacityByDate = capacityByDate;
+        }
+
+        /**
+         * @param date the day.
+         * @return the number of spaces that can be booked on the day.
+         */
+        public int getCapacity(LocalDate date) {
+            return capacityByDate.getOrDefault(date.toString(), dailyCapacity);
+        }
+    }
+}
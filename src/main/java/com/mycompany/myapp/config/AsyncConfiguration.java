@@ -1,6 +1,7 @@
 package com.mycompany.myapp.config;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
@@ -39,6 +40,26 @@ public class AsyncConfiguration implements AsyncConfigurer {
         return new ExceptionHandlingAsyncTaskExecutor(executor);
     }
 
+    /**
+     * Executor running the chunks of the nightly fine accrual, apart from the request and async threads.
+     * <p>
+     * Its queue is short and a full queue makes the reading thread run the chunk itself, so the reader never gets more
+     * than a few chunks ahead of the updates.
+     *
+     * @return the executor.
+     */
+    @Bean(name = "fineAccrualExecutor")
+    public ThreadPoolTaskExecutor fineAccrualExecutor() {
+        log.debug("Creating Fine Accrual Task Executor");
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(4);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("fine-accrual-");
+        return executor;
+    }
+
     @Override
     public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
         return new SimpleAsyncUncaughtExceptionHandler();
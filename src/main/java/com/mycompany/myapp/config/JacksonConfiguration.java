@@ -27,10 +27,11 @@ public class JacksonConfiguration {
 
     /*
      * Support for Hibernate types in Jackson.
+     * Associations that were not fetched are serialized with their id only, instead of being loaded.
      */
     @Bean
     public Hibernate5Module hibernate5Module() {
-        return new Hibernate5Module();
+        return new Hibernate5Module().enable(Hibernate5Module.Feature.SERIALIZE_IDENTIFIER_FOR_LAZY_NOT_LOADED_OBJECTS);
     }
 
     /*
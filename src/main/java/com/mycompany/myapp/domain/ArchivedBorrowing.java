@@ -0,0 +1,153 @@
+package com.mycompany.myapp.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.time.LocalDate;
+import javax.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * A Borrowing returned long ago, moved to the archive by {@link com.mycompany.myapp.service.BorrowingArchivalService}.
+ * <p>
+ * Archived borrowings are never updated, and keep the ids of their book and user rather than associations.
+ */
+@Entity
+@Immutable
+@Table(name = "borrowing_archive")
+public class ArchivedBorrowing implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "date_borrowed")
+    private LocalDate date_borrowed;
+
+    @Column(name = "due_date")
+    private LocalDate due_date;
+
+    @Column(name = "return_date", nullable = false)
+    private LocalDate return_date;
+
+    @Column(name = "status")
+    private Boolean status;
+
+    @Column(name = "fine")
+    private Integer fine;
+
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "archived_date", nullable = false)
+    private Instant archivedDate;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDate getDate_borrowed() {
+        return this.date_borrowed;
+    }
+
+    public void setDate_borrowed(LocalDate date_borrowed) {
+        this.date_borrowed = date_borrowed;
+    }
+
+    public LocalDate getDue_date() {
+        return this.due_date;
+    }
+
+    public void setDue_date(LocalDate due_date) {
+        this.due_date = due_date;
+    }
+
+    public LocalDate getReturn_date() {
+        return this.return_date;
+    }
+
+    public void setReturn_date(LocalDate return_date) {
+        this.return_date = return_date;
+    }
+
+    public Boolean getStatus() {
+        return this.status;
+    }
+
+    public void setStatus(Boolean status) {
+        this.status = status;
+    }
+
+    public Integer getFine() {
+        return this.fine;
+    }
+
+    public void setFine(Integer fine) {
+        this.fine = fine;
+    }
+
+    public Long getBookId() {
+        return this.bookId;
+    }
+
+    public void setBookId(Long bookId) {
+        this.bookId = bookId;
+    }
+
+    public Long getUserId() {
+        return this.userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Instant getArchivedDate() {
+        return this.archivedDate;
+    }
+
+    public void setArchivedDate(Instant archivedDate) {
+        this.archivedDate = archivedDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ArchivedBorrowing)) {
+            return false;
+        }
+        return id != null && id.equals(((ArchivedBorrowing) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ArchivedBorrowing{" +
+            "id=" + getId() +
+            ", date_borrowed='" + getDate_borrowed() + "'" +
+            ", due_date='" + getDue_date() + "'" +
+            ", return_date='" + getReturn_date() + "'" +
+            ", status='" + getStatus() + "'" +
+            ", fine=" + getFine() +
+            ", bookId=" + getBookId() +
+            ", userId=" + getUserId() +
+            ", archivedDate='" + getArchivedDate() + "'" +
+            "}";
+    }
+}
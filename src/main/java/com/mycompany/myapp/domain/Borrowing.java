@@ -10,6 +10,9 @@ import javax.persistence.*;
  */
 @Entity
 @Table(name = "borrowing")
+@NamedEntityGraph(name = "Borrowing.book", attributeNodes = @NamedAttributeNode("book"))
+@NamedEntityGraph(name = "Borrowing.user", attributeNodes = @NamedAttributeNode("user"))
+@NamedEntityGraph(name = "Borrowing.book,user", attributeNodes = { @NamedAttributeNode("book"), @NamedAttributeNode("user") })
 public class Borrowing implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -31,11 +34,17 @@ public class Borrowing implements Serializable {
     @Column(name = "status")
     private Boolean status;
 
-    @ManyToOne
+    /**
+     * The fine accrued while the borrowing is overdue, as of the last accrual run.
+     */
+    @Column(name = "fine")
+    private Integer fine;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonIgnoreProperties(value = { "category" }, allowSetters = true)
     private Book book;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private User user;
 
     // jhipster-needle-entity-add-field - JHipster will add fields here
@@ -105,6 +114,19 @@ public class Borrowing implements Serializable {
         this.status = status;
     }
 
+    public Integer getFine() {
+        return this.fine;
+    }
+
+    public Borrowing fine(Integer fine) {
+        this.setFine(fine);
+        return this;
+    }
+
+    public void setFine(Integer fine) {
+        this.fine = fine;
+    }
+
     public Book getBook() {
         return this.book;
     }
@@ -159,6 +181,7 @@ public class Borrowing implements Serializable {
             ", due_date='" + getDue_date() + "'" +
             ", return_date='" + getReturn_date() + "'" +
             ", status='" + getStatus() + "'" +
+            ", fine=" + getFine() +
             "}";
     }
 }
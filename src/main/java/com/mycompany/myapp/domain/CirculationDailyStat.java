@@ -0,0 +1,140 @@
+package com.mycompany.myapp.domain;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+import javax.persistence.*;
+
+/**
+ * The number of loans of a book on a day, maintained as borrowings are made, so that the circulation statistics never
+ * read the borrowings.
+ */
+@Entity
+@Table(name = "circulation_daily_stat")
+@IdClass(CirculationDailyStat.Key.class)
+public class CirculationDailyStat implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "loan_date")
+    private LocalDate loanDate;
+
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Column(name = "loans", nullable = false)
+    private Integer loans;
+
+    public LocalDate getLoanDate() {
+        return this.loanDate;
+    }
+
+    public CirculationDailyStat loanDate(LocalDate loanDate) {
+        this.setLoanDate(loanDate);
+        return this;
+    }
+
+    public void setLoanDate(LocalDate loanDate) {
+        this.loanDate = loanDate;
+    }
+
+    public Long getBookId() {
+        return this.bookId;
+    }
+
+    public CirculationDailyStat bookId(Long bookId) {
+        this.setBookId(bookId);
+        return this;
+    }
+
+    public void setBookId(Long bookId) {
+        this.bookId = bookId;
+    }
+
+    public Integer getLoans() {
+        return this.loans;
+    }
+
+    public CirculationDailyStat loans(Integer loans) {
+        this.setLoans(loans);
+        return this;
+    }
+
+    public void setLoans(Integer loans) {
+        this.loans = loans;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CirculationDailyStat)) {
+            return false;
+        }
+        CirculationDailyStat other = (CirculationDailyStat) o;
+        return loanDate != null && bookId != null && loanDate.equals(other.loanDate) && bookId.equals(other.bookId);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CirculationDailyStat{" +
+            "loanDate='" + getLoanDate() + "'" +
+            ", bookId=" + getBookId() +
+            ", loans=" + getLoans() +
+            "}";
+    }
+
+    /**
+     * The identifier of a daily statistic: a day and a book.
+     */
+    public static class Key implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private LocalDate loanDate;
+
+        private Long bookId;
+
+        public Key() {}
+
+        public Key(LocalDate loanDate, Long bookId) {
+            this.loanDate = loanDate;
+            this.bookId = bookId;
+        }
+
+        public LocalDate getLoanDate() {
+            return loanDate;
+        }
+
+        public Long getBookId() {
+            return bookId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Objects.equals(loanDate, other.loanDate) && Objects.equals(bookId, other.bookId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(loanDate, bookId);
+        }
+    }
+}
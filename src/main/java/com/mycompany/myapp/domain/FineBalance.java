@@ -0,0 +1,73 @@
+package com.mycompany.myapp.domain;
+
+import java.io.Serializable;
+import javax.persistence.*;
+
+/**
+ * The fines a user owes: the sum of the fines of all their borrowings, kept up to date as they change.
+ */
+@Entity
+@Table(name = "fine_balance")
+public class FineBalance implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "balance", nullable = false)
+    private Integer balance;
+
+    public Long getUserId() {
+        return this.userId;
+    }
+
+    public FineBalance userId(Long userId) {
+        this.setUserId(userId);
+        return this;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Integer getBalance() {
+        return this.balance;
+    }
+
+    public FineBalance balance(Integer balance) {
+        this.setBalance(balance);
+        return this;
+    }
+
+    public void setBalance(Integer balance) {
+        this.balance = balance;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FineBalance)) {
+            return false;
+        }
+        return userId != null && userId.equals(((FineBalance) o).userId);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "FineBalance{" +
+            "userId=" + getUserId() +
+            ", balance=" + getBalance() +
+            "}";
+    }
+}
@@ -0,0 +1,130 @@
+package com.mycompany.myapp.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import javax.persistence.*;
+
+/**
+ * A hold placed by a user on a book with no copy left. Holds of a book are served in the order they were placed, that
+ * is by id: a returned copy is reserved for the first waiting hold, which then becomes ready until its user checks the
+ * copy out.
+ */
+@Entity
+@Table(name = "book_hold")
+@NamedEntityGraph(name = "Hold.user", attributeNodes = @NamedAttributeNode("user"))
+public class Hold implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "placed_date", nullable = false)
+    private Instant placedDate;
+
+    /**
+     * When a copy was reserved for the hold, or {@code null} while it is waiting.
+     */
+    @Column(name = "ready_date")
+    private Instant readyDate;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private Book book;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private User user;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public Hold id(Long id) {
+        this.setId(id);
+        return this;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Instant getPlacedDate() {
+        return this.placedDate;
+    }
+
+    public Hold placedDate(Instant placedDate) {
+        this.setPlacedDate(placedDate);
+        return this;
+    }
+
+    public void setPlacedDate(Instant placedDate) {
+        this.placedDate = placedDate;
+    }
+
+    public Instant getReadyDate() {
+        return this.readyDate;
+    }
+
+    public Hold readyDate(Instant readyDate) {
+        this.setReadyDate(readyDate);
+        return this;
+    }
+
+    public void setReadyDate(Instant readyDate) {
+        this.readyDate = readyDate;
+    }
+
+    public Book getBook() {
+        return this.book;
+    }
+
+    public Hold book(Book book) {
+        this.setBook(book);
+        return this;
+    }
+
+    public void setBook(Book book) {
+        this.book = book;
+    }
+
+    public User getUser() {
+        return this.user;
+    }
+
+    public Hold user(User user) {
+        this.setUser(user);
+        return this;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Hold)) {
+            return false;
+        }
+        return id != null && id.equals(((Hold) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "Hold{" +
+            "id=" + getId() +
+            ", placedDate='" + getPlacedDate() + "'" +
+            ", readyDate='" + getReadyDate() + "'" +
+            "}";
+    }
+}
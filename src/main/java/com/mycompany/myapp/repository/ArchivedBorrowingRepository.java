@@ -0,0 +1,32 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.ArchivedBorrowing;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the ArchivedBorrowing entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface ArchivedBorrowingRepository extends JpaRepository<ArchivedBorrowing, Long> {
+    Page<ArchivedBorrowing> findByUserId(Long userId, Pageable pageable);
+
+    Optional<ArchivedBorrowing> findByIdAndUserId(Long id, Long userId);
+
+    /**
+     * Sum the fines of the archived borrowings of every user.
+     *
+     * @return the user id and the sum of the fines of their archived borrowings, for each user with archived borrowings.
+     */
+    @Query(
+        "select archived.userId, coalesce(sum(archived.fine), 0) from ArchivedBorrowing archived " +
+        "where archived.userId is not null group by archived.userId"
+    )
+    List<Object[]> sumFinesByUser();
+}
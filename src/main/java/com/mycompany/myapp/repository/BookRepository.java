@@ -1,7 +1,17 @@
 package com.mycompany.myapp.repository;
 
+import static org.hibernate.jpa.QueryHints.*;
+
 import com.mycompany.myapp.domain.Book;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +19,92 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {}
+public interface BookRepository extends BookRepositoryWithKeyset, BookRepositoryWithFetchPlan, JpaRepository<Book, Long> {
+    @QueryHints(
+        { @QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true"), @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE") }
+    )
+    @Query("select book from Book book left join fetch book.category order by book.id")
+    Stream<Book> streamAllByOrderById();
+
+    /**
+     * Get the versions a book representation depends on, without loading the book.
+     *
+     * @param id the id of the book.
+     * @return the book id and version, then its category id and version, or no row if the book does not exist.
+     */
+    @Query(
+        "select book.id, book.version, category.id, category.version from Book book left join book.category category where book.id = :id"
+    )
+    List<Object[]> findVersionsById(@Param("id") Long id);
+
+    /**
+     * Get the versions a page of books depends on, without loading the books.
+     *
+     * @param pageable the pagination information.
+     * @return the id and version of each book of the page, then its category id and version.
+     */
+    @Query("select book.id, book.version, category.id, category.version from Book book left join book.category category")
+    List<Object[]> findAllVersions(Pageable pageable);
+
+    @Query("select book.version from Book book where book.id = :id")
+    Optional<Integer> findVersionById(@Param("id") Long id);
+
+    /**
+     * Get the number of copies left of some books, locking their rows in id order until the end of the transaction, so
+     * that transactions locking several books never wait on each other in opposite order.
+     *
+     * @param ids the ids of the books.
+     * @return the id and quantity of each book that exists.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select book.id, book.quantity from Book book where book.id in :ids order by book.id")
+    List<Object[]> findQuantitiesForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Take one copy of a book, if any is left.
+     *
+     * @param id the id of the book.
+     * @return {@code 1} if a copy was taken, {@code 0} if none was available or the book does not exist.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update Book book set book.quantity = book.quantity - 1, book.version = book.version + 1 where book.id = :id and book.quantity > 0")
+    int decrementQuantity(@Param("id") Long id);
+
+    /**
+     * Put back one copy of a book.
+     *
+     * @param id the id of the book.
+     * @return the number of updated books.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update Book book set book.quantity = book.quantity + 1, book.version = book.version + 1 where book.id = :id")
+    int incrementQuantity(@Param("id") Long id);
+
+    @Query("select book.title from Book book where book.id = :id")
+    Optional<String> findTitleById(@Param("id") Long id);
+
+    /**
+     * Get the number of copies left of a book, locking the book row until the end of the transaction, as taking or
+     * putting back one of its copies would.
+     *
+     * @param id the id of the book.
+     * @return the copies left, or empty if the book does not exist.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select book.quantity from Book book where book.id = :id")
+    Optional<Integer> findQuantityForUpdate(@Param("id") Long id);
+
+    /**
+     * Take copies of a book to reserve them for holds.
+     *
+     * @param id the id of the book.
+     * @param copies the number of copies to take.
+     * @return {@code 1} if the copies were taken, {@code 0} if fewer were left or the book does not exist.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(
+        "update Book book set book.quantity = book.quantity - :copies, book.version = book.version + 1 " +
+        "where book.id = :id and book.quantity >= :copies"
+    )
+    int reserveCopies(@Param("id") Long id, @Param("copies") int copies);
+}
@@ -0,0 +1,16 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Book;
+import java.util.Optional;
+import java.util.Set;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Reads of the {@link Book} entity fetching the requested associations, among {@code category}.
+ */
+public interface BookRepositoryWithFetchPlan {
+    Page<Book> findAll(Pageable pageable, Set<String> expand);
+
+    Optional<Book> findById(Long id, Set<String> expand);
+}
@@ -0,0 +1,25 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Book;
+import java.util.Optional;
+import java.util.Set;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+class BookRepositoryWithFetchPlanImpl implements BookRepositoryWithFetchPlan {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Book> findAll(Pageable pageable, Set<String> expand) {
+        return FetchPlans.findAll(entityManager, Book.class, null, pageable, expand);
+    }
+
+    @Override
+    public Optional<Book> findById(Long id, Set<String> expand) {
+        return FetchPlans.findById(entityManager, Book.class, id, expand);
+    }
+}
@@ -0,0 +1,11 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Book;
+import java.util.Set;
+
+/**
+ * Keyset (cursor) pagination for the {@link Book} entity.
+ */
+public interface BookRepositoryWithKeyset {
+    KeysetSlice<Book> findAllAfter(KeysetCursor cursor, int size, Set<String> expand);
+}
@@ -0,0 +1,17 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Book;
+import java.util.Set;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+class BookRepositoryWithKeysetImpl implements BookRepositoryWithKeyset {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public KeysetSlice<Book> findAllAfter(KeysetCursor cursor, int size, Set<String> expand) {
+        return KeysetQueries.seek(entityManager, Book.class, null, cursor, size, expand);
+    }
+}
@@ -1,7 +1,14 @@
 package com.mycompany.myapp.repository;
 
+import static org.hibernate.jpa.QueryHints.*;
+
 import com.mycompany.myapp.domain.Borrowing;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -14,8 +21,151 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface BorrowingRepository extends JpaRepository<Borrowing, Long> {
-    @Query("select borrowing from Borrowing borrowing where borrowing.user.login = :username")
-    Page<Borrowing> findByUserIsCurrentUser(@Param("username")String currentUser, Pageable pageable);
+public interface BorrowingRepository extends BorrowingRepositoryWithKeyset, BorrowingRepositoryWithFetchPlan, JpaRepository<Borrowing, Long> {
+    @Query("select borrowing from Borrowing borrowing where borrowing.user.id = :userId")
+    Page<Borrowing> findByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @QueryHints(
+        { @QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true"), @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE") }
+    )
+    @Query(
+        "select borrowing from Borrowing borrowing left join fetch borrowing.book book left join fetch book.category " +
+        "left join fetch borrowing.user order by borrowing.id"
+    )
+    Stream<Borrowing> streamAllByOrderById();
+
+    /**
+     * Record the return of a borrowing that is still out.
+     *
+     * @param id the id of the borrowing.
+     * @param returnDate the return date.
+     * @return {@code 1} if the borrowing was returned, {@code 0} if it does not exist or was already returned.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update Borrowing borrowing set borrowing.return_date = :returnDate where borrowing.id = :id and borrowing.return_date is null")
+    int markReturned(@Param("id") Long id, @Param("returnDate") LocalDate returnDate);
+
+    /**
+     * Get the book and return date of some borrowings.
+     *
+     * @param ids the ids of the borrowings.
+     * @return the id, book id and return date of each borrowing that exists.
+     */
+    @Query("select borrowing.id, book.id, borrowing.return_date from Borrowing borrowing left join borrowing.book book where borrowing.id in :ids")
+    List<Object[]> findReturnStates(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Count the borrowings of every borrowed book.
+     *
+     * @return the book id and its number of borrowings, for each borrowed book.
+     */
+    @Query("select borrowing.book.id, count(borrowing) from Borrowing borrowing where borrowing.book is not null group by borrowing.book.id")
+    List<Object[]> countByBook();
+
+    /**
+     * Get the first chunk of the open borrowings past their due date, in index order.
+     *
+     * @param today the accrual date.
+     * @param pageable the chunk size.
+     * @return the id and due date of each borrowing, then the fine amount of its book and the id of its user.
+     */
+    @Query(
+        "select borrowing.id, borrowing.due_date, book.fine_amount, borrowing.user.id from Borrowing borrowing left join borrowing.book book " +
+        "where borrowing.return_date is null and borrowing.due_date < :today order by borrowing.due_date, borrowing.id"
+    )
+    List<Object[]> findOverdue(@Param("today") LocalDate today, Pageable pageable);
+
+    /**
+     * Get the next chunk of the open borrowings past their due date, in index order.
+     *
+     * @param today the accrual date.
+     * @param lastDueDate the due date of the last borrowing of the previous chunk.
+     * @param lastId the id of the last borrowing of the previous chunk.
+     * @param pageable the chunk size.
+     * @return the id and due date of each borrowing, then the fine amount of its book and the id of its user.
+     */
+    @Query(
+        "select borrowing.id, borrowing.due_date, book.fine_amount, borrowing.user.id from Borrowing borrowing left join borrowing.book book " +
+        "where borrowing.return_date is null and borrowing.due_date < :today " +
+        "and (borrowing.due_date > :lastDueDate or (borrowing.due_date = :lastDueDate and borrowing.id > :lastId)) " +
+        "order by borrowing.due_date, borrowing.id"
+    )
+    List<Object[]> findOverdueAfter(
+        @Param("today") LocalDate today,
+        @Param("lastDueDate") LocalDate lastDueDate,
+        @Param("lastId") Long lastId,
+        Pageable pageable
+    );
+
+    /**
+     * Set the accrued fine of borrowings that are still out.
+     *
+     * @param ids the ids of the borrowings.
+     * @param fine the accrued fine.
+     * @return the number of updated borrowings.
+     */
+    @Modifying
+    @Query("update Borrowing borrowing set borrowing.fine = :fine where borrowing.id in :ids and borrowing.return_date is null")
+    int updateFine(@Param("ids") Collection<Long> ids, @Param("fine") Integer fine);
+
+    /**
+     * Sum the fines of the borrowings of every user.
+     *
+     * @return the user id and the sum of the fines of their borrowings, for each user with borrowings.
+     */
+    @Query(
+        "select borrowing.user.id, coalesce(sum(borrowing.fine), 0) from Borrowing borrowing " +
+        "where borrowing.user is not null group by borrowing.user.id"
+    )
+    List<Object[]> sumFinesByUser();
+
+    @Query("select borrowing.user.id from Borrowing borrowing where borrowing.id = :id")
+    Optional<Long> findUserIdById(@Param("id") Long id);
+
+    /**
+     * Find the borrowings returned before a date, oldest returns first, by a range scan of the
+     * {@code (return_date, due_date)} index.
+     *
+     * @param cutoff the date before which the borrowings were returned.
+     * @param pageable the number of borrowings to find.
+     * @return the ids of the borrowings.
+     */
+    @Query("select borrowing.id from Borrowing borrowing where borrowing.return_date < :cutoff order by borrowing.return_date")
+    List<Long> findIdsReturnedBefore(@Param("cutoff") LocalDate cutoff, Pageable pageable);
+
+    @Query("select borrowing.book.id from Borrowing borrowing where borrowing.id = :id")
+    Optional<Long> findBookIdById(@Param("id") Long id);
+
+    /**
+     * Find the users with borrowings still out and due in a period, by a range scan of the {@code (return_date, due_date)}
+     * index, a page at a time in id order.
+     *
+     * @param from the first due date of the period.
+     * @param to the last due date of the period.
+     * @param afterUserId the last user id of the previous page, {@code 0} for the first page.
+     * @param pageable the number of users to find.
+     * @return the ids of the users.
+     */
+    @Query(
+        "select distinct borrowing.user.id from Borrowing borrowing " +
+        "where borrowing.return_date is null and borrowing.due_date between :from and :to and borrowing.user.id > :afterUserId " +
+        "order by borrowing.user.id"
+    )
+    List<Long> findUserIdsDueBetween(
+        @Param("from") LocalDate from,
+        @Param("to") LocalDate to,
+        @Param("afterUserId") Long afterUserId,
+        Pageable pageable
+    );
 
+    @Query(
+        "select borrowing from Borrowing borrowing left join fetch borrowing.book " +
+        "where borrowing.user.id in :userIds and borrowing.return_date is null and borrowing.due_date between :from and :to " +
+        "order by borrowing.due_date, borrowing.id"
+    )
+    List<Borrowing> findDueBetweenByUserIdIn(
+        @Param("userIds") Collection<Long> userIds,
+        @Param("from") LocalDate from,
+        @Param("to") LocalDate to
+    );
 }
@@ -0,0 +1,22 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Borrowing;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Reads of the {@link Borrowing} entity fetching the requested associations, among {@code book} and {@code user}.
+ */
+public interface BorrowingRepositoryWithFetchPlan {
+    Page<Borrowing> findAll(Pageable pageable, Set<String> expand);
+
+    Page<Borrowing> findByUserId(Long userId, Pageable pageable, Set<String> expand);
+
+    Optional<Borrowing> findById(Long id, Set<String> expand);
+
+    List<Borrowing> findAllById(Collection<Long> ids, Set<String> expand);
+}
@@ -0,0 +1,39 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Borrowing;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+class BorrowingRepositoryWithFetchPlanImpl implements BorrowingRepositoryWithFetchPlan {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Borrowing> findAll(Pageable pageable, Set<String> expand) {
+        return FetchPlans.findAll(entityManager, Borrowing.class, null, pageable, expand);
+    }
+
+    @Override
+    public Page<Borrowing> findByUserId(Long userId, Pageable pageable, Set<String> expand) {
+        Specification<Borrowing> ofUser = (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+        return FetchPlans.findAll(entityManager, Borrowing.class, ofUser, pageable, expand);
+    }
+
+    @Override
+    public Optional<Borrowing> findById(Long id, Set<String> expand) {
+        return FetchPlans.findById(entityManager, Borrowing.class, id, expand);
+    }
+
+    @Override
+    public List<Borrowing> findAllById(Collection<Long> ids, Set<String> expand) {
+        return FetchPlans.findAllById(entityManager, Borrowing.class, ids, expand);
+    }
+}
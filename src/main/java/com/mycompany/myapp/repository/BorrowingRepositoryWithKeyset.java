@@ -0,0 +1,13 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Borrowing;
+import java.util.Set;
+
+/**
+ * Keyset (cursor) pagination for the {@link Borrowing} entity.
+ */
+public interface BorrowingRepositoryWithKeyset {
+    KeysetSlice<Borrowing> findAllAfter(KeysetCursor cursor, int size, Set<String> expand);
+
+    KeysetSlice<Borrowing> findByUserIdAfter(Long userId, KeysetCursor cursor, int size, Set<String> expand);
+}
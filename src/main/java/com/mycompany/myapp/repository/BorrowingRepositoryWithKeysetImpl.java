@@ -0,0 +1,24 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Borrowing;
+import java.util.Set;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.springframework.data.jpa.domain.Specification;
+
+class BorrowingRepositoryWithKeysetImpl implements BorrowingRepositoryWithKeyset {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public KeysetSlice<Borrowing> findAllAfter(KeysetCursor cursor, int size, Set<String> expand) {
+        return KeysetQueries.seek(entityManager, Borrowing.class, null, cursor, size, expand);
+    }
+
+    @Override
+    public KeysetSlice<Borrowing> findByUserIdAfter(Long userId, KeysetCursor cursor, int size, Set<String> expand) {
+        Specification<Borrowing> ofUser = (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+        return KeysetQueries.seek(entityManager, Borrowing.class, ofUser, cursor, size, expand);
+    }
+}
@@ -1,7 +1,11 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Category;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +13,16 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface CategoryRepository extends JpaRepository<Category, Long> {}
+public interface CategoryRepository extends JpaRepository<Category, Long> {
+    /**
+     * Get the versions of a page of categories, without loading the categories.
+     *
+     * @param pageable the pagination information.
+     * @return the id and version of each category of the page.
+     */
+    @Query("select category.id, category.version from Category category")
+    List<Object[]> findAllVersions(Pageable pageable);
+
+    @Query("select category.version from Category category where category.id = :id")
+    Optional<Integer> findVersionById(@Param("id") Long id);
+}
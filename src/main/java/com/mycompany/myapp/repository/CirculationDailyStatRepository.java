@@ -0,0 +1,51 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.CirculationDailyStat;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the CirculationDailyStat entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface CirculationDailyStatRepository extends JpaRepository<CirculationDailyStat, CirculationDailyStat.Key> {
+    /**
+     * Sum the loans of each day of a period.
+     *
+     * @return the day and its number of loans, for each day with loans, in date order.
+     */
+    @Query(
+        "select stat.loanDate, sum(stat.loans) from CirculationDailyStat stat " +
+        "where stat.loanDate between :from and :to group by stat.loanDate order by stat.loanDate"
+    )
+    List<Object[]> sumLoansByDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Sum the loans of each book over a period.
+     *
+     * @return the book id, title and number of loans of the most borrowed books, most borrowed first.
+     */
+    @Query(
+        "select book.id, book.title, sum(stat.loans) from CirculationDailyStat stat, Book book " +
+        "where book.id = stat.bookId and stat.loanDate between :from and :to " +
+        "group by book.id, book.title order by sum(stat.loans) desc, book.id"
+    )
+    List<Object[]> sumLoansByBook(@Param("from") LocalDate from, @Param("to") LocalDate to, Pageable pageable);
+
+    /**
+     * Sum the loans of the books of each category over a period.
+     *
+     * @return the category id, name and number of loans, most borrowed first.
+     */
+    @Query(
+        "select category.id, category.name, sum(stat.loans) from CirculationDailyStat stat, Book book join book.category category " +
+        "where book.id = stat.bookId and stat.loanDate between :from and :to " +
+        "group by category.id, category.name order by sum(stat.loans) desc, category.id"
+    )
+    List<Object[]> sumLoansByCategory(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
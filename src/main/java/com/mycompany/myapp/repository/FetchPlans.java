@@ -0,0 +1,156 @@
+package com.mycompany.myapp.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+/**
+ * Queries shared by the repositories whose associations can be expanded on demand.
+ * <p>
+ * Associations are mapped lazily, and each supported combination of expanded associations is declared on the entity
+ * as a named entity graph, called after the entity and the sorted association names, such as {@code Borrowing.book,user}.
+ * The graph is applied as a load graph, so the expanded associations are fetched by the same select and the others
+ * are left as proxies.
+ */
+final class FetchPlans {
+
+    static final String LOAD_GRAPH_HINT = "javax.persistence.loadgraph";
+
+    private FetchPlans() {}
+
+    /**
+     * Get the name of the entity graph expanding some associations of an entity.
+     *
+     * @param domainClass the entity class.
+     * @param expand the names of the associations to fetch, may be {@code null}.
+     * @return the graph name, or {@code null} if no association is expanded.
+     */
+    static String graphName(Class<?> domainClass, Set<String> expand) {
+        if (expand == null || expand.isEmpty()) {
+            return null;
+        }
+        return domainClass.getSimpleName() + "." + String.join(",", new TreeSet<>(expand));
+    }
+
+    /**
+     * Apply the entity graph expanding some associations to a query.
+     *
+     * @param entityManager the entity manager.
+     * @param query the query selecting the entities.
+     * @param domainClass the entity class.
+     * @param expand the names of the associations to fetch, may be {@code null}.
+     * @param <T> the query result type.
+     * @return the query.
+     * @throws IllegalArgumentException if no graph is declared for this combination of associations.
+     */
+    static <T> TypedQuery<T> expand(EntityManager entityManager, TypedQuery<T> query, Class<?> domainClass, Set<String> expand) {
+        String graphName = graphName(domainClass, expand);
+        if (graphName != null) {
+            query.setHint(LOAD_GRAPH_HINT, entityManager.getEntityGraph(graphName));
+        }
+        return query;
+    }
+
+    /**
+     * Read a page of entities, with the count query Spring Data would run.
+     *
+     * @param entityManager the entity manager.
+     * @param domainClass the entity class.
+     * @param filter an optional restriction on the listed rows, may be {@code null}.
+     * @param pageable the pagination information.
+     * @param expand the names of the associations to fetch, may be {@code null}.
+     * @param <T> the entity type.
+     * @return the page.
+     */
+    static <T> Page<T> findAll(
+        EntityManager entityManager,
+        Class<T> domainClass,
+        Specification<T> filter,
+        Pageable pageable,
+        Set<String> expand
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(domainClass);
+        Root<T> root = query.from(domainClass);
+        query.select(root).where(where(filter, root, query, cb));
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+        TypedQuery<T> typedQuery = expand(entityManager, entityManager.createQuery(query), domainClass, expand);
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(typedQuery.getResultList());
+        }
+        List<T> content = typedQuery.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize()).getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(entityManager, domainClass, filter));
+    }
+
+    /**
+     * Read one entity.
+     *
+     * @param entityManager the entity manager.
+     * @param domainClass the entity class.
+     * @param id the id of the entity.
+     * @param expand the names of the associations to fetch, may be {@code null}.
+     * @param <T> the entity type.
+     * @return the entity, or empty if it does not exist.
+     */
+    static <T> Optional<T> findById(EntityManager entityManager, Class<T> domainClass, Long id, Set<String> expand) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(domainClass);
+        Root<T> root = query.from(domainClass);
+        query.select(root).where(cb.equal(root.get(KeysetCursor.ID_PROPERTY), id));
+        return expand(entityManager, entityManager.createQuery(query), domainClass, expand).getResultList().stream().findFirst();
+    }
+
+    /**
+     * Read some entities by id.
+     *
+     * @param entityManager the entity manager.
+     * @param domainClass the entity class.
+     * @param ids the ids of the entities.
+     * @param expand the names of the associations to fetch, may be {@code null}.
+     * @param <T> the entity type.
+     * @return the entities that exist, in no particular order.
+     */
+    static <T> List<T> findAllById(EntityManager entityManager, Class<T> domainClass, Collection<Long> ids, Set<String> expand) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(domainClass);
+        Root<T> root = query.from(domainClass);
+        query.select(root).where(root.get(KeysetCursor.ID_PROPERTY).in(ids));
+        return expand(entityManager, entityManager.createQuery(query), domainClass, expand).getResultList();
+    }
+
+    private static <T> long count(EntityManager entityManager, Class<T> domainClass, Specification<T> filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(domainClass);
+        query.select(cb.count(root)).where(where(filter, root, query, cb));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static <T> Predicate[] where(Specification<T> filter, Root<T> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter != null) {
+            predicates.add(filter.toPredicate(root, query, cb));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+}
@@ -0,0 +1,67 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.FineBalance;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the FineBalance entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface FineBalanceRepository extends JpaRepository<FineBalance, Long> {
+    /**
+     * Get the balance of a user as a value, as balances are updated in bulk without clearing the persistence context,
+     * so a managed balance entity may be stale.
+     *
+     * @param userId the id of the user.
+     * @return the balance, or empty if the user has none yet.
+     */
+    @Query("select balance.balance from FineBalance balance where balance.userId = :userId")
+    Optional<Integer> findBalanceByUserId(@Param("userId") Long userId);
+
+    /**
+     * Get all the balances as values, see {@link #findBalanceByUserId(Long)}.
+     *
+     * @return the user id and balance of each balance.
+     */
+    @Query("select balance.userId, balance.balance from FineBalance balance")
+    List<Object[]> findAllBalances();
+
+    /**
+     * @param userIds the ids of some users.
+     * @return the ids of those users that have a balance.
+     */
+    @Query("select balance.userId from FineBalance balance where balance.userId in :userIds")
+    List<Long> findUserIdsIn(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Add to the balance of a user, under the lock of the balance row.
+     *
+     * @param userId the id of the user.
+     * @param delta the amount to add, negative to subtract.
+     * @return {@code 1} if the balance was updated, {@code 0} if the user has no balance yet.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update FineBalance balance set balance.balance = balance.balance + :delta where balance.userId = :userId")
+    int addToBalance(@Param("userId") Long userId, @Param("delta") int delta);
+
+    /**
+     * Recompute the balances of some users from the fines of their borrowings, archived ones included.
+     *
+     * @param userIds the ids of the users.
+     * @return the number of updated balances.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(
+        "update FineBalance balance set balance.balance = " +
+        "(select coalesce(sum(borrowing.fine), 0) from Borrowing borrowing where borrowing.user.id = balance.userId) + " +
+        "(select coalesce(sum(archived.fine), 0) from ArchivedBorrowing archived where archived.userId = balance.userId) " +
+        "where balance.userId in :userIds"
+    )
+    int recompute(@Param("userIds") Collection<Long> userIds);
+}
@@ -0,0 +1,77 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Hold;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the Hold entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+    boolean existsByBookIdAndUserId(Long bookId, Long userId);
+
+    @EntityGraph("Hold.user")
+    Optional<Hold> findWithUserById(Long id);
+
+    /**
+     * Get the first holds waiting for a copy of a book, locking them until the end of the transaction.
+     *
+     * @param bookId the id of the book.
+     * @param pageable the number of holds to get.
+     * @return the waiting holds, first placed first.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select hold from Hold hold where hold.book.id = :bookId and hold.readyDate is null order by hold.id")
+    List<Hold> findWaitingForUpdate(@Param("bookId") Long bookId, Pageable pageable);
+
+    @Query("select hold.id from Hold hold where hold.book.id = :bookId and hold.user.id = :userId and hold.readyDate is not null")
+    Optional<Long> findReadyId(@Param("bookId") Long bookId, @Param("userId") Long userId);
+
+    /**
+     * Get the holds that have been ready since before a time.
+     *
+     * @param readyDate the time.
+     * @return the id and book id of each hold, first placed first.
+     */
+    @Query("select hold.id, hold.book.id from Hold hold where hold.readyDate < :readyDate order by hold.id")
+    List<Object[]> findReadyBefore(@Param("readyDate") Instant readyDate);
+
+    /**
+     * Delete a hold that is waiting for a copy.
+     *
+     * @param id the id of the hold.
+     * @return {@code 1} if the hold was deleted, {@code 0} if it is gone or ready.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("delete from Hold hold where hold.id = :id and hold.readyDate is null")
+    int removeWaitingById(@Param("id") Long id);
+
+    /**
+     * Delete a hold a copy is reserved for.
+     *
+     * @param id the id of the hold.
+     * @return {@code 1} if the hold was deleted, {@code 0} if it is gone or still waiting.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("delete from Hold hold where hold.id = :id and hold.readyDate is not null")
+    int removeReadyById(@Param("id") Long id);
+
+    /**
+     * Get every hold, for the in-memory queues.
+     *
+     * @return the id, book id, user id, user login, placed date and ready date of each hold.
+     */
+    @Query(
+        "select hold.id, book.id, user.id, user.login, hold.placedDate, hold.readyDate " +
+        "from Hold hold join hold.book book join hold.user user"
+    )
+    List<Object[]> findAllEntries();
+}
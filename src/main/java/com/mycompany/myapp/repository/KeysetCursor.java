@@ -0,0 +1,135 @@
+package com.mycompany.myapp.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Position in a keyset (cursor) paginated listing.
+ * <p>
+ * A cursor holds the sort property and direction of the listing and, once a page has been read, the sort key and id of
+ * the last row returned. The next page then starts strictly after that row, whatever its offset, so no row has to be
+ * skipped over or counted.
+ */
+public final class KeysetCursor {
+
+    public static final String ID_PROPERTY = "id";
+
+    private static final char SEPARATOR = ',';
+
+    private static final String NULL_VALUE = "-";
+
+    private static final String VALUE_PREFIX = "=";
+
+    private final String property;
+
+    private final Sort.Direction direction;
+
+    private final Long lastId;
+
+    private final String lastValue;
+
+    private KeysetCursor(String property, Sort.Direction direction, Long lastId, String lastValue) {
+        this.property = Objects.requireNonNull(property);
+        this.direction = Objects.requireNonNull(direction);
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    /**
+     * Cursor on the first page of a listing sorted by the first order of {@code sort}, or by id if unsorted.
+     *
+     * @param sort the requested sort; only its first order is used, ties are always broken by id.
+     * @return the cursor.
+     */
+    public static KeysetCursor first(Sort sort) {
+        return sort.stream().findFirst().map(order -> first(order.getProperty(), order.getDirection())).orElse(first(ID_PROPERTY, Sort.Direction.ASC));
+    }
+
+    public static KeysetCursor first(String property, Sort.Direction direction) {
+        return new KeysetCursor(property, direction, null, null);
+    }
+
+    /**
+     * Cursor on the page following the given row.
+     *
+     * @param lastId the id of the last row read.
+     * @param lastValue the sort key of the last row read, as a string, or {@code null}.
+     * @return the cursor.
+     */
+    public KeysetCursor after(Long lastId, String lastValue) {
+        return new KeysetCursor(property, direction, Objects.requireNonNull(lastId), lastValue);
+    }
+
+    /**
+     * Decode a cursor produced by {@link #encode()}.
+     *
+     * @param token the opaque token.
+     * @return the cursor.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static KeysetCursor decode(String token) {
+        String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = decoded.split(String.valueOf(SEPARATOR), 4);
+        if (parts.length != 4 || parts[0].isEmpty()) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        Sort.Direction direction = Sort.Direction.fromString(parts[1]);
+        Long lastId = Long.valueOf(parts[2]);
+        String lastValue;
+        if (NULL_VALUE.equals(parts[3])) {
+            lastValue = null;
+        } else if (parts[3].startsWith(VALUE_PREFIX)) {
+            lastValue = parts[3].substring(VALUE_PREFIX.length());
+        } else {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return new KeysetCursor(parts[0], direction, lastId, lastValue);
+    }
+
+    /**
+     * Encode this cursor as an opaque, URL-safe token.
+     *
+     * @return the token.
+     */
+    public String encode() {
+        if (lastId == null) {
+            throw new IllegalStateException("Only a cursor positioned after a row can be encoded");
+        }
+        String raw =
+            property +
+            SEPARATOR +
+            direction.name() +
+            SEPARATOR +
+            lastId +
+            SEPARATOR +
+            (lastValue == null ? NULL_VALUE : VALUE_PREFIX + lastValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    public boolean hasPosition() {
+        return lastId != null;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    public String getLastValue() {
+        return lastValue;
+    }
+
+    @Override
+    public String toString() {
+        return "KeysetCursor{" + "property='" + property + "', direction=" + direction + ", lastId=" + lastId + ", lastValue='" + lastValue + "'}";
+    }
+}
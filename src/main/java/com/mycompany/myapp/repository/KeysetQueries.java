@@ -0,0 +1,162 @@
+package com.mycompany.myapp.repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Seek queries shared by the keyset paginated repositories.
+ * <p>
+ * Rows are ordered by the cursor property, then by id in the same direction. {@code null} sort keys sort low, as they
+ * do in both MySQL and H2, so they come first in ascending order and last in descending order.
+ */
+final class KeysetQueries {
+
+    private KeysetQueries() {}
+
+    /**
+     * Read the page of rows following the cursor position, with a single {@code LIMIT size + 1} query and no count.
+     *
+     * @param entityManager the entity manager.
+     * @param domainClass the entity class.
+     * @param filter an optional restriction on the listed rows, may be {@code null}.
+     * @param cursor the cursor.
+     * @param size the page size.
+     * @param expand the names of the associations to fetch, may be {@code null}.
+     * @param <T> the entity type.
+     * @return the page and the cursor on the next one.
+     * @throws IllegalArgumentException if the cursor property cannot be used as a sort key of this entity.
+     */
+    static <T> KeysetSlice<T> seek(
+        EntityManager entityManager,
+        Class<T> domainClass,
+        Specification<T> filter,
+        KeysetCursor cursor,
+        int size,
+        Set<String> expand
+    ) {
+        Class<?> keyType = sortKeyType(entityManager, domainClass, cursor.getProperty());
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(domainClass);
+        Root<T> root = query.from(domainClass);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter != null) {
+            predicates.add(filter.toPredicate(root, query, cb));
+        }
+        if (cursor.hasPosition()) {
+            predicates.add(seekPredicate(cb, root, cursor, keyType));
+        }
+        query.select(root).where(predicates.toArray(new Predicate[0]));
+
+        boolean ascending = cursor.getDirection().isAscending();
+        List<Order> orders = new ArrayList<>();
+        if (!KeysetCursor.ID_PROPERTY.equals(cursor.getProperty())) {
+            Path<?> key = root.get(cursor.getProperty());
+            orders.add(ascending ? cb.asc(key) : cb.desc(key));
+        }
+        Path<?> id = root.get(KeysetCursor.ID_PROPERTY);
+        orders.add(ascending ? cb.asc(id) : cb.desc(id));
+        query.orderBy(orders);
+
+        List<T> rows = FetchPlans.expand(entityManager, entityManager.createQuery(query), domainClass, expand)
+            .setMaxResults(size + 1)
+            .getResultList();
+        if (rows.size() <= size) {
+            return new KeysetSlice<>(rows, null);
+        }
+        List<T> content = new ArrayList<>(rows.subList(0, size));
+        T last = content.get(size - 1);
+        Object lastId = PropertyAccessorFactory.forDirectFieldAccess(last).getPropertyValue(KeysetCursor.ID_PROPERTY);
+        Object lastValue = PropertyAccessorFactory.forDirectFieldAccess(last).getPropertyValue(cursor.getProperty());
+        return new KeysetSlice<>(content, cursor.after((Long) lastId, lastValue == null ? null : lastValue.toString()));
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static <T> Predicate seekPredicate(CriteriaBuilder cb, Root<T> root, KeysetCursor cursor, Class<?> keyType) {
+        boolean ascending = cursor.getDirection().isAscending();
+        Path<Long> id = root.get(KeysetCursor.ID_PROPERTY);
+        Predicate idAfter = ascending ? cb.greaterThan(id, cursor.getLastId()) : cb.lessThan(id, cursor.getLastId());
+        if (KeysetCursor.ID_PROPERTY.equals(cursor.getProperty())) {
+            return idAfter;
+        }
+
+        Path<Comparable> key = root.get(cursor.getProperty());
+        Comparable lastValue;
+        try {
+            lastValue = parse(keyType, cursor.getLastValue());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+        if (lastValue == null) {
+            // After a null key: the remaining nulls, then (ascending only) every non-null key
+            Predicate remainingNulls = cb.and(cb.isNull(key), idAfter);
+            return ascending ? cb.or(remainingNulls, cb.isNotNull(key)) : remainingNulls;
+        }
+        Predicate keyAfter = ascending ? cb.greaterThan(key, lastValue) : cb.lessThan(key, lastValue);
+        Predicate sameKey = cb.and(cb.equal(key, lastValue), idAfter);
+        return ascending ? cb.or(keyAfter, sameKey) : cb.or(keyAfter, sameKey, cb.isNull(key));
+    }
+
+    private static <T> Class<?> sortKeyType(EntityManager entityManager, Class<T> domainClass, String property) {
+        EntityType<T> entityType = entityManager.getMetamodel().entity(domainClass);
+        Attribute<? super T, ?> attribute;
+        try {
+            attribute = entityType.getAttribute(property);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown sort property " + property, e);
+        }
+        Class<?> type = attribute.getJavaType();
+        if (attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC || !isSupported(type)) {
+            throw new IllegalArgumentException("Cannot paginate by cursor on property " + property);
+        }
+        return type;
+    }
+
+    private static boolean isSupported(Class<?> type) {
+        return (
+            type == Long.class ||
+            type == Integer.class ||
+            type == String.class ||
+            type == Boolean.class ||
+            type == LocalDate.class ||
+            type == Instant.class
+        );
+    }
+
+    private static Comparable<?> parse(Class<?> type, String value) {
+        if (value == null) {
+            return null;
+        }
+        if (type == Long.class) {
+            return Long.valueOf(value);
+        }
+        if (type == Integer.class) {
+            return Integer.valueOf(value);
+        }
+        if (type == Boolean.class) {
+            return Boolean.valueOf(value);
+        }
+        if (type == LocalDate.class) {
+            return LocalDate.parse(value);
+        }
+        if (type == Instant.class) {
+            return Instant.parse(value);
+        }
+        return value;
+    }
+}
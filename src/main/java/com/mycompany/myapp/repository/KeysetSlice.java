@@ -0,0 +1,32 @@
+package com.mycompany.myapp.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A page of a keyset (cursor) paginated listing.
+ *
+ * @param <T> the entity type.
+ */
+public final class KeysetSlice<T> {
+
+    private final List<T> content;
+
+    private final KeysetCursor nextCursor;
+
+    public KeysetSlice(List<T> content, KeysetCursor nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * @return the cursor on the following page, empty if this is the last page.
+     */
+    public Optional<KeysetCursor> getNextCursor() {
+        return Optional.ofNullable(nextCursor);
+    }
+}
@@ -2,6 +2,8 @@ package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Borrowing;
 import com.mycompany.myapp.domain.Spaces;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
@@ -15,7 +17,31 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface SpacesRepository extends JpaRepository<Spaces, Long> {
-    @Query("select spaces from Spaces spaces where spaces.user.login = :username")
-    Page<Spaces> findByUserIsCurrentUser(@Param("username")String currentUser, Pageable pageable);
+public interface SpacesRepository extends SpacesRepositoryWithKeyset, SpacesRepositoryWithFetchPlan, JpaRepository<Spaces, Long> {
+    @Query("select spaces from Spaces spaces where spaces.user.id = :userId")
+    Page<Spaces> findByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Find the users holding a space on a day.
+     *
+     * @return the id of the user of each space of the day, {@code null} for the spaces without user.
+     */
+    @Query("select user.id from Spaces spaces left join spaces.user user where spaces.date = :date")
+    List<Long> findUserIdsByDate(@Param("date") LocalDate date);
+
+    /**
+     * Find the users holding a space on some days.
+     *
+     * @return the day and the id of the user of each space of the days, {@code null} for the spaces without user.
+     */
+    @Query("select spaces.date, user.id from Spaces spaces left join spaces.user user where spaces.date in :dates")
+    List<Object[]> findDateAndUserIdByDateIn(@Param("dates") Collection<LocalDate> dates);
+
+    /**
+     * Count the spaces of each day of a period, by a range scan of the {@code date} index.
+     *
+     * @return the day and its number of spaces, for each day with spaces.
+     */
+    @Query("select spaces.date, count(spaces) from Spaces spaces where spaces.date between :from and :to group by spaces.date")
+    List<Object[]> countByDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
 }
@@ -0,0 +1,18 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Spaces;
+import java.util.Optional;
+import java.util.Set;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Reads of the {@link Spaces} entity fetching the requested associations, among {@code user}.
+ */
+public interface SpacesRepositoryWithFetchPlan {
+    Page<Spaces> findAll(Pageable pageable, Set<String> expand);
+
+    Page<Spaces> findByUserId(Long userId, Pageable pageable, Set<String> expand);
+
+    Optional<Spaces> findById(Long id, Set<String> expand);
+}
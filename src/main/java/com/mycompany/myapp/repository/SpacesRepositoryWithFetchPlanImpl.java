@@ -0,0 +1,32 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Spaces;
+import java.util.Optional;
+import java.util.Set;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+class SpacesRepositoryWithFetchPlanImpl implements SpacesRepositoryWithFetchPlan {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Spaces> findAll(Pageable pageable, Set<String> expand) {
+        return FetchPlans.findAll(entityManager, Spaces.class, null, pageable, expand);
+    }
+
+    @Override
+    public Page<Spaces> findByUserId(Long userId, Pageable pageable, Set<String> expand) {
+        Specification<Spaces> ofUser = (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+        return FetchPlans.findAll(entityManager, Spaces.class, ofUser, pageable, expand);
+    }
+
+    @Override
+    public Optional<Spaces> findById(Long id, Set<String> expand) {
+        return FetchPlans.findById(entityManager, Spaces.class, id, expand);
+    }
+}
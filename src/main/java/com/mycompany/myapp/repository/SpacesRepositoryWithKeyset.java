@@ -0,0 +1,13 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Spaces;
+import java.util.Set;
+
+/**
+ * Keyset (cursor) pagination for the {@link Spaces} entity.
+ */
+public interface SpacesRepositoryWithKeyset {
+    KeysetSlice<Spaces> findAllAfter(KeysetCursor cursor, int size, Set<String> expand);
+
+    KeysetSlice<Spaces> findByUserIdAfter(Long userId, KeysetCursor cursor, int size, Set<String> expand);
+}
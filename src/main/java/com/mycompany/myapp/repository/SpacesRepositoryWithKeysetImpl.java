@@ -0,0 +1,24 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Spaces;
+import java.util.Set;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.springframework.data.jpa.domain.Specification;
+
+class SpacesRepositoryWithKeysetImpl implements SpacesRepositoryWithKeyset {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public KeysetSlice<Spaces> findAllAfter(KeysetCursor cursor, int size, Set<String> expand) {
+        return KeysetQueries.seek(entityManager, Spaces.class, null, cursor, size, expand);
+    }
+
+    @Override
+    public KeysetSlice<Spaces> findByUserIdAfter(Long userId, KeysetCursor cursor, int size, Set<String> expand) {
+        Specification<Spaces> ofUser = (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+        return KeysetQueries.seek(entityManager, Spaces.class, ofUser, cursor, size, expand);
+    }
+}
@@ -1,13 +1,22 @@
 package com.mycompany.myapp.repository;
 
+import static org.hibernate.jpa.QueryHints.*;
+
 import com.mycompany.myapp.domain.User;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -15,6 +24,8 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    String USERS_ID_BY_LOGIN_CACHE = "usersIdByLogin";
+
     Optional<User> findOneByActivationKey(String activationKey);
 
     List<User> findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant dateTime);
@@ -25,6 +36,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findOneByLogin(String login);
 
+    /**
+     * Resolve a login to the id of its user, such as the current user login, to filter their rows on the
+     * {@code user_id} column rather than join the user table.
+     * <p>
+     * The id of a login only changes when the user is deleted or renamed, and {@link com.mycompany.myapp.service.UserService}
+     * evicts it then. Unknown logins are not cached.
+     */
+    @Cacheable(cacheNames = USERS_ID_BY_LOGIN_CACHE, unless = "#result == null")
+    @Query("select user.id from User user where user.login = :login")
+    Optional<Long> findIdByLogin(@Param("login") String login);
+
     @EntityGraph(attributePaths = "authorities")
     Optional<User> findOneWithAuthoritiesByLogin(String login);
 
@@ -32,4 +54,16 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findOneWithAuthoritiesByEmailIgnoreCase(String email);
 
     Page<User> findAllByIdNotNullAndActivatedIsTrue(Pageable pageable);
+
+    @QueryHints(
+        { @QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true"), @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE") }
+    )
+    @Query("select user from User user order by user.id")
+    Stream<User> streamAllByOrderById();
+
+    /**
+     * Get the authority names of the given users, as {@code [userId, authorityName]} pairs.
+     */
+    @Query("select user.id, authority.name from User user join user.authorities authority where user.id in :ids")
+    List<Object[]> findAuthorityNamesByUserIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,66 @@
+package com.mycompany.myapp.security.jwt;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A Bloom filter of strings: {@link #mightContain} is {@code false} for every string never put, and {@code true} for
+ * the strings put as well as, at the chosen rate, for others. Strings may be put while others are looked up.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+
+    private final int bits;
+
+    private final int hashes;
+
+    /**
+     * @param expectedInsertions the number of strings to be put.
+     * @param falsePositiveRate the rate of strings never put found in the filter, once the expected strings are put.
+     */
+    BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        int insertions = Math.max(1, expectedInsertions);
+        double ln2 = Math.log(2);
+        long optimalBits = (long) Math.ceil(-insertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+        bits = (int) Math.min(Math.max(Long.SIZE, optimalBits), Integer.MAX_VALUE - Long.SIZE);
+        hashes = Math.max(1, (int) Math.round((double) bits / insertions * ln2));
+        words = new AtomicLongArray((bits + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    void put(String value) {
+        int hash1 = value.hashCode();
+        int hash2 = mix(hash1);
+        for (int i = 0; i < hashes; i++) {
+            int bit = Math.floorMod(hash1 + i * hash2, bits);
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            if ((words.get(word) & mask) == 0) {
+                words.getAndAccumulate(word, mask, (current, added) -> current | added);
+            }
+        }
+    }
+
+    boolean mightContain(String value) {
+        int hash1 = value.hashCode();
+        int hash2 = mix(hash1);
+        for (int i = 0; i < hashes; i++) {
+            int bit = Math.floorMod(hash1 + i * hash2, bits);
+            if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The second hash of the double hashing, derived from the first with the MurmurHash3 finalizer.
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash | 1;
+    }
+}
@@ -9,13 +9,16 @@ public class JWTConfigurer extends SecurityConfigurerAdapter<DefaultSecurityFilt
 
     private final TokenProvider tokenProvider;
 
-    public JWTConfigurer(TokenProvider tokenProvider) {
+    private final TokenRevocationStore tokenRevocationStore;
+
+    public JWTConfigurer(TokenProvider tokenProvider, TokenRevocationStore tokenRevocationStore) {
         this.tokenProvider = tokenProvider;
+        this.tokenRevocationStore = tokenRevocationStore;
     }
 
     @Override
     public void configure(HttpSecurity http) {
-        JWTFilter customFilter = new JWTFilter(tokenProvider);
+        JWTFilter customFilter = new JWTFilter(tokenProvider, tokenRevocationStore);
         http.addFilterBefore(customFilter, UsernamePasswordAuthenticationFilter.class);
     }
 }
@@ -0,0 +1,40 @@
+package com.mycompany.myapp.security.jwt;
+
+import java.time.Instant;
+
+/**
+ * The details of the authentication of a token: its id, when it was issued and when it expires, which its revocation
+ * is checked and recorded with.
+ */
+public final class TokenDetails {
+
+    private final String id;
+
+    private final Instant issuedAt;
+
+    private final Instant expiresAt;
+
+    public TokenDetails(String id, Instant issuedAt, Instant expiresAt) {
+        this.id = id;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * @return the id of the token, or {@code null} for a token issued without one.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return when the token was issued, to the second, or {@code null} for a token issued without it.
+     */
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
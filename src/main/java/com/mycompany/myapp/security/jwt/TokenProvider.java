@@ -5,7 +5,11 @@ import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,6 +22,16 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.ObjectUtils;
 import tech.jhipster.config.JHipsterProperties;
 
+/**
+ * Creates the JWT tokens of the authenticated users, and authenticates the requests bearing them.
+ * <p>
+ * A token is parsed and its signature verified once: the resulting {@link Authentication} is kept in a bounded cache
+ * of {@link #CACHE_SIZE} slots, picked by the hash of the token, until the token expires. A request bearing a cached
+ * token is authenticated without any signature check, decoding or allocation. Tokens whose hashes pick the same slot
+ * replace each other, and a slot is only used for the very token it was filled with.
+ * <p>
+ * Each token has a random id, and its authentication the {@link TokenDetails} its revocation is checked with.
+ */
 @Component
 public class TokenProvider {
 
@@ -25,6 +39,8 @@ public class TokenProvider {
 
     private static final String AUTHORITIES_KEY = "auth";
 
+    static final int CACHE_SIZE = 4096;
+
     private final Key key;
 
     private final JwtParser jwtParser;
@@ -33,6 +49,13 @@ public class TokenProvider {
 
     private final long tokenValidityInMillisecondsForRememberMe;
 
+    private final AtomicReferenceArray<CachedAuthentication> cache = new AtomicReferenceArray<>(CACHE_SIZE);
+
+    /**
+     * The authorities of each value of the authorities claim, as the same few combinations are found in every token.
+     */
+    private final ConcurrentMap<String, List<GrantedAuthority>> authoritiesByClaim = new ConcurrentHashMap<>();
+
     public TokenProvider(JHipsterProperties jHipsterProperties) {
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getBase64Secret();
@@ -67,25 +90,71 @@ public class TokenProvider {
 
         return Jwts
             .builder()
+            .setId(UUID.randomUUID().toString())
             .setSubject(authentication.getName())
+            .setIssuedAt(new Date(now))
             .claim(AUTHORITIES_KEY, authorities)
             .signWith(key, SignatureAlgorithm.HS512)
             .setExpiration(validity)
             .compact();
     }
 
+    /**
+     * Authenticate a request bearing a token.
+     *
+     * @param token the token.
+     * @return the authentication of the token, or {@code null} if the token is invalid or expired.
+     */
+    public Authentication authenticate(String token) {
+        int slot = token.hashCode() & (CACHE_SIZE - 1);
+        CachedAuthentication cached = cache.get(slot);
+        if (cached != null && cached.token.equals(token)) {
+            if (System.currentTimeMillis() < cached.expiresAt) {
+                return cached.authentication;
+            }
+            cache.compareAndSet(slot, cached, null);
+        }
+        Claims claims;
+        try {
+            claims = jwtParser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.info("Invalid JWT token.");
+            log.trace("Invalid JWT token trace.", e);
+            return null;
+        }
+        Authentication authentication = toAuthentication(token, claims);
+        if (claims.getExpiration() != null) {
+            cache.set(slot, new CachedAuthentication(token, claims.getExpiration().getTime(), authentication));
+        }
+        return authentication;
+    }
+
     public Authentication getAuthentication(String token) {
-        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        return toAuthentication(token, jwtParser.parseClaimsJws(token).getBody());
+    }
 
-        Collection<? extends GrantedAuthority> authorities = Arrays
-            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-            .filter(auth -> !auth.trim().isEmpty())
-            .map(SimpleGrantedAuthority::new)
-            .collect(Collectors.toList());
+    private Authentication toAuthentication(String token, Claims claims) {
+        List<GrantedAuthority> authorities = authoritiesByClaim.computeIfAbsent(
+            claims.get(AUTHORITIES_KEY).toString(),
+            claim ->
+                Arrays
+                    .stream(claim.split(","))
+                    .filter(auth -> !auth.trim().isEmpty())
+                    .map(SimpleGrantedAuthority::new)
+                    .collect(Collectors.toUnmodifiableList())
+        );
 
         User principal = new User(claims.getSubject(), "", authorities);
 
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(principal, token, authorities);
+        authentication.setDetails(
+            new TokenDetails(claims.getId(), toInstant(claims.getIssuedAt()), toInstant(claims.getExpiration()))
+        );
+        return authentication;
+    }
+
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
     }
 
     public boolean validateToken(String authToken) {
@@ -98,4 +167,22 @@ public class TokenProvider {
         }
         return false;
     }
+
+    /**
+     * The authentication of a verified token, until the token expires.
+     */
+    private static final class CachedAuthentication {
+
+        private final String token;
+
+        private final long expiresAt;
+
+        private final Authentication authentication;
+
+        CachedAuthentication(String token, long expiresAt, Authentication authentication) {
+            this.token = token;
+            this.expiresAt = expiresAt;
+            this.authentication = authentication;
+        }
+    }
 }
@@ -0,0 +1,181 @@
+package com.mycompany.myapp.security.jwt;
+
+import com.mycompany.myapp.domain.RevokedToken;
+import com.mycompany.myapp.repository.RevokedTokenRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Store of the tokens revoked before they expire: a single token when logging out, or all the tokens issued to a
+ * subject until then, when its password is changed or it is deactivated.
+ * <p>
+ * Revocations are persisted, and mirrored in memory into a Bloom filter of the revoked token ids and one of the revoked
+ * subjects, each backed by the exact set. Checking the token of a request takes a few probes of the filters, and
+ * the exact sets are only read for the few tokens the filters cannot rule out, so no request reads the database.
+ * <p>
+ * The revocations made by this instance are applied in memory at once, those of the other instances once the filters
+ * are rebuilt from the database, every {@link #REBUILD_INTERVAL_MILLIS} ms. Revocations are deleted once the tokens
+ * they revoke would have expired anyway.
+ */
+@Component
+public class TokenRevocationStore {
+
+    private final Logger log = LoggerFactory.getLogger(TokenRevocationStore.class);
+
+    static final long REBUILD_INTERVAL_MILLIS = 60_000;
+
+    private static final int MIN_EXPECTED_REVOCATIONS = 1024;
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    private final long maxTokenValidityInMilliseconds;
+
+    private volatile Revocations revocations = new Revocations(MIN_EXPECTED_REVOCATIONS);
+
+    /**
+     * The revocations made by this instance during the last rebuild interval, carried over by the next rebuild in case
+     * their transaction was not committed yet when the database was read.
+     */
+    private final List<RevokedToken> recent = new ArrayList<>();
+
+    public TokenRevocationStore(RevokedTokenRepository revokedTokenRepository, JHipsterProperties jHipsterProperties) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        JHipsterProperties.Security.Authentication.Jwt jwt = jHipsterProperties.getSecurity().getAuthentication().getJwt();
+        this.maxTokenValidityInMilliseconds = 1000 * Math.max(jwt.getTokenValidityInSeconds(), jwt.getTokenValidityInSecondsForRememberMe());
+    }
+
+    /**
+     * Check whether the token of an authentication is revoked.
+     *
+     * @param authentication the authentication of a token.
+     * @return {@code true} if the token, or all the tokens of its subject issued until then, are revoked.
+     */
+    public boolean isRevoked(Authentication authentication) {
+        TokenDetails details = authentication.getDetails() instanceof TokenDetails ? (TokenDetails) authentication.getDetails() : null;
+        return revocations.contains(
+            details != null ? details.getId() : null,
+            authentication.getName(),
+            details != null ? details.getIssuedAt() : null
+        );
+    }
+
+    /**
+     * Revoke the token of an authentication, as its subject logs out.
+     *
+     * @param authentication the authentication of a token.
+     */
+    public void revoke(Authentication authentication) {
+        if (!(authentication.getDetails() instanceof TokenDetails) || ((TokenDetails) authentication.getDetails()).getId() == null) {
+            log.debug("Cannot revoke a token without id of {}", authentication.getName());
+            return;
+        }
+        TokenDetails details = (TokenDetails) authentication.getDetails();
+        save(new RevokedToken().tokenId(details.getId()).subject(authentication.getName()).revokedAt(Instant.now()).expiresAt(details.getExpiresAt()));
+        log.debug("Revoked token {} of {}", details.getId(), authentication.getName());
+    }
+
+    /**
+     * Revoke all the tokens issued to a subject until now, as its password is changed or it is deactivated.
+     *
+     * @param subject the subject of the tokens, that is the login of the user.
+     */
+    public void revokeAll(String subject) {
+        Instant now = Instant.now();
+        save(new RevokedToken().subject(subject).revokedAt(now).expiresAt(now.plusMillis(maxTokenValidityInMilliseconds)));
+        log.debug("Revoked all tokens of {}", subject);
+    }
+
+    private void save(RevokedToken revokedToken) {
+        revokedTokenRepository.save(revokedToken);
+        synchronized (this) {
+            revocations.add(revokedToken);
+            recent.add(revokedToken);
+        }
+    }
+
+    /**
+     * Rebuild the revocations in memory from the database, to take in the revocations of the other instances, and delete
+     * the expired revocations.
+     */
+    @Scheduled(fixedDelay = REBUILD_INTERVAL_MILLIS)
+    public synchronized void rebuild() {
+        Instant now = Instant.now();
+        List<RevokedToken> revokedTokens;
+        try {
+            int deleted = revokedTokenRepository.deleteExpired(now);
+            if (deleted > 0) {
+                log.debug("Deleted {} expired token revocations", deleted);
+            }
+            revokedTokens = revokedTokenRepository.findAllByExpiresAtAfter(now);
+        } catch (DataAccessException e) {
+            log.warn("Cannot read the token revocations, keeping the current ones: {}", e.getMessage());
+            return;
+        }
+        recent.removeIf(revokedToken -> revokedToken.getRevokedAt().isBefore(now.minusMillis(REBUILD_INTERVAL_MILLIS)));
+        Revocations rebuilt = new Revocations(Math.max(MIN_EXPECTED_REVOCATIONS, 2 * (revokedTokens.size() + recent.size())));
+        revokedTokens.forEach(rebuilt::add);
+        recent.forEach(rebuilt::add);
+        revocations = rebuilt;
+    }
+
+    /**
+     * The revocations in memory. Revocations are only added, each to its exact set before its filter, so that any
+     * revocation found in a filter is in the exact set.
+     */
+    private static final class Revocations {
+
+        private final BloomFilter tokenIdFilter;
+
+        private final BloomFilter subjectFilter;
+
+        private final Set<String> tokenIds = ConcurrentHashMap.newKeySet();
+
+        /**
+         * When all the tokens of each subject were last revoked.
+         */
+        private final ConcurrentMap<String, Instant> subjects = new ConcurrentHashMap<>();
+
+        Revocations(int expectedRevocations) {
+            tokenIdFilter = new BloomFilter(expectedRevocations, FALSE_POSITIVE_RATE);
+            subjectFilter = new BloomFilter(expectedRevocations, FALSE_POSITIVE_RATE);
+        }
+
+        void add(RevokedToken revokedToken) {
+            if (revokedToken.getTokenId() != null) {
+                tokenIds.add(revokedToken.getTokenId());
+                tokenIdFilter.put(revokedToken.getTokenId());
+            } else {
+                subjects.merge(revokedToken.getSubject(), revokedToken.getRevokedAt(), (a, b) -> a.isAfter(b) ? a : b);
+                subjectFilter.put(revokedToken.getSubject());
+            }
+        }
+
+        /**
+         * A token issued in the same second its subject was revoked is taken as revoked, as tokens are issued to the
+         * second.
+         */
+        boolean contains(String tokenId, String subject, Instant issuedAt) {
+            if (tokenId != null && tokenIdFilter.mightContain(tokenId) && tokenIds.contains(tokenId)) {
+                return true;
+            }
+            if (subject == null || !subjectFilter.mightContain(subject)) {
+                return false;
+            }
+            Instant revokedAt = subjects.get(subject);
+            return revokedAt != null && (issuedAt == null || !issuedAt.isAfter(revokedAt));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.mycompany.myapp.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers updates of the in-memory catalog views until the changes they reflect are committed.
+ */
+final class AfterCommit {
+
+    private AfterCommit() {}
+
+    /**
+     * Run an action once the current transaction commits, or at once if there is no transaction.
+     *
+     * @param action the action to run.
+     */
+    static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        action.run();
+                    }
+                }
+            );
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Run an action once the current transaction commits, and another if it rolls back, or the first at once if there
+     * is no transaction.
+     *
+     * @param action the action to run on commit.
+     * @param rollbackAction the action to run on rollback.
+     */
+    static void run(Runnable action, Runnable rollbackAction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status == STATUS_COMMITTED) {
+                            action.run();
+                        } else {
+                            rollbackAction.run();
+                        }
+                    }
+                }
+            );
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.mycompany.myapp.service;
+
+public class BookAvailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public BookAvailableException() {
+        super("Copies of the book are available!");
+    }
+}
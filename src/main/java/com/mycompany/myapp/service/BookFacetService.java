@@ -0,0 +1,287 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.service.dto.BookFacetsDTO;
+import com.mycompany.myapp.service.dto.BookFacetsDTO.FacetCount;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for counting the books of the catalog by category, author and publisher.
+ * <p>
+ * The counts are kept in memory, for the whole catalog and for each category, so that reading them costs a sort of the
+ * facet values instead of a {@code GROUP BY} over the book table. They are loaded once the application is ready, kept
+ * up to date by the book write paths once their transaction commits, and fully rebuilt every hour to pick up changes
+ * made elsewhere, such as renamed categories. The updates committed while a rebuild reads the books are applied to the
+ * current counts and replayed onto the rebuilt ones before they replace them, so that none is lost.
+ */
+@Service
+public class BookFacetService {
+
+    private final Logger log = LoggerFactory.getLogger(BookFacetService.class);
+
+    private static final int CLEAR_BATCH_SIZE = 1000;
+
+    private final BookRepository bookRepository;
+
+    private final EntityManager entityManager;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Facets facets = new Facets();
+
+    /**
+     * The updates applied while a rebuild is in progress, to replay onto the rebuilt counts, or {@code null}.
+     */
+    private List<Consumer<Facets>> pending;
+
+    public BookFacetService(BookRepository bookRepository, EntityManager entityManager) {
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Rebuild the counts from the database, once the application has started and then every hour.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 15 * * * ?")
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Facets rebuilt = null;
+        try {
+            rebuilt = load();
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (rebuilt != null) {
+                    for (Consumer<Facets> update : pending) {
+                        update.accept(rebuilt);
+                    }
+                    facets = rebuilt;
+                }
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Counted facets of {} books in {} ms", rebuilt.entries.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Count a new or updated book.
+     *
+     * @param book the saved book.
+     */
+    public void index(Book book) {
+        if (book.getId() == null) {
+            return;
+        }
+        Entry entry = Entry.of(book);
+        AfterCommit.run(() ->
+            apply(counts -> {
+                counts.remove(entry.id);
+                counts.add(entry);
+            })
+        );
+    }
+
+    /**
+     * Stop counting a book.
+     *
+     * @param id the id of the deleted book.
+     */
+    public void remove(Long id) {
+        AfterCommit.run(() -> apply(counts -> counts.remove(id)));
+    }
+
+    /**
+     * Get the facet counts, largest first.
+     *
+     * @param categoryId the category to restrict the counts to, or {@code null} for the whole catalog.
+     * @param size the maximum number of values returned per facet.
+     * @return the facet counts.
+     */
+    public BookFacetsDTO getFacets(Long categoryId, int size) {
+        lock.readLock().lock();
+        try {
+            Counts counts = categoryId == null ? facets.all : facets.byCategory.getOrDefault(categoryId, new Counts());
+            return new BookFacetsDTO(
+                categoryId,
+                counts.total,
+                top(counts.categories, size, id -> new FacetCount(id, facets.categoryNames.get(id), counts.categories.get(id))),
+                top(counts.authors, size, author -> new FacetCount(null, author, counts.authors.get(author))),
+                top(counts.publishers, size, publisher -> new FacetCount(null, publisher, counts.publishers.get(publisher)))
+            );
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Facets load() {
+        Facets loaded = new Facets();
+        try (Stream<Book> books = bookRepository.streamAllByOrderById()) {
+            Iterator<Book> iterator = books.iterator();
+            while (iterator.hasNext()) {
+                loaded.add(Entry.of(iterator.next()));
+                if (loaded.entries.size() % CLEAR_BATCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private void apply(Consumer<Facets> update) {
+        lock.writeLock().lock();
+        try {
+            update.accept(facets);
+            if (pending != null) {
+                pending.add(update);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static <K extends Comparable<K>> List<FacetCount> top(Map<K, Integer> counts, int size, Function<K, FacetCount> toFacetCount) {
+        return counts
+            .entrySet()
+            .stream()
+            .sorted(Map.Entry.<K, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+            .limit(size)
+            .map(e -> toFacetCount.apply(e.getKey()))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * The facet values of one book.
+     */
+    private static final class Entry {
+
+        private final Long id;
+
+        private final Long categoryId;
+
+        private final String categoryName;
+
+        private final String author;
+
+        private final String publisher;
+
+        private Entry(Long id, Long categoryId, String categoryName, String author, String publisher) {
+            this.id = id;
+            this.categoryId = categoryId;
+            this.categoryName = categoryName;
+            this.author = author;
+            this.publisher = publisher;
+        }
+
+        static Entry of(Book book) {
+            Category category = book.getCategory();
+            return new Entry(
+                book.getId(),
+                category == null ? null : category.getId(),
+                category == null ? null : category.getName(),
+                normalize(book.getAuthor()),
+                normalize(book.getPublisher())
+            );
+        }
+
+        private static String normalize(String value) {
+            return value == null || value.isBlank() ? null : value.trim();
+        }
+    }
+
+    /**
+     * The number of books per facet value.
+     */
+    private static final class Counts {
+
+        private long total;
+
+        private final Map<Long, Integer> categories = new HashMap<>();
+
+        private final Map<String, Integer> authors = new HashMap<>();
+
+        private final Map<String, Integer> publishers = new HashMap<>();
+
+        void add(Entry entry, int delta) {
+            total += delta;
+            merge(categories, entry.categoryId, delta);
+            merge(authors, entry.author, delta);
+            merge(publishers, entry.publisher, delta);
+        }
+
+        boolean isEmpty() {
+            return total == 0;
+        }
+
+        private static <K> void merge(Map<K, Integer> counts, K key, int delta) {
+            if (key != null) {
+                counts.merge(key, delta, (count, d) -> count + d == 0 ? null : count + d);
+            }
+        }
+    }
+
+    /**
+     * The counts of the whole catalog and of each category.
+     */
+    private static final class Facets {
+
+        private final Map<Long, Entry> entries = new HashMap<>();
+
+        private final Counts all = new Counts();
+
+        private final Map<Long, Counts> byCategory = new HashMap<>();
+
+        private final Map<Long, String> categoryNames = new HashMap<>();
+
+        void add(Entry entry) {
+            entries.put(entry.id, entry);
+            all.add(entry, 1);
+            if (entry.categoryId != null) {
+                byCategory.computeIfAbsent(entry.categoryId, id -> new Counts()).add(entry, 1);
+                if (entry.categoryName != null) {
+                    categoryNames.put(entry.categoryId, entry.categoryName);
+                }
+            }
+        }
+
+        void remove(Long id) {
+            Entry entry = entries.remove(id);
+            if (entry == null) {
+                return;
+            }
+            all.add(entry, -1);
+            if (entry.categoryId != null) {
+                Counts counts = byCategory.get(entry.categoryId);
+                counts.add(entry, -1);
+                if (counts.isEmpty()) {
+                    byCategory.remove(entry.categoryId);
+                }
+            }
+        }
+    }
+}
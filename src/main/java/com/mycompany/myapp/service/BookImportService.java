@@ -0,0 +1,379 @@
+package com.mycompany.myapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.repository.CategoryRepository;
+import com.mycompany.myapp.service.dto.BookImportReportDTO;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service for importing books in bulk.
+ * <p>
+ * The upload is read line by line and rows are inserted with JDBC batches, committing every {@link #CHUNK_SIZE} rows.
+ * Only one chunk is held in memory at a time, so an import of any size runs in constant memory. Category references
+ * are resolved against a single snapshot of the category table taken when the import starts.
+ * <p>
+ * Rows are validated against the column constraints before they are batched, so that a bad row is rejected alone. A
+ * chunk the database still rejects is written again row by row, and only the rows that fail are rejected.
+ */
+@Service
+public class BookImportService {
+
+    private final Logger log = LoggerFactory.getLogger(BookImportService.class);
+
+    static final int CHUNK_SIZE = 1000;
+
+    /**
+     * The length of the title, author and publisher columns.
+     */
+    static final int MAX_TEXT_LENGTH = 255;
+
+    private static final String INSERT_SQL =
+        "insert into book (title, author, fine_amount, publisher, quantity, category_id) values (?, ?, ?, ?, ?, ?)";
+
+    private static final int[] INSERT_TYPES = { Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.VARCHAR, Types.INTEGER, Types.BIGINT };
+
+    private static final Set<String> CSV_COLUMNS = Set.of(
+        "id",
+        "title",
+        "author",
+        "fine_amount",
+        "publisher",
+        "quantity",
+        "category_id",
+        "category"
+    );
+
+    private final CategoryRepository categoryRepository;
+
+    private final BookSearchService bookSearchService;
+
+    private final BookFacetService bookFacetService;
+
+    private final BookSuggestService bookSuggestService;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    public BookImportService(
+        CategoryRepository categoryRepository,
+        BookSearchService bookSearchService,
+        BookFacetService bookFacetService,
+        BookSuggestService bookSuggestService,
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        ObjectMapper objectMapper
+    ) {
+        this.categoryRepository = categoryRepository;
+        this.bookSearchService = bookSearchService;
+        this.bookFacetService = bookFacetService;
+        this.bookSuggestService = bookSuggestService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Import books from a CSV upload, in the column layout of {@code config/liquibase/fake-data/book.csv}.
+     * <p>
+     * The first line is the header. Columns are separated by {@code ;}, or by {@code ,} if the header has no {@code ;}.
+     * The {@code id} column is ignored, as imported books are always created; a category can be given by id in a
+     * {@code category_id} column or by name in a {@code category} column.
+     *
+     * @param input the CSV content.
+     * @return the import report.
+     * @throws IOException if the upload cannot be read.
+     * @throws IllegalArgumentException if the header is missing or names an unknown column.
+     */
+    public BookImportReportDTO importCsv(InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header == null || header.isBlank()) {
+            throw new IllegalArgumentException("Missing CSV header");
+        }
+        char separator = header.indexOf(';') >= 0 ? ';' : ',';
+        List<String> columns = new ArrayList<>();
+        for (String column : splitCsv(header, separator)) {
+            String name = column.trim().toLowerCase(Locale.ROOT);
+            if (!CSV_COLUMNS.contains(name)) {
+                throw new IllegalArgumentException("Unknown CSV column " + column);
+            }
+            columns.add(name);
+        }
+        return importRows(
+            reader,
+            2,
+            line -> {
+                List<String> values = splitCsv(line, separator);
+                if (values.size() != columns.size()) {
+                    throw new IllegalArgumentException("Expected " + columns.size() + " columns but found " + values.size());
+                }
+                Map<String, String> row = new HashMap<>();
+                for (int i = 0; i < columns.size(); i++) {
+                    String value = values.get(i).trim();
+                    row.put(columns.get(i), value.isEmpty() ? null : value);
+                }
+                return row;
+            }
+        );
+    }
+
+    /**
+     * Import books from an NDJSON upload: one JSON book per line, as returned by {@code GET /api/books/:id}.
+     * <p>
+     * A category can be given as a {@code category} object with an {@code id} or a {@code name}, or as a
+     * {@code category_id}.
+     *
+     * @param input the NDJSON content.
+     * @return the import report.
+     * @throws IOException if the upload cannot be read.
+     */
+    public BookImportReportDTO importNdjson(InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        return importRows(
+            reader,
+            1,
+            line -> {
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(line);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+                }
+                if (!node.isObject()) {
+                    throw new IllegalArgumentException("Expected a JSON object");
+                }
+                Map<String, String> row = new HashMap<>();
+                for (String field : List.of("title", "author", "fine_amount", "publisher", "quantity", "category_id")) {
+                    row.put(field, text(node.get(field)));
+                }
+                JsonNode category = node.get("category");
+                if (category != null && category.isObject()) {
+                    row.putIfAbsent("category_id", text(category.get("id")));
+                    row.put("category", text(category.get("name")));
+                } else {
+                    row.put("category", text(category));
+                }
+                return row;
+            }
+        );
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        Map<String, String> parse(String line);
+    }
+
+    private BookImportReportDTO importRows(BufferedReader reader, long firstLineNumber, RowParser parser) throws IOException {
+        long start = System.currentTimeMillis();
+        CategoryLookup categories = new CategoryLookup(categoryRepository.findAll());
+        BookImportReportDTO report = new BookImportReportDTO();
+        List<Object[]> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<Long> chunkLines = new ArrayList<>(CHUNK_SIZE);
+
+        long lineNumber = firstLineNumber - 1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            report.setRowsRead(report.getRowsRead() + 1);
+            try {
+                chunk.add(toInsertArguments(parser.parse(line), categories));
+                chunkLines.add(lineNumber);
+            } catch (IllegalArgumentException e) {
+                report.reject(lineNumber, e.getMessage());
+                continue;
+            }
+            if (chunk.size() == CHUNK_SIZE) {
+                writeChunk(chunk, chunkLines, report);
+            }
+        }
+        writeChunk(chunk, chunkLines, report);
+
+        report.setDurationMillis(System.currentTimeMillis() - start);
+        log.info("Imported books: {}", report);
+        if (report.getRowsImported() > 0) {
+            bookSearchService.rebuildIndex();
+            bookFacetService.rebuild();
+            bookSuggestService.rebuild();
+        }
+        return report;
+    }
+
+    private void writeChunk(List<Object[]> chunk, List<Long> chunkLines, BookImportReportDTO report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, chunk, INSERT_TYPES));
+            report.setRowsImported(report.getRowsImported() + chunk.size());
+        } catch (DataAccessException e) {
+            log.warn(
+                "Could not import books from lines {} to {} in one batch, retrying row by row: {}",
+                chunkLines.get(0),
+                chunkLines.get(chunkLines.size() - 1),
+                e.getMostSpecificCause().getMessage()
+            );
+            for (int i = 0; i < chunk.size(); i++) {
+                writeRow(chunk.get(i), chunkLines.get(i), report);
+            }
+        }
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+    private void writeRow(Object[] row, long line, BookImportReportDTO report) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(INSERT_SQL, row, INSERT_TYPES));
+            report.setRowsImported(report.getRowsImported() + 1);
+        } catch (DataAccessException e) {
+            report.reject(line, "Row rejected by the database: " + e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private static Object[] toInsertArguments(Map<String, String> row, CategoryLookup categories) {
+        Long categoryId = null;
+        String categoryIdValue = row.get("category_id");
+        String categoryName = row.get("category");
+        if (categoryIdValue != null) {
+            categoryId = categories.byId(parseLong(categoryIdValue, "category_id"));
+        } else if (categoryName != null) {
+            categoryId = categories.byName(categoryName);
+        }
+        return new Object[] {
+            text(row, "title"),
+            text(row, "author"),
+            parseCount(row.get("fine_amount"), "fine_amount"),
+            text(row, "publisher"),
+            parseCount(row.get("quantity"), "quantity"),
+            categoryId,
+        };
+    }
+
+    private static String text(Map<String, String> row, String column) {
+        String value = row.get(column);
+        if (value != null && value.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException("Too long " + column + ", at most " + MAX_TEXT_LENGTH + " characters");
+        }
+        return value;
+    }
+
+    private static Integer parseCount(String value, String column) {
+        Integer count = parseInteger(value, column);
+        if (count != null && count < 0) {
+            throw new IllegalArgumentException("Negative " + column + " '" + value + "'");
+        }
+        return count;
+    }
+
+    private static Integer parseInteger(String value, String column) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + " '" + value + "'");
+        }
+    }
+
+    private static Long parseLong(String value, String column) {
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + " '" + value + "'");
+        }
+    }
+
+    private static String text(JsonNode node) {
+        return node == null || node.isNull() ? null : node.asText();
+    }
+
+    /**
+     * Split a CSV line, honouring double-quoted fields and their {@code ""} escapes.
+     */
+    static List<String> splitCsv(String line, char separator) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * The categories known when the import started.
+     */
+    private static final class CategoryLookup {
+
+        private final Set<Long> ids = new HashSet<>();
+
+        private final Map<String, Long> idsByName = new HashMap<>();
+
+        CategoryLookup(List<Category> categories) {
+            for (Category category : categories) {
+                ids.add(category.getId());
+                if (category.getName() != null) {
+                    idsByName.putIfAbsent(category.getName().trim().toLowerCase(Locale.ROOT), category.getId());
+                }
+            }
+        }
+
+        Long byId(Long id) {
+            if (!ids.contains(id)) {
+                throw new IllegalArgumentException("Unknown category id " + id);
+            }
+            return id;
+        }
+
+        Long byName(String name) {
+            Long id = idsByName.get(name.trim().toLowerCase(Locale.ROOT));
+            if (id == null) {
+                throw new IllegalArgumentException("Unknown category '" + name + "'");
+            }
+            return id;
+        }
+    }
+}
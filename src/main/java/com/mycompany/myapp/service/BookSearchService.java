@@ -0,0 +1,269 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.repository.BookRepository;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for full-text searching the {@link Book} catalog.
+ * <p>
+ * Keeps an in-memory inverted index over the title, author and publisher of every book, so that searches never hit the
+ * database. The index is loaded from the {@link BookRepository} once the application is ready, and then kept up to date
+ * by the book write paths. Changes made inside a transaction are only applied once that transaction commits. Those
+ * committed while the index is being rebuilt are replayed onto the rebuilt index, so that none is lost.
+ */
+@Service
+public class BookSearchService {
+
+    private final Logger log = LoggerFactory.getLogger(BookSearchService.class);
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private static final Set<String> INDEXED_ASSOCIATIONS = Set.of("category");
+
+    private static final int TITLE_BOOST = 3;
+
+    private static final int AUTHOR_BOOST = 2;
+
+    private static final int PUBLISHER_BOOST = 1;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final BookRepository bookRepository;
+
+    /**
+     * Term to (book id to boosted term frequency).
+     */
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+
+    /**
+     * Detached copies of every indexed book, by id.
+     */
+    private final Map<Long, Book> documents = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * The changes applied while a rebuild is in progress, to replay onto the rebuilt index, or {@code null}.
+     */
+    private List<Runnable> pending;
+
+    public BookSearchService(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    /**
+     * Build the index from the database, once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuildIndex() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<Book> loaded = null;
+        try {
+            loaded = load();
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (loaded != null) {
+                    postings.clear();
+                    documents.clear();
+                    loaded.forEach(this::doIndex);
+                    pending.forEach(Runnable::run);
+                }
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Indexed {} books for search in {} ms", loaded.size(), System.currentTimeMillis() - start);
+    }
+
+    private List<Book> load() {
+        List<Book> loaded = new ArrayList<>();
+        Pageable pageable = PageRequest.of(0, LOAD_BATCH_SIZE, Sort.by("id"));
+        Page<Book> page;
+        do {
+            page = bookRepository.findAll(pageable, INDEXED_ASSOCIATIONS);
+            page.forEach(book -> loaded.add(copyOf(book)));
+            pageable = page.nextPageable();
+        } while (page.hasNext());
+        return loaded;
+    }
+
+    /**
+     * Add or replace a book in the index.
+     *
+     * @param book the saved book.
+     */
+    public void index(Book book) {
+        if (book.getId() == null) {
+            return;
+        }
+        Book copy = copyOf(book);
+        AfterCommit.run(() ->
+            apply(() -> {
+                doRemove(copy.getId());
+                doIndex(copy);
+            })
+        );
+    }
+
+    /**
+     * Remove a book from the index.
+     *
+     * @param id the id of the deleted book.
+     */
+    public void remove(Long id) {
+        AfterCommit.run(() -> apply(() -> doRemove(id)));
+    }
+
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (pending != null) {
+                pending.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Search the catalog, best matches first.
+     * <p>
+     * Every query term contributes its boosted frequency in the book, weighted by how rare the term is in the catalog;
+     * books matching more of the terms therefore rank higher.
+     *
+     * @param query the free-text query.
+     * @param pageable the pagination information; its sort is ignored as results are ordered by relevance.
+     * @return the matching books.
+     */
+    public Page<Book> search(String query, Pageable pageable) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            Map<Long, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                Map<Long, Integer> matches = postings.get(term);
+                if (matches == null) {
+                    continue;
+                }
+                double idf = Math.log(1.0 + (double) documentCount / matches.size());
+                matches.forEach((id, frequency) -> scores.merge(id, frequency * idf, Double::sum));
+            }
+            List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+
+            List<Book> content = new ArrayList<>();
+            int from = (int) Math.min(pageable.getOffset(), ranked.size());
+            int to = Math.min(from + pageable.getPageSize(), ranked.size());
+            for (Map.Entry<Long, Double> entry : ranked.subList(from, to)) {
+                content.add(documents.get(entry.getKey()));
+            }
+            return new PageImpl<>(content, pageable, ranked.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void doIndex(Book book) {
+        documents.put(book.getId(), book);
+        Map<String, Integer> frequencies = new HashMap<>();
+        addTerms(frequencies, book.getTitle(), TITLE_BOOST);
+        addTerms(frequencies, book.getAuthor(), AUTHOR_BOOST);
+        addTerms(frequencies, book.getPublisher(), PUBLISHER_BOOST);
+        frequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(book.getId(), frequency));
+    }
+
+    private void doRemove(Long id) {
+        Book previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        Set<String> terms = new HashSet<>();
+        terms.addAll(tokenize(previous.getTitle()));
+        terms.addAll(tokenize(previous.getAuthor()));
+        terms.addAll(tokenize(previous.getPublisher()));
+        for (String term : terms) {
+            Map<Long, Integer> matches = postings.get(term);
+            if (matches != null) {
+                matches.remove(id);
+                if (matches.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static void addTerms(Map<String, Integer> frequencies, String text, int boost) {
+        for (String term : tokenize(text)) {
+            frequencies.merge(term, boost, Integer::sum);
+        }
+    }
+
+    /**
+     * Split a text into lower-cased, accent-free alphanumeric terms.
+     *
+     * @param text the text to split, may be {@code null}.
+     * @return the terms, in order of appearance.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        List<String> terms = new ArrayList<>();
+        for (String term : NON_ALPHANUMERIC.split(normalized)) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    private static Book copyOf(Book book) {
+        Book copy = new Book()
+            .id(book.getId())
+            .title(book.getTitle())
+            .author(book.getAuthor())
+            .fine_amount(book.getFine_amount())
+            .publisher(book.getPublisher())
+            .quantity(book.getQuantity());
+        copy.setVersion(book.getVersion());
+        Category category = book.getCategory();
+        if (category != null) {
+            copy.setCategory(new Category().id(category.getId()).name(category.getName()));
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,452 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.BorrowingRepository;
+import com.mycompany.myapp.service.dto.BookSuggestionDTO;
+import com.mycompany.myapp.service.dto.BookSuggestionDTO.Field;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for suggesting book titles and authors as the user types.
+ * <p>
+ * Titles and authors are kept, normalized as for the search, in an in-memory prefix tree. Every value is reachable from
+ * the start of each of its words, and every node of the tree caches its {@link #MAX_SUGGESTIONS} most popular
+ * completions, so a suggestion is a walk down the prefix and involves no database query. A value is as popular as the
+ * number of books carrying it plus the number of times those books were borrowed.
+ * <p>
+ * The tree is built once the application is ready, and then patched by the book write paths and by checkouts once
+ * their transaction commits. The patches committed while the tree is being rebuilt are replayed onto the rebuilt tree,
+ * so that none is lost; a checkout the rebuild already counted may then be counted twice, which only nudges popularity.
+ */
+@Service
+public class BookSuggestService {
+
+    private final Logger log = LoggerFactory.getLogger(BookSuggestService.class);
+
+    /**
+     * The maximum number of suggestions returned for a prefix.
+     */
+    public static final int MAX_SUGGESTIONS = 10;
+
+    /**
+     * Keys are only indexed up to this length; longer prefixes are matched against the completions of their start.
+     */
+    static final int MAX_KEY_LENGTH = 40;
+
+    private static final int CLEAR_BATCH_SIZE = 1000;
+
+    private final BookRepository bookRepository;
+
+    private final BorrowingRepository borrowingRepository;
+
+    private final EntityManager entityManager;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private PrefixTree tree = new PrefixTree();
+
+    /**
+     * The patches applied while a rebuild is in progress, to replay onto the rebuilt tree, or {@code null}.
+     */
+    private List<Consumer<PrefixTree>> pending;
+
+    public BookSuggestService(BookRepository bookRepository, BorrowingRepository borrowingRepository, EntityManager entityManager) {
+        this.bookRepository = bookRepository;
+        this.borrowingRepository = borrowingRepository;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Build the prefix tree from the database, once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        PrefixTree rebuilt = null;
+        try {
+            rebuilt = load();
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (rebuilt != null) {
+                    for (Consumer<PrefixTree> patch : pending) {
+                        patch.accept(rebuilt);
+                    }
+                    tree = rebuilt;
+                }
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info(
+            "Indexed {} titles and authors of {} books for suggestions in {} ms",
+            rebuilt.suggestions.size(),
+            rebuilt.books.size(),
+            System.currentTimeMillis() - start
+        );
+    }
+
+    /**
+     * Add or replace the title and author of a book, keeping its borrowing count.
+     *
+     * @param book the saved book.
+     */
+    public void index(Book book) {
+        if (book.getId() == null) {
+            return;
+        }
+        Long id = book.getId();
+        String title = book.getTitle();
+        String author = book.getAuthor();
+        AfterCommit.run(() ->
+            apply(patched -> {
+                BookEntry previous = patched.books.get(id);
+                long borrowings = previous == null ? 0 : previous.borrowings;
+                patched.removeBook(id);
+                patched.putBook(id, title, author, borrowings, true);
+            })
+        );
+    }
+
+    /**
+     * Remove the title and author of a book.
+     *
+     * @param id the id of the deleted book.
+     */
+    public void remove(Long id) {
+        AfterCommit.run(() -> apply(patched -> patched.removeBook(id)));
+    }
+
+    /**
+     * Make the title and author of a book more popular, as it was just borrowed.
+     *
+     * @param id the id of the borrowed book.
+     */
+    public void recordBorrowing(Long id) {
+        AfterCommit.run(() -> apply(patched -> patched.recordBorrowing(id)));
+    }
+
+    /**
+     * Suggest the most popular titles and authors having a word starting with a prefix.
+     *
+     * @param prefix the prefix typed so far.
+     * @param size the maximum number of suggestions, at most {@link #MAX_SUGGESTIONS}.
+     * @return the suggestions, most popular first.
+     */
+    public List<BookSuggestionDTO> suggest(String prefix, int size) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = tree.root;
+            for (int i = 0; i < Math.min(key.length(), MAX_KEY_LENGTH) && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) {
+                return Collections.emptyList();
+            }
+            return node.top
+                .stream()
+                .filter(suggestion -> key.length() <= MAX_KEY_LENGTH || suggestion.matches(key))
+                .limit(Math.min(size, MAX_SUGGESTIONS))
+                .map(suggestion -> new BookSuggestionDTO(suggestion.value, suggestion.field, suggestion.weight))
+                .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private PrefixTree load() {
+        Map<Long, Long> borrowings = new HashMap<>();
+        for (Object[] row : borrowingRepository.countByBook()) {
+            borrowings.put((Long) row[0], (Long) row[1]);
+        }
+        PrefixTree loaded = new PrefixTree();
+        try (Stream<Book> books = bookRepository.streamAllByOrderById()) {
+            Iterator<Book> iterator = books.iterator();
+            while (iterator.hasNext()) {
+                Book book = iterator.next();
+                loaded.putBook(book.getId(), book.getTitle(), book.getAuthor(), borrowings.getOrDefault(book.getId(), 0L), false);
+                if (loaded.books.size() % CLEAR_BATCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        loaded.refreshAll();
+        return loaded;
+    }
+
+    private void apply(Consumer<PrefixTree> patch) {
+        lock.writeLock().lock();
+        try {
+            patch.accept(tree);
+            if (pending != null) {
+                pending.add(patch);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Normalize a text as the search does: lower-cased, accent-free alphanumeric words separated by single spaces.
+     */
+    static String normalize(String text) {
+        return String.join(" ", BookSearchService.tokenize(text));
+    }
+
+    private static final Comparator<Suggestion> BY_POPULARITY = Comparator
+        .comparingLong((Suggestion suggestion) -> suggestion.weight)
+        .reversed()
+        .thenComparing(suggestion -> suggestion.normalized)
+        .thenComparing(suggestion -> suggestion.field);
+
+    /**
+     * A title or author, shared by all the books carrying it.
+     */
+    private static final class Suggestion {
+
+        private final Field field;
+
+        private final String value;
+
+        private final String normalized;
+
+        private final List<String> keys;
+
+        private long weight;
+
+        private int books;
+
+        Suggestion(Field field, String value, String normalized) {
+            this.field = field;
+            this.value = value;
+            this.normalized = normalized;
+            this.keys = new ArrayList<>();
+            int from = 0;
+            while (from >= 0) {
+                String key = normalized.substring(from);
+                keys.add(key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key);
+                int space = normalized.indexOf(' ', from);
+                from = space < 0 ? -1 : space + 1;
+            }
+        }
+
+        boolean matches(String prefix) {
+            return normalized.startsWith(prefix) || normalized.contains(" " + prefix);
+        }
+    }
+
+    /**
+     * The suggestions contributed by one book.
+     */
+    private static final class BookEntry {
+
+        private final Suggestion title;
+
+        private final Suggestion author;
+
+        private final long borrowings;
+
+        BookEntry(Suggestion title, Suggestion author, long borrowings) {
+            this.title = title;
+            this.author = author;
+            this.borrowings = borrowings;
+        }
+
+        long weight() {
+            return 1 + borrowings;
+        }
+    }
+
+    /**
+     * A node of the prefix tree, with its children sorted by character.
+     */
+    private static final class Node {
+
+        private char[] labels = new char[0];
+
+        private Node[] children = new Node[0];
+
+        private List<Suggestion> terminals = Collections.emptyList();
+
+        private List<Suggestion> top = Collections.emptyList();
+
+        Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index < 0 ? null : children[index];
+        }
+
+        Node childOrCreate(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertion = -index - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, insertion);
+            System.arraycopy(children, 0, newChildren, 0, insertion);
+            System.arraycopy(labels, insertion, newLabels, insertion + 1, labels.length - insertion);
+            System.arraycopy(children, insertion, newChildren, insertion + 1, children.length - insertion);
+            Node child = new Node();
+            newLabels[insertion] = label;
+            newChildren[insertion] = child;
+            labels = newLabels;
+            children = newChildren;
+            return child;
+        }
+
+        void refreshTop() {
+            List<Suggestion> candidates = new ArrayList<>(terminals);
+            for (Node child : children) {
+                candidates.addAll(child.top);
+            }
+            top = candidates.stream().distinct().sorted(BY_POPULARITY).limit(MAX_SUGGESTIONS).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * The prefix tree, and the suggestions and books it was built from.
+     */
+    private static final class PrefixTree {
+
+        private final Node root = new Node();
+
+        private final Map<String, Suggestion> suggestions = new HashMap<>();
+
+        private final Map<Long, BookEntry> books = new HashMap<>();
+
+        void putBook(Long id, String title, String author, long borrowings, boolean refresh) {
+            long weight = 1 + borrowings;
+            BookEntry entry = new BookEntry(
+                contribute(Field.TITLE, title, weight, refresh),
+                contribute(Field.AUTHOR, author, weight, refresh),
+                borrowings
+            );
+            books.put(id, entry);
+        }
+
+        void removeBook(Long id) {
+            BookEntry entry = books.remove(id);
+            if (entry != null) {
+                withdraw(entry.title, entry.weight());
+                withdraw(entry.author, entry.weight());
+            }
+        }
+
+        void recordBorrowing(Long id) {
+            BookEntry entry = books.get(id);
+            if (entry == null) {
+                return;
+            }
+            books.put(id, new BookEntry(entry.title, entry.author, entry.borrowings + 1));
+            for (Suggestion suggestion : Arrays.asList(entry.title, entry.author)) {
+                if (suggestion != null) {
+                    suggestion.weight++;
+                    refresh(suggestion);
+                }
+            }
+        }
+
+        private Suggestion contribute(Field field, String value, long weight, boolean refresh) {
+            String normalized = normalize(value);
+            if (normalized.isEmpty()) {
+                return null;
+            }
+            Suggestion suggestion = suggestions.get(field + normalized);
+            if (suggestion == null) {
+                suggestion = new Suggestion(field, value.trim(), normalized);
+                suggestions.put(field + normalized, suggestion);
+                for (String key : suggestion.keys) {
+                    Node node = root;
+                    for (int i = 0; i < key.length(); i++) {
+                        node = node.childOrCreate(key.charAt(i));
+                    }
+                    if (node.terminals.isEmpty()) {
+                        node.terminals = new ArrayList<>(1);
+                    }
+                    node.terminals.add(suggestion);
+                }
+            }
+            suggestion.weight += weight;
+            suggestion.books++;
+            if (refresh) {
+                refresh(suggestion);
+            }
+            return suggestion;
+        }
+
+        private void withdraw(Suggestion suggestion, long weight) {
+            if (suggestion == null) {
+                return;
+            }
+            suggestion.weight -= weight;
+            suggestion.books--;
+            if (suggestion.books == 0) {
+                suggestions.remove(suggestion.field + suggestion.normalized);
+                for (String key : suggestion.keys) {
+                    pathTo(key).get(key.length()).terminals.remove(suggestion);
+                }
+            }
+            refresh(suggestion);
+        }
+
+        /**
+         * Refresh the cached completions on the paths to a suggestion, from the deepest node up.
+         */
+        private void refresh(Suggestion suggestion) {
+            for (String key : suggestion.keys) {
+                List<Node> path = pathTo(key);
+                for (int i = path.size() - 1; i >= 0; i--) {
+                    path.get(i).refreshTop();
+                }
+            }
+        }
+
+        private List<Node> pathTo(String key) {
+            List<Node> path = new ArrayList<>(key.length() + 1);
+            Node node = root;
+            path.add(node);
+            for (int i = 0; i < key.length(); i++) {
+                node = node.child(key.charAt(i));
+                path.add(node);
+            }
+            return path;
+        }
+
+        void refreshAll() {
+            refreshAll(root);
+        }
+
+        private static void refreshAll(Node node) {
+            for (Node child : node.children) {
+                refreshAll(child);
+            }
+            node.refreshTop();
+        }
+    }
+}
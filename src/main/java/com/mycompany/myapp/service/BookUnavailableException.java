@@ -0,0 +1,10 @@
+package com.mycompany.myapp.service;
+
+public class BookUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public BookUnavailableException() {
+        super("No copy of the book is available!");
+    }
+}
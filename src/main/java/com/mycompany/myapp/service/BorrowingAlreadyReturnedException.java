@@ -0,0 +1,10 @@
+package com.mycompany.myapp.service;
+
+public class BorrowingAlreadyReturnedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public BorrowingAlreadyReturnedException() {
+        super("The borrowing was already returned!");
+    }
+}
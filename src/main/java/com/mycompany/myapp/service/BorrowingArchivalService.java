@@ -0,0 +1,146 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.repository.BorrowingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service moving the borrowings returned more than {@link #RETENTION_MONTHS} months ago to the archive, every night,
+ * so that the borrowing table only grows with the recent activity.
+ * <p>
+ * Borrowings are moved in chunks of {@link #CHUNK_SIZE}, oldest returns first: each chunk is copied to the
+ * {@code borrowing_archive} table and deleted from the {@code borrowing} table in its own transaction. A run that stops
+ * halfway leaves no chunk half moved, and the next run resumes with the borrowings left. The job holds a single
+ * connection at a time, and releases it between chunks for at least as long as the last chunk took, so it never takes
+ * more than half of the time of one pooled connection away from the requests. Fines move with their borrowings, and
+ * balances count the archived fines, so they are unchanged.
+ */
+@Service
+public class BorrowingArchivalService {
+
+    private final Logger log = LoggerFactory.getLogger(BorrowingArchivalService.class);
+
+    static final int CHUNK_SIZE = 500;
+
+    static final int RETENTION_MONTHS = 12;
+
+    private static final long MIN_PAUSE_MILLIS = 50;
+
+    private static final String ARCHIVE_SQL =
+        "insert into borrowing_archive (id, date_borrowed, due_date, return_date, status, fine, book_id, user_id, archived_date) " +
+        "select id, date_borrowed, due_date, return_date, status, fine, book_id, user_id, :archivedDate from borrowing where id in (:ids)";
+
+    private static final String DELETE_SQL = "delete from borrowing where id in (:ids)";
+
+    private final BorrowingRepository borrowingRepository;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final Timer duration;
+
+    private final Counter archived;
+
+    public BorrowingArchivalService(
+        BorrowingRepository borrowingRepository,
+        NamedParameterJdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
+    ) {
+        this.borrowingRepository = borrowingRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.duration = Timer.builder("libsystem.borrowings.archival.duration").description("Duration of the archival runs").register(meterRegistry);
+        this.archived = Counter
+            .builder("libsystem.borrowings.archived")
+            .description("Number of returned borrowings moved to the archive")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Archive the borrowings returned more than {@link #RETENTION_MONTHS} months ago, every night at 3:30.
+     */
+    @Scheduled(cron = "0 30 3 * * ?")
+    public void archive() {
+        archive(LocalDate.now().minusMonths(RETENTION_MONTHS));
+    }
+
+    /**
+     * Archive the borrowings returned before a date.
+     *
+     * @param cutoff the date before which the borrowings were returned.
+     * @return the number of archived borrowings, {@code 0} if another run is in progress.
+     */
+    public long archive(LocalDate cutoff) {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Borrowing archival already in progress, skipping this run");
+            return 0;
+        }
+        long start = System.nanoTime();
+        long count = 0;
+        int chunks = 0;
+        try {
+            while (true) {
+                long chunkStart = System.nanoTime();
+                Integer moved = transactionTemplate.execute(status -> archiveChunk(cutoff));
+                count += moved;
+                chunks++;
+                archived.increment(moved);
+                if (moved < CHUNK_SIZE || !pause(System.nanoTime() - chunkStart)) {
+                    break;
+                }
+            }
+        } finally {
+            running.set(false);
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        duration.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        log.info("Archived {} borrowings returned before {} in {} chunks in {} ms", count, cutoff, chunks, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        return count;
+    }
+
+    private int archiveChunk(LocalDate cutoff) {
+        List<Long> ids = borrowingRepository.findIdsReturnedBefore(cutoff, PageRequest.of(0, CHUNK_SIZE));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.update(ARCHIVE_SQL, Map.of("ids", ids, "archivedDate", Timestamp.from(Instant.now())));
+        return jdbcTemplate.update(DELETE_SQL, Map.of("ids", ids));
+    }
+
+    /**
+     * Give the connection back to the pool for at least as long as the last chunk held it.
+     *
+     * @return {@code false} if the run should stop, as the thread was interrupted.
+     */
+    private boolean pause(long chunkNanos) {
+        try {
+            Thread.sleep(Math.max(MIN_PAUSE_MILLIS, TimeUnit.NANOSECONDS.toMillis(chunkNanos)));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Borrowing archival interrupted, the next run will resume it");
+            return false;
+        }
+    }
+}
@@ -0,0 +1,627 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.Borrowing;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.BorrowingRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.service.dto.CirculationOperationDTO;
+import com.mycompany.myapp.service.dto.CirculationResultDTO;
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service for checking books out and in, keeping {@link Book#getQuantity()} in step with the open borrowings.
+ * <p>
+ * Copies are taken and put back with a single conditional {@code UPDATE}, so the database serializes concurrent desks
+ * on the book row and a book can never go below zero copies, without any read-modify-write. Every operation locks the
+ * book row before it touches any hold, borrowing or fine balance row, as {@link HoldService} does, so that two operations
+ * never wait on each other's locks in opposite order. Transactions that still fail on a transient error, such as a lock
+ * timeout, are retried a bounded number of times.
+ * <p>
+ * A late return settles the fine of the borrowing, up to the return date, and the fine balance of its user. A returned
+ * copy goes to the first waiting hold on its book, see {@link HoldService}.
+ * <p>
+ * A circulation desk can also send a whole batch of checkouts and returns, which is validated and executed in a single
+ * transaction: all the books the batch touches are locked up front, in book id order, so that concurrent batches lock
+ * books in the same order, then the returns are recorded with one JDBC batch, and the copies of each book are put back
+ * and taken with one conditional {@code UPDATE} per book.
+ */
+@Service
+public class CirculationService {
+
+    private final Logger log = LoggerFactory.getLogger(CirculationService.class);
+
+    static final int LOAN_PERIOD_DAYS = 14;
+
+    static final int MAX_ATTEMPTS = 3;
+
+    public static final int MAX_BATCH_SIZE = 100;
+
+    private static final String RETURN_SQL = "update borrowing set return_date = ? where id = ? and return_date is null";
+
+    private static final int[] RETURN_TYPES = { Types.DATE, Types.BIGINT };
+
+    private static final String PUT_BACK_SQL = "update book set quantity = quantity + ?, version = version + 1 where id = ?";
+
+    private static final int[] PUT_BACK_TYPES = { Types.INTEGER, Types.BIGINT };
+
+    private static final String TAKE_SQL = "update book set quantity = quantity - ?, version = version + 1 where id = ? and quantity >= ?";
+
+    private static final int[] TAKE_TYPES = { Types.INTEGER, Types.BIGINT, Types.INTEGER };
+
+    private static final Set<String> RETURNED_ASSOCIATIONS = Set.of("book", "user");
+
+    private static final long RETRY_BACKOFF_MILLIS = 20;
+
+    private final BookRepository bookRepository;
+
+    private final BorrowingRepository borrowingRepository;
+
+    private final UserRepository userRepository;
+
+    private final BookSearchService bookSearchService;
+
+    private final BookSuggestService bookSuggestService;
+
+    private final FineBalanceService fineBalanceService;
+
+    private final HoldService holdService;
+
+    private final CirculationStatsService circulationStatsService;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public CirculationService(
+        BookRepository bookRepository,
+        BorrowingRepository borrowingRepository,
+        UserRepository userRepository,
+        BookSearchService bookSearchService,
+        BookSuggestService bookSuggestService,
+        FineBalanceService fineBalanceService,
+        HoldService holdService,
+        CirculationStatsService circulationStatsService,
+        JdbcTemplate jdbcTemplate,
+        EntityManagerFactory entityManagerFactory,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.bookRepository = bookRepository;
+        this.borrowingRepository = borrowingRepository;
+        this.userRepository = userRepository;
+        this.bookSearchService = bookSearchService;
+        this.bookSuggestService = bookSuggestService;
+        this.fineBalanceService = fineBalanceService;
+        this.holdService = holdService;
+        this.circulationStatsService = circulationStatsService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Check out one copy of a book.
+     * <p>
+     * The borrowing date defaults to today, and the due date to {@link #LOAN_PERIOD_DAYS} days after it. If a copy is
+     * reserved for a ready hold of the user on the book, that copy is checked out and the hold is completed.
+     *
+     * @param borrowing the new borrowing, with the book to check out.
+     * @return the saved borrowing.
+     * @throws BookUnavailableException if no copy of the book is left.
+     */
+    public Borrowing checkout(Borrowing borrowing) {
+        return withRetry(() -> takeCopy(borrowing));
+    }
+
+    /**
+     * Create a borrowing as given, such as a loan recorded after the fact.
+     * <p>
+     * An open borrowing of a book is checked out, keeping its fine, so that the copy put back when it is returned was
+     * taken when it was created. Any other borrowing holds no copy and is saved as is.
+     *
+     * @param borrowing the new borrowing.
+     * @return the saved borrowing.
+     * @throws BookUnavailableException if the borrowing is open and no copy of its book is left.
+     */
+    public Borrowing create(Borrowing borrowing) {
+        if (borrowing.getReturn_date() != null || borrowing.getBook() == null || borrowing.getBook().getId() == null) {
+            return transactionTemplate.execute(
+                status -> {
+                    Borrowing result = borrowingRepository.save(borrowing);
+                    circulationStatsService.recordLoan(result.getDate_borrowed(), result.getBook() == null ? null : result.getBook().getId());
+                    addFineToBalance(result);
+                    return result;
+                }
+            );
+        }
+        return withRetry(
+            () -> {
+                Borrowing result = takeCopy(borrowing);
+                result.setFine(borrowing.getFine());
+                addFineToBalance(result);
+                return result;
+            }
+        );
+    }
+
+    private Borrowing takeCopy(Borrowing borrowing) {
+        Long bookId = borrowing.getBook().getId();
+        Long userId = borrowing.getUser() == null ? null : borrowing.getUser().getId();
+        // Only a user the hold queues show a ready hold for takes the book lock, everyone else takes a copy lock-free
+        boolean reserved = userId != null && holdService.hasReadyHold(bookId, userId) && collect(bookId, userId);
+        if (!reserved && bookRepository.decrementQuantity(bookId) == 0) {
+            throw new BookUnavailableException();
+        }
+        bookSuggestService.recordBorrowing(bookId);
+        LocalDate dateBorrowed = borrowing.getDate_borrowed() != null ? borrowing.getDate_borrowed() : LocalDate.now();
+        circulationStatsService.recordLoan(dateBorrowed, bookId);
+        LocalDate dueDate = borrowing.getDue_date() != null ? borrowing.getDue_date() : dateBorrowed.plusDays(LOAN_PERIOD_DAYS);
+        Borrowing result = new Borrowing()
+            .date_borrowed(dateBorrowed)
+            .due_date(dueDate)
+            .status(borrowing.getStatus())
+            .book(reindex(bookId))
+            .user(borrowing.getUser());
+        return borrowingRepository.save(result);
+    }
+
+    /**
+     * Collect the copy reserved for a ready hold of a user, under the lock of the book row.
+     */
+    private boolean collect(Long bookId, Long userId) {
+        bookRepository.findQuantityForUpdate(bookId);
+        return holdService.collect(bookId, userId);
+    }
+
+    private void addFineToBalance(Borrowing borrowing) {
+        if (borrowing.getFine() != null) {
+            fineBalanceService.addToBalance(borrowing.getUser() == null ? null : borrowing.getUser().getId(), borrowing.getFine());
+        }
+    }
+
+    /**
+     * Return the copy of a book held by a borrowing, today. The copy is reserved for the first waiting hold on the book,
+     * if any.
+     *
+     * @param id the id of the borrowing.
+     * @return the returned borrowing, or empty if it does not exist.
+     * @throws BorrowingAlreadyReturnedException if the borrowing was already returned.
+     */
+    public Optional<Borrowing> checkin(Long id) {
+        return withRetry(
+            () -> {
+                LocalDate returnDate = LocalDate.now();
+                Optional<Long> book = borrowingRepository.findBookIdById(id);
+                book.ifPresent(bookRepository::findQuantityForUpdate);
+                if (borrowingRepository.markReturned(id, returnDate) == 0) {
+                    if (!borrowingRepository.existsById(id)) {
+                        return Optional.empty();
+                    }
+                    throw new BorrowingAlreadyReturnedException();
+                }
+                book.ifPresent(bookId -> {
+                    bookRepository.incrementQuantity(bookId);
+                    holdService.serve(bookId, 1);
+                    reindex(bookId);
+                });
+                return borrowingRepository.findById(id, RETURNED_ASSOCIATIONS).map(returned -> settleFine(returned, returnDate));
+            }
+        );
+    }
+
+    /**
+     * Get a borrowing under the lock of the row of its book, until the end of the current transaction, so that it is not
+     * returned or deleted meanwhile.
+     *
+     * @param id the id of the borrowing.
+     * @return the borrowing, or empty if it does not exist.
+     */
+    public Optional<Borrowing> findForUpdate(Long id) {
+        borrowingRepository.findBookIdById(id).ifPresent(bookRepository::findQuantityForUpdate);
+        return borrowingRepository.findById(id);
+    }
+
+    /**
+     * Delete a borrowing. The copy held by an open borrowing is put back, and reserved for the first waiting hold on its
+     * book, if any.
+     *
+     * @param id the id of the borrowing.
+     * @return {@code true} if the borrowing existed.
+     */
+    public boolean delete(Long id) {
+        return withRetry(
+            () -> {
+                Optional<Borrowing> found = findForUpdate(id);
+                if (found.isEmpty()) {
+                    return false;
+                }
+                Borrowing borrowing = found.get();
+                Long bookId = borrowing.getBook() == null ? null : borrowing.getBook().getId();
+                Long userId = borrowing.getUser() == null ? null : borrowing.getUser().getId();
+                circulationStatsService.removeLoan(borrowing.getDate_borrowed(), bookId);
+                borrowingRepository.delete(borrowing);
+                if (bookId != null && borrowing.getReturn_date() == null) {
+                    bookRepository.incrementQuantity(bookId);
+                    holdService.serve(bookId, 1);
+                    reindex(bookId);
+                }
+                if (userId != null) {
+                    fineBalanceService.recompute(List.of(userId));
+                }
+                return true;
+            }
+        );
+    }
+
+    /**
+     * Execute a batch of checkouts and returns, in a single transaction.
+     * <p>
+     * Every operation is validated before any is executed, and an invalid operation fails without failing the others.
+     * Returns are executed before checkouts, so a copy returned by the batch can be checked out by the same batch.
+     *
+     * @param operations the operations, at most {@link #MAX_BATCH_SIZE}.
+     * @return the result of each operation, in the order of the operations.
+     */
+    public List<CirculationResultDTO> execute(List<CirculationOperationDTO> operations) {
+        return withRetry(() -> executeBatch(operations));
+    }
+
+    private List<CirculationResultDTO> executeBatch(List<CirculationOperationDTO> operations) {
+        LocalDate today = LocalDate.now();
+        CirculationResultDTO[] results = new CirculationResultDTO[operations.size()];
+        Map<Integer, Object[]> returns = validateReturns(operations, results);
+        Map<Long, Integer> quantities = lockBooks(operations, returns.values());
+        Map<Integer, Long> checkouts = validateCheckouts(operations, results, returns.values(), quantities);
+
+        // Rows are updated with JDBC before any book or borrowing is loaded, so that no stale entity is read back
+        List<Long> returned = executeReturns(returns, results, today);
+        Set<Integer> collected = new HashSet<>();
+        List<Long> toTake = new ArrayList<>();
+        checkouts.forEach((index, bookId) -> {
+            Long userId = operations.get(index).getUserId();
+            if (userId != null && holdService.collect(bookId, userId)) {
+                collected.add(index);
+            } else {
+                toTake.add(bookId);
+            }
+        });
+        Set<Long> booksTaken = takeCopies(toTake);
+
+        Map<Long, Integer> fineDeltas = new HashMap<>();
+        Map<Long, Borrowing> returnedById = borrowingRepository
+            .findAllById(returned, RETURNED_ASSOCIATIONS)
+            .stream()
+            .collect(Collectors.toMap(Borrowing::getId, Function.identity()));
+        returns.forEach((index, state) -> {
+            Borrowing borrowing = returnedById.get((Long) state[0]);
+            if (results[index] == null && borrowing != null) {
+                int delta = updateFine(borrowing, today);
+                if (borrowing.getUser() != null && delta != 0) {
+                    fineDeltas.merge(borrowing.getUser().getId(), delta, Integer::sum);
+                }
+                results[index] = CirculationResultDTO.succeeded(CirculationOperationDTO.Type.RETURN, borrowing);
+            }
+        });
+        fineDeltas.forEach(fineBalanceService::addToBalance);
+
+        List<Borrowing> created = new ArrayList<>();
+        checkouts.forEach((index, bookId) -> {
+            if (!collected.contains(index) && !booksTaken.contains(bookId)) {
+                results[index] = CirculationResultDTO.failed(CirculationOperationDTO.Type.CHECKOUT, "bookunavailable");
+                return;
+            }
+            CirculationOperationDTO operation = operations.get(index);
+            Borrowing borrowing = new Borrowing()
+                .date_borrowed(today)
+                .due_date(operation.getDueDate() != null ? operation.getDueDate() : today.plusDays(LOAN_PERIOD_DAYS))
+                .book(bookRepository.getById(bookId))
+                .user(operation.getUserId() == null ? null : userRepository.getById(operation.getUserId()));
+            bookSuggestService.recordBorrowing(bookId);
+            circulationStatsService.recordLoan(today, bookId);
+            created.add(borrowing);
+            results[index] = CirculationResultDTO.succeeded(CirculationOperationDTO.Type.CHECKOUT, borrowing);
+        });
+        borrowingRepository.saveAll(created);
+
+        Set<Long> touchedBooks = new HashSet<>(booksTaken);
+        returns.forEach((index, state) -> {
+            if (state[1] != null && results[index].isSucceeded()) {
+                touchedBooks.add((Long) state[1]);
+            }
+        });
+        touchedBooks.forEach(this::reindex);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Validate the returns of a batch, failing the invalid ones.
+     *
+     * @return the id, book id and return date of the borrowing of each valid return, by operation index.
+     */
+    private Map<Integer, Object[]> validateReturns(List<CirculationOperationDTO> operations, CirculationResultDTO[] results) {
+        Set<Long> ids = operations
+            .stream()
+            .filter(operation -> operation != null && operation.getType() == CirculationOperationDTO.Type.RETURN)
+            .map(CirculationOperationDTO::getBorrowingId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        Map<Long, Object[]> states = ids.isEmpty()
+            ? Map.of()
+            : borrowingRepository.findReturnStates(ids).stream().collect(Collectors.toMap(row -> (Long) row[0], Function.identity()));
+
+        Map<Integer, Object[]> returns = new TreeMap<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < operations.size(); i++) {
+            CirculationOperationDTO operation = operations.get(i);
+            if (operation == null || operation.getType() == null) {
+                results[i] = CirculationResultDTO.failed(null, "typenull");
+            } else if (operation.getType() == CirculationOperationDTO.Type.RETURN) {
+                Object[] state = operation.getBorrowingId() == null ? null : states.get(operation.getBorrowingId());
+                if (operation.getBorrowingId() == null) {
+                    results[i] = CirculationResultDTO.failed(operation.getType(), "idnull");
+                } else if (state == null) {
+                    results[i] = CirculationResultDTO.failed(operation.getType(), "idnotfound");
+                } else if (state[2] != null || !seen.add(operation.getBorrowingId())) {
+                    results[i] = CirculationResultDTO.failed(operation.getType(), "alreadyreturned");
+                } else {
+                    returns.put(i, state);
+                }
+            }
+        }
+        return returns;
+    }
+
+    /**
+     * Lock the books of the valid returns and of the checkouts of a batch, in id order, before any of their rows is
+     * updated.
+     *
+     * @return the copies left of each locked book, by book id.
+     */
+    private Map<Long, Integer> lockBooks(List<CirculationOperationDTO> operations, Collection<Object[]> returns) {
+        Set<Long> bookIds = new HashSet<>();
+        for (CirculationOperationDTO operation : operations) {
+            if (operation != null && operation.getType() == CirculationOperationDTO.Type.CHECKOUT && operation.getBookId() != null) {
+                bookIds.add(operation.getBookId());
+            }
+        }
+        returns.forEach(state -> {
+            if (state[1] != null) {
+                bookIds.add((Long) state[1]);
+            }
+        });
+        Map<Long, Integer> quantities = new HashMap<>();
+        if (!bookIds.isEmpty()) {
+            for (Object[] row : bookRepository.findQuantitiesForUpdate(bookIds)) {
+                quantities.put((Long) row[0], row[1] == null ? 0 : (Integer) row[1]);
+            }
+        }
+        return quantities;
+    }
+
+    /**
+     * Validate the checkouts of a batch against the copies left, counting the copies the batch returns that no hold is
+     * waiting for. A checkout of a copy reserved for the user needs no copy from the shelf.
+     *
+     * @param quantities the copies left of the locked books, by book id.
+     * @return the id of the book of each valid checkout, by operation index.
+     */
+    private Map<Integer, Long> validateCheckouts(
+        List<CirculationOperationDTO> operations,
+        CirculationResultDTO[] results,
+        Collection<Object[]> returns,
+        Map<Long, Integer> quantities
+    ) {
+        Set<Long> bookIds = new HashSet<>();
+        Set<Long> userIds = new HashSet<>();
+        for (CirculationOperationDTO operation : operations) {
+            if (operation != null && operation.getType() == CirculationOperationDTO.Type.CHECKOUT) {
+                if (operation.getBookId() != null) {
+                    bookIds.add(operation.getBookId());
+                }
+                if (operation.getUserId() != null) {
+                    userIds.add(operation.getUserId());
+                }
+            }
+        }
+        Map<Long, Integer> available = new HashMap<>();
+        if (!bookIds.isEmpty()) {
+            bookIds.forEach(bookId -> {
+                if (quantities.containsKey(bookId)) {
+                    available.put(bookId, quantities.get(bookId));
+                }
+            });
+            Map<Long, Integer> returnedCopies = new HashMap<>();
+            returns.forEach(state -> {
+                if (state[1] != null) {
+                    returnedCopies.merge((Long) state[1], 1, Integer::sum);
+                }
+            });
+            returnedCopies.forEach((bookId, copies) ->
+                available.computeIfPresent(bookId, (id, quantity) -> quantity + Math.max(0, copies - holdService.countWaiting(bookId)))
+            );
+        }
+        Set<Long> users = userIds.isEmpty()
+            ? Set.of()
+            : userRepository.findAllById(userIds).stream().map(User::getId).collect(Collectors.toSet());
+
+        Map<Integer, Long> checkouts = new TreeMap<>();
+        for (int i = 0; i < operations.size(); i++) {
+            CirculationOperationDTO operation = operations.get(i);
+            if (operation == null || operation.getType() != CirculationOperationDTO.Type.CHECKOUT) {
+                continue;
+            }
+            Long bookId = operation.getBookId();
+            if (bookId == null) {
+                results[i] = CirculationResultDTO.failed(operation.getType(), "booknull");
+            } else if (!available.containsKey(bookId)) {
+                results[i] = CirculationResultDTO.failed(operation.getType(), "booknotfound");
+            } else if (operation.getUserId() != null && !users.contains(operation.getUserId())) {
+                results[i] = CirculationResultDTO.failed(operation.getType(), "usernotfound");
+            } else if (operation.getUserId() != null && holdService.hasReadyHold(bookId, operation.getUserId())) {
+                checkouts.put(i, bookId);
+            } else if (available.get(bookId) <= 0) {
+                results[i] = CirculationResultDTO.failed(operation.getType(), "bookunavailable");
+            } else {
+                available.merge(bookId, -1, Integer::sum);
+                checkouts.put(i, bookId);
+            }
+        }
+        return checkouts;
+    }
+
+    /**
+     * Record the valid returns of a batch and put their copies back, or reserve them for the holds waiting for them,
+     * failing the returns that were returned meanwhile.
+     *
+     * @return the ids of the returned borrowings.
+     */
+    private List<Long> executeReturns(Map<Integer, Object[]> returns, CirculationResultDTO[] results, LocalDate today) {
+        List<Long> returned = new ArrayList<>();
+        if (returns.isEmpty()) {
+            return returned;
+        }
+        List<Integer> indexes = new ArrayList<>(returns.keySet());
+        int[] updated = jdbcTemplate.batchUpdate(
+            RETURN_SQL,
+            indexes.stream().map(index -> new Object[] { Date.valueOf(today), returns.get(index)[0] }).collect(Collectors.toList()),
+            RETURN_TYPES
+        );
+        Map<Long, Integer> copiesByBook = new TreeMap<>();
+        for (int i = 0; i < indexes.size(); i++) {
+            Object[] state = returns.get(indexes.get(i));
+            if (updated[i] == 0) {
+                results[indexes.get(i)] = CirculationResultDTO.failed(CirculationOperationDTO.Type.RETURN, "alreadyreturned");
+                continue;
+            }
+            returned.add((Long) state[0]);
+            if (state[1] != null) {
+                copiesByBook.merge((Long) state[1], 1, Integer::sum);
+            }
+        }
+        if (copiesByBook.isEmpty()) {
+            return returned;
+        }
+        jdbcTemplate.batchUpdate(
+            PUT_BACK_SQL,
+            copiesByBook.entrySet().stream().map(copies -> new Object[] { copies.getValue(), copies.getKey() }).collect(Collectors.toList()),
+            PUT_BACK_TYPES
+        );
+        evictBooks(copiesByBook.keySet());
+        copiesByBook.forEach(holdService::serve);
+        return returned;
+    }
+
+    /**
+     * Take the copies of the valid checkouts of a batch, with one conditional update per book.
+     *
+     * @return the ids of the books whose copies were taken; the others had fewer copies left than checked out.
+     */
+    private Set<Long> takeCopies(Collection<Long> checkouts) {
+        if (checkouts.isEmpty()) {
+            return Set.of();
+        }
+        Map<Long, Integer> copiesByBook = new TreeMap<>();
+        checkouts.forEach(bookId -> copiesByBook.merge(bookId, 1, Integer::sum));
+        List<Long> bookIds = new ArrayList<>(copiesByBook.keySet());
+        int[] taken = jdbcTemplate.batchUpdate(
+            TAKE_SQL,
+            bookIds.stream().map(bookId -> new Object[] { copiesByBook.get(bookId), bookId, copiesByBook.get(bookId) }).collect(Collectors.toList()),
+            TAKE_TYPES
+        );
+        Set<Long> booksTaken = new HashSet<>();
+        for (int i = 0; i < bookIds.size(); i++) {
+            if (taken[i] != 0) {
+                booksTaken.add(bookIds.get(i));
+            }
+        }
+        evictBooks(booksTaken);
+        return booksTaken;
+    }
+
+    /**
+     * Evict books updated with JDBC from the second-level cache, now and once the update is committed, as the cache
+     * only follows the updates made through Hibernate.
+     */
+    private void evictBooks(Collection<Long> bookIds) {
+        List<Long> ids = new ArrayList<>(bookIds);
+        Runnable evict = () -> ids.forEach(id -> entityManagerFactory.getCache().evict(Book.class, id));
+        evict.run();
+        AfterCommit.run(evict);
+    }
+
+    private Borrowing settleFine(Borrowing borrowing, LocalDate returnDate) {
+        int delta = updateFine(borrowing, returnDate);
+        fineBalanceService.addToBalance(borrowing.getUser() == null ? null : borrowing.getUser().getId(), delta);
+        return borrowing;
+    }
+
+    /**
+     * Set the fine of a returned borrowing from the days it was late.
+     *
+     * @return the new fine minus the previous one.
+     */
+    private static int updateFine(Borrowing borrowing, LocalDate returnDate) {
+        Book book = borrowing.getBook();
+        if (borrowing.getDue_date() == null || book == null || book.getFine_amount() == null) {
+            return 0;
+        }
+        long daysLate = Math.max(0, ChronoUnit.DAYS.between(borrowing.getDue_date(), returnDate));
+        int fine = Math.toIntExact(daysLate * book.getFine_amount());
+        int previousFine = borrowing.getFine() == null ? 0 : borrowing.getFine();
+        borrowing.setFine(fine);
+        return fine - previousFine;
+    }
+
+    private Book reindex(Long bookId) {
+        Book book = bookRepository.getById(bookId);
+        bookSearchService.index(book);
+        return book;
+    }
+
+    private <T> T withRetry(Supplier<T> operation) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> operation.get());
+            } catch (TransientDataAccessException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Retrying circulation operation after attempt {} failed: {}", attempt, e.getMessage());
+                try {
+                    Thread.sleep(RETRY_BACKOFF_MILLIS * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+}
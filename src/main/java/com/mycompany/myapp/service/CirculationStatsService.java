@@ -0,0 +1,235 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.CirculationDailyStat;
+import com.mycompany.myapp.repository.CirculationDailyStatRepository;
+import com.mycompany.myapp.service.dto.CirculationStatsDTO;
+import com.mycompany.myapp.service.dto.CirculationStatsDTO.PeriodCount;
+import com.mycompany.myapp.service.dto.CirculationStatsDTO.RankCount;
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service for the circulation statistics: loans per day, week and month, most borrowed books and category popularity.
+ * <p>
+ * Statistics are read from the number of loans of each book on each day, never from the borrowings. Loans are counted
+ * in memory once their transaction commits, and the counts are added to the daily rows every
+ * {@link #FLUSH_INTERVAL_MILLIS} ms by a single writer, so checkouts do not wait on the statistics rows and the rows are
+ * never inserted twice. Weeks and months are rolled up from the days in memory, and the statistics of a period are
+ * cached for {@link #REFRESH_INTERVAL_MILLIS} ms.
+ */
+@Service
+public class CirculationStatsService {
+
+    private final Logger log = LoggerFactory.getLogger(CirculationStatsService.class);
+
+    public static final String CIRCULATION_STATS_CACHE = "circulationStats";
+
+    static final long FLUSH_INTERVAL_MILLIS = 10_000;
+
+    static final long REFRESH_INTERVAL_MILLIS = 300_000;
+
+    static final int TOP_BOOKS = 10;
+
+    private static final String ADD_SQL = "update circulation_daily_stat set loans = loans + ? where loan_date = ? and book_id = ?";
+
+    private static final String INSERT_SQL = "insert into circulation_daily_stat (loan_date, book_id, loans) values (?, ?, ?)";
+
+    private final CirculationDailyStatRepository circulationDailyStatRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentMap<CirculationDailyStat.Key, Integer> pending = new ConcurrentHashMap<>();
+
+    public CirculationStatsService(
+        CirculationDailyStatRepository circulationDailyStatRepository,
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.circulationDailyStatRepository = circulationDailyStatRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Count a loan, once the current transaction commits.
+     *
+     * @param day the borrowing date, may be {@code null}.
+     * @param bookId the id of the borrowed book, may be {@code null}.
+     */
+    public void recordLoan(LocalDate day, Long bookId) {
+        addLoans(day, bookId, 1);
+    }
+
+    /**
+     * Stop counting a loan, as its borrowing was deleted, once the current transaction commits.
+     *
+     * @param day the borrowing date, may be {@code null}.
+     * @param bookId the id of the borrowed book, may be {@code null}.
+     */
+    public void removeLoan(LocalDate day, Long bookId) {
+        addLoans(day, bookId, -1);
+    }
+
+    /**
+     * Count a loan on another day or book, as its borrowing was updated, once the current transaction commits.
+     */
+    public void moveLoan(LocalDate previousDay, Long previousBookId, LocalDate day, Long bookId) {
+        if (!new CirculationDailyStat.Key(previousDay, previousBookId).equals(new CirculationDailyStat.Key(day, bookId))) {
+            removeLoan(previousDay, previousBookId);
+            recordLoan(day, bookId);
+        }
+    }
+
+    private void addLoans(LocalDate day, Long bookId, int loans) {
+        if (day == null || bookId == null) {
+            return;
+        }
+        AfterCommit.run(() -> pending.merge(new CirculationDailyStat.Key(day, bookId), loans, Integer::sum));
+    }
+
+    /**
+     * Add the loans counted since the last flush to the daily rows.
+     *
+     * @return the number of written daily rows.
+     */
+    @Scheduled(fixedDelay = FLUSH_INTERVAL_MILLIS)
+    @PreDestroy
+    public synchronized int flush() {
+        Map<CirculationDailyStat.Key, Integer> loans = new HashMap<>();
+        // Removing each key takes its count atomically, loans counted meanwhile start a new count
+        for (CirculationDailyStat.Key key : pending.keySet()) {
+            Integer count = pending.remove(key);
+            if (count != null && count != 0) {
+                loans.put(key, count);
+            }
+        }
+        if (loans.isEmpty()) {
+            return 0;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(loans));
+        } catch (RuntimeException e) {
+            loans.forEach((key, count) -> pending.merge(key, count, Integer::sum));
+            log.warn("Could not write the circulation statistics, will retry: {}", e.getMessage());
+            return 0;
+        }
+        log.debug("Wrote the loans of {} books and days to the circulation statistics", loans.size());
+        return loans.size();
+    }
+
+    private void write(Map<CirculationDailyStat.Key, Integer> loans) {
+        List<Map.Entry<CirculationDailyStat.Key, Integer>> entries = new ArrayList<>(loans.entrySet());
+        int[] updated = jdbcTemplate.batchUpdate(
+            ADD_SQL,
+            entries,
+            entries.size(),
+            (ps, entry) -> {
+                ps.setInt(1, entry.getValue());
+                ps.setDate(2, Date.valueOf(entry.getKey().getLoanDate()));
+                ps.setLong(3, entry.getKey().getBookId());
+            }
+        )[0];
+        List<Map.Entry<CirculationDailyStat.Key, Integer>> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(entries.get(i));
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+            INSERT_SQL,
+            missing,
+            missing.size(),
+            (ps, entry) -> {
+                ps.setDate(1, Date.valueOf(entry.getKey().getLoanDate()));
+                ps.setLong(2, entry.getKey().getBookId());
+                ps.setInt(3, entry.getValue());
+            }
+        );
+    }
+
+    /**
+     * Get the circulation statistics of a period.
+     *
+     * @param from the first day of the period.
+     * @param to the last day of the period.
+     * @return the statistics, as of the last flush.
+     */
+    @Cacheable(CIRCULATION_STATS_CACHE)
+    public CirculationStatsDTO getStats(LocalDate from, LocalDate to) {
+        List<PeriodCount> days = circulationDailyStatRepository
+            .sumLoansByDay(from, to)
+            .stream()
+            .map(row -> new PeriodCount((LocalDate) row[0], ((Number) row[1]).longValue()))
+            .collect(Collectors.toList());
+        long total = days.stream().mapToLong(PeriodCount::getLoans).sum();
+        List<RankCount> topBooks = circulationDailyStatRepository
+            .sumLoansByBook(from, to, PageRequest.of(0, TOP_BOOKS))
+            .stream()
+            .map(CirculationStatsService::toRankCount)
+            .collect(Collectors.toList());
+        List<RankCount> categories = circulationDailyStatRepository
+            .sumLoansByCategory(from, to)
+            .stream()
+            .map(CirculationStatsService::toRankCount)
+            .collect(Collectors.toList());
+        return new CirculationStatsDTO(
+            from,
+            to,
+            total,
+            days,
+            rollUp(days, day -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))),
+            rollUp(days, day -> day.withDayOfMonth(1)),
+            topBooks,
+            categories
+        );
+    }
+
+    /**
+     * Drop the cached statistics every {@link #REFRESH_INTERVAL_MILLIS} ms, so they are read again with the loans
+     * written since.
+     */
+    @Scheduled(fixedRate = REFRESH_INTERVAL_MILLIS, initialDelay = REFRESH_INTERVAL_MILLIS)
+    @CacheEvict(cacheNames = CIRCULATION_STATS_CACHE, allEntries = true)
+    public void refresh() {
+        log.debug("Refreshing the circulation statistics");
+    }
+
+    private static List<PeriodCount> rollUp(List<PeriodCount> days, Function<LocalDate, LocalDate> periodStart) {
+        Map<LocalDate, Long> loans = new TreeMap<>();
+        for (PeriodCount day : days) {
+            loans.merge(periodStart.apply(day.getStart()), day.getLoans(), Long::sum);
+        }
+        return loans.entrySet().stream().map(period -> new PeriodCount(period.getKey(), period.getValue())).collect(Collectors.toList());
+    }
+
+    private static RankCount toRankCount(Object[] row) {
+        return new RankCount((Long) row[0], (String) row[1], ((Number) row[2]).longValue());
+    }
+}
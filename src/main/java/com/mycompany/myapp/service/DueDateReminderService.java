@@ -0,0 +1,225 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.Constants;
+import com.mycompany.myapp.domain.Borrowing;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.BorrowingRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.MessageSource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Service reminding the users of their borrowings due in the next {@link #REMINDER_DAYS} days, every morning, with a
+ * single digest email per user listing all of them.
+ * <p>
+ * Users are read in chunks of {@link #CHUNK_SIZE}, with their due borrowings and books in one query per chunk, and no
+ * connection is held while the emails are sent. The digest template is rendered once per language for the whole run,
+ * with placeholders that are replaced by the login and the borrowings of each user. Emails are sent by the job's own
+ * thread, at most {@link #MAX_EMAILS_PER_SECOND} per second, rather than queued on the async executor, so a run for
+ * every user neither fills the executor queue nor floods the mail server.
+ */
+@Service
+public class DueDateReminderService {
+
+    private final Logger log = LoggerFactory.getLogger(DueDateReminderService.class);
+
+    static final int REMINDER_DAYS = 2;
+
+    static final int CHUNK_SIZE = 500;
+
+    static final int MAX_EMAILS_PER_SECOND = 10;
+
+    private static final String TEMPLATE_NAME = "mail/dueDateReminderEmail";
+
+    private static final String TITLE_KEY = "email.reminder.title";
+
+    private static final String ITEM_KEY = "email.reminder.item";
+
+    private static final String LOGIN_PLACEHOLDER = "%%LOGIN%%";
+
+    private static final String LOANS_PLACEHOLDER = "%%LOANS%%";
+
+    private final BorrowingRepository borrowingRepository;
+
+    private final UserRepository userRepository;
+
+    private final MailService mailService;
+
+    private final MessageSource messageSource;
+
+    private final SpringTemplateEngine templateEngine;
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final Counter sent;
+
+    public DueDateReminderService(
+        BorrowingRepository borrowingRepository,
+        UserRepository userRepository,
+        MailService mailService,
+        MessageSource messageSource,
+        SpringTemplateEngine templateEngine,
+        JHipsterProperties jHipsterProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.borrowingRepository = borrowingRepository;
+        this.userRepository = userRepository;
+        this.mailService = mailService;
+        this.messageSource = messageSource;
+        this.templateEngine = templateEngine;
+        this.jHipsterProperties = jHipsterProperties;
+        this.sent = Counter.builder("libsystem.reminders.sent").description("Number of due date reminder emails sent").register(meterRegistry);
+    }
+
+    /**
+     * Remind the users of their borrowings due soon, every morning at 8:00.
+     */
+    @Scheduled(cron = "0 0 8 * * ?")
+    public void remind() {
+        remind(LocalDate.now());
+    }
+
+    /**
+     * Remind the users of their borrowings due from a date to {@link #REMINDER_DAYS} days later.
+     *
+     * @param today the first due date to remind of.
+     * @return the number of emails sent, {@code 0} if another run is in progress.
+     */
+    public int remind(LocalDate today) {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Due date reminders already in progress, skipping this run");
+            return 0;
+        }
+        LocalDate lastDueDate = today.plusDays(REMINDER_DAYS);
+        Map<Locale, Digest> digests = new HashMap<>();
+        long interval = TimeUnit.SECONDS.toNanos(1) / MAX_EMAILS_PER_SECOND;
+        long nextSend = System.nanoTime();
+        int count = 0;
+        try {
+            long afterUserId = 0;
+            while (true) {
+                List<Long> userIds = borrowingRepository.findUserIdsDueBetween(today, lastDueDate, afterUserId, PageRequest.of(0, CHUNK_SIZE));
+                if (userIds.isEmpty()) {
+                    break;
+                }
+                afterUserId = userIds.get(userIds.size() - 1);
+                Map<Long, List<Borrowing>> borrowingsByUser = borrowingRepository
+                    .findDueBetweenByUserIdIn(userIds, today, lastDueDate)
+                    .stream()
+                    .collect(Collectors.groupingBy(borrowing -> borrowing.getUser().getId()));
+                for (User user : userRepository.findAllById(userIds)) {
+                    List<Borrowing> borrowings = borrowingsByUser.get(user.getId());
+                    if (user.getEmail() == null || borrowings == null) {
+                        continue;
+                    }
+                    Digest digest = digests.computeIfAbsent(localeOf(user), this::render);
+                    if (!pace(nextSend)) {
+                        return count;
+                    }
+                    nextSend = Math.max(nextSend, System.nanoTime()) + interval;
+                    if (mailService.sendEmailNow(user.getEmail(), digest.subject, digest.contentFor(user, borrowings), false, true)) {
+                        count++;
+                        sent.increment();
+                    }
+                }
+                if (userIds.size() < CHUNK_SIZE) {
+                    break;
+                }
+            }
+        } finally {
+            running.set(false);
+        }
+        log.info("Sent {} due date reminders for the borrowings due from {} to {}", count, today, lastDueDate);
+        return count;
+    }
+
+    /**
+     * Wait until the next email may be sent.
+     *
+     * @return {@code false} if the thread was interrupted, so the run stops.
+     */
+    private boolean pace(long nextSend) {
+        long wait = nextSend - System.nanoTime();
+        if (wait <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(wait);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Due date reminders interrupted");
+            return false;
+        }
+    }
+
+    private static Locale localeOf(User user) {
+        return Locale.forLanguageTag(user.getLangKey() != null ? user.getLangKey() : Constants.DEFAULT_LANGUAGE);
+    }
+
+    private Digest render(Locale locale) {
+        Context context = new Context(locale);
+        context.setVariable("login", LOGIN_PLACEHOLDER);
+        context.setVariable("loans", LOANS_PLACEHOLDER);
+        context.setVariable("baseUrl", jHipsterProperties.getMail().getBaseUrl());
+        return new Digest(
+            locale,
+            messageSource.getMessage(TITLE_KEY, null, locale),
+            templateEngine.process(TEMPLATE_NAME, context),
+            DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM).withLocale(locale)
+        );
+    }
+
+    /**
+     * The digest email of a language, rendered once and filled in for each user.
+     */
+    private class Digest {
+
+        private final Locale locale;
+
+        private final String subject;
+
+        private final String content;
+
+        private final DateTimeFormatter dateFormatter;
+
+        Digest(Locale locale, String subject, String content, DateTimeFormatter dateFormatter) {
+            this.locale = locale;
+            this.subject = subject;
+            this.content = content;
+            this.dateFormatter = dateFormatter;
+        }
+
+        String contentFor(User user, List<Borrowing> borrowings) {
+            StringBuilder loans = new StringBuilder();
+            for (Borrowing borrowing : borrowings) {
+                String title = borrowing.getBook() != null ? borrowing.getBook().getTitle() : "";
+                String item = messageSource.getMessage(ITEM_KEY, new Object[] { title, dateFormatter.format(borrowing.getDue_date()) }, locale);
+                loans.append("<li>").append(HtmlUtils.htmlEscape(item)).append("</li>");
+            }
+            return content.replace(LOGIN_PLACEHOLDER, HtmlUtils.htmlEscape(user.getLogin())).replace(LOANS_PLACEHOLDER, loans);
+        }
+    }
+}
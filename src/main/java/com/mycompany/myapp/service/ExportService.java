@@ -0,0 +1,333 @@
+package com.mycompany.myapp.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.Borrowing;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.BorrowingRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.service.dto.AdminUserDTO;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for exporting whole tables for audits.
+ * <p>
+ * Rows are read through a JDBC-cursor backed {@link Stream}, written out one at a time and then detached from the
+ * persistence context, so heap use does not depend on the number of rows exported.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ExportService {
+
+    private final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    private static final char CSV_SEPARATOR = ';';
+
+    private static final int USER_BATCH_SIZE = 100;
+
+    /**
+     * The supported export formats.
+     */
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String mediaType;
+
+        private final String extension;
+
+        Format(String mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private static final List<String> BOOK_COLUMNS = List.of("id", "title", "author", "fine_amount", "publisher", "quantity", "category_id");
+
+    private static final List<String> BORROWING_COLUMNS = List.of(
+        "id",
+        "date_borrowed",
+        "due_date",
+        "return_date",
+        "status",
+        "fine",
+        "book_id",
+        "user_login"
+    );
+
+    private static final List<String> USER_COLUMNS = List.of(
+        "id",
+        "login",
+        "first_name",
+        "last_name",
+        "email",
+        "activated",
+        "lang_key",
+        "created_by",
+        "created_date",
+        "last_modified_by",
+        "last_modified_date",
+        "authorities"
+    );
+
+    private final BookRepository bookRepository;
+
+    private final BorrowingRepository borrowingRepository;
+
+    private final UserRepository userRepository;
+
+    private final EntityManager entityManager;
+
+    private final ObjectWriter jsonWriter;
+
+    public ExportService(
+        BookRepository bookRepository,
+        BorrowingRepository borrowingRepository,
+        UserRepository userRepository,
+        EntityManager entityManager,
+        ObjectMapper objectMapper
+    ) {
+        this.bookRepository = bookRepository;
+        this.borrowingRepository = borrowingRepository;
+        this.userRepository = userRepository;
+        this.entityManager = entityManager;
+        this.jsonWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Export all the books, in the column layout accepted by the book import in CSV.
+     *
+     * @param format the output format.
+     * @param out the stream to write to; it is flushed but not closed.
+     * @throws IOException if writing fails.
+     */
+    public void exportBooks(Format format, OutputStream out) throws IOException {
+        try (Stream<Book> books = bookRepository.streamAllByOrderById()) {
+            export(
+                format,
+                out,
+                BOOK_COLUMNS,
+                books,
+                book ->
+                    Arrays.asList(
+                        book.getId(),
+                        book.getTitle(),
+                        book.getAuthor(),
+                        book.getFine_amount(),
+                        book.getPublisher(),
+                        book.getQuantity(),
+                        book.getCategory() == null ? null : book.getCategory().getId()
+                    ),
+                book -> detach(book, book.getCategory())
+            );
+        }
+    }
+
+    /**
+     * Export all the borrowings.
+     *
+     * @param format the output format.
+     * @param out the stream to write to; it is flushed but not closed.
+     * @throws IOException if writing fails.
+     */
+    public void exportBorrowings(Format format, OutputStream out) throws IOException {
+        try (Stream<Borrowing> borrowings = borrowingRepository.streamAllByOrderById()) {
+            export(
+                format,
+                out,
+                BORROWING_COLUMNS,
+                borrowings,
+                borrowing ->
+                    Arrays.asList(
+                        borrowing.getId(),
+                        borrowing.getDate_borrowed(),
+                        borrowing.getDue_date(),
+                        borrowing.getReturn_date(),
+                        borrowing.getStatus(),
+                        borrowing.getFine(),
+                        borrowing.getBook() == null ? null : borrowing.getBook().getId(),
+                        borrowing.getUser() == null ? null : borrowing.getUser().getLogin()
+                    ),
+                borrowing -> {
+                    Book book = borrowing.getBook();
+                    detach(borrowing, book, book == null ? null : book.getCategory(), borrowing.getUser());
+                }
+            );
+        }
+    }
+
+    /**
+     * Export all the users, with their authorities.
+     * <p>
+     * Users are read in batches of {@link #USER_BATCH_SIZE} so that the authorities of a whole batch are loaded with
+     * a single query.
+     *
+     * @param format the output format.
+     * @param out the stream to write to; it is flushed but not closed.
+     * @throws IOException if writing fails.
+     */
+    public void exportUsers(Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        JsonGenerator generator = jsonWriter.getFactory().createGenerator(writer).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        long count = 0;
+        if (format == Format.CSV) {
+            writeCsvRow(writer, new ArrayList<>(USER_COLUMNS));
+        }
+        try (Stream<User> users = userRepository.streamAllByOrderById()) {
+            List<User> batch = new ArrayList<>(USER_BATCH_SIZE);
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == USER_BATCH_SIZE || !iterator.hasNext()) {
+                    for (AdminUserDTO user : toAdminUserDTOs(batch)) {
+                        if (format == Format.CSV) {
+                            writeCsvRow(
+                                writer,
+                                Arrays.asList(
+                                    user.getId(),
+                                    user.getLogin(),
+                                    user.getFirstName(),
+                                    user.getLastName(),
+                                    user.getEmail(),
+                                    user.isActivated(),
+                                    user.getLangKey(),
+                                    user.getCreatedBy(),
+                                    user.getCreatedDate(),
+                                    user.getLastModifiedBy(),
+                                    user.getLastModifiedDate(),
+                                    String.join(",", new TreeSet<>(user.getAuthorities()))
+                                )
+                            );
+                        } else {
+                            writeJsonRow(writer, generator, user);
+                        }
+                        count++;
+                    }
+                    batch.forEach(entityManager::detach);
+                    batch.clear();
+                }
+            }
+        }
+        generator.flush();
+        writer.flush();
+        log.debug("Exported {} users as {}", count, format);
+    }
+
+    private List<AdminUserDTO> toAdminUserDTOs(List<User> users) {
+        Map<Long, Set<String>> authorities = new HashMap<>();
+        List<Long> ids = users.stream().map(User::getId).collect(Collectors.toList());
+        for (Object[] row : userRepository.findAuthorityNamesByUserIdIn(ids)) {
+            authorities.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((String) row[1]);
+        }
+        List<AdminUserDTO> dtos = new ArrayList<>(users.size());
+        for (User user : users) {
+            AdminUserDTO dto = new AdminUserDTO();
+            dto.setId(user.getId());
+            dto.setLogin(user.getLogin());
+            dto.setFirstName(user.getFirstName());
+            dto.setLastName(user.getLastName());
+            dto.setEmail(user.getEmail());
+            dto.setActivated(user.isActivated());
+            dto.setImageUrl(user.getImageUrl());
+            dto.setLangKey(user.getLangKey());
+            dto.setCreatedBy(user.getCreatedBy());
+            dto.setCreatedDate(user.getCreatedDate());
+            dto.setLastModifiedBy(user.getLastModifiedBy());
+            dto.setLastModifiedDate(user.getLastModifiedDate());
+            dto.setAuthorities(authorities.getOrDefault(user.getId(), Collections.emptySet()));
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    private <T> void export(
+        Format format,
+        OutputStream out,
+        List<String> columns,
+        Stream<T> rows,
+        Function<T, List<Object>> toCsv,
+        Consumer<T> release
+    ) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        JsonGenerator generator = jsonWriter.getFactory().createGenerator(writer).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (format == Format.CSV) {
+            writeCsvRow(writer, new ArrayList<>(columns));
+        }
+        long count = 0;
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            T row = iterator.next();
+            if (format == Format.CSV) {
+                writeCsvRow(writer, toCsv.apply(row));
+            } else {
+                writeJsonRow(writer, generator, row);
+            }
+            release.accept(row);
+            count++;
+        }
+        generator.flush();
+        writer.flush();
+        log.debug("Exported {} rows as {}", count, format);
+    }
+
+    private void writeJsonRow(Writer writer, JsonGenerator generator, Object value) throws IOException {
+        jsonWriter.writeValue(generator, value);
+        generator.flush();
+        writer.write('\n');
+    }
+
+    private static void writeCsvRow(Writer writer, List<Object> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(CSV_SEPARATOR);
+            }
+            Object value = values.get(i);
+            if (value != null) {
+                writer.write(csvField(value.toString()));
+            }
+        }
+        writer.write('\n');
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(CSV_SEPARATOR) < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private void detach(Object... entities) {
+        for (Object entity : entities) {
+            if (entity != null && entityManager.contains(entity)) {
+                entityManager.detach(entity);
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.repository.BorrowingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service accruing the fines of overdue borrowings, every night.
+ * <p>
+ * The open borrowings past their due date are read in chunks of {@link #CHUNK_SIZE}, by a seek on the
+ * {@code (return_date, due_date)} index, with only their id, due date and book fine amount. The fine of each borrowing
+ * is the number of days it is overdue times the fine amount of its book, so the borrowings of a chunk are grouped by
+ * fine and updated with one statement per group. Chunks are updated in their own transaction on the
+ * {@code fineAccrualExecutor}, while the next chunk is being read. Once every chunk is updated, the fine balances of
+ * their users are recomputed from this thread, in user id order, as chunks recomputing the balances of the same users
+ * concurrently would deadlock.
+ */
+@Service
+public class FineAccrualService {
+
+    private final Logger log = LoggerFactory.getLogger(FineAccrualService.class);
+
+    static final int CHUNK_SIZE = 500;
+
+    private final BorrowingRepository borrowingRepository;
+
+    private final FineBalanceService fineBalanceService;
+
+    private final ThreadPoolTaskExecutor executor;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Timer duration;
+
+    private final Counter accrued;
+
+    private final AtomicLong throughput = new AtomicLong();
+
+    public FineAccrualService(
+        BorrowingRepository borrowingRepository,
+        FineBalanceService fineBalanceService,
+        @Qualifier("fineAccrualExecutor") ThreadPoolTaskExecutor executor,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
+    ) {
+        this.borrowingRepository = borrowingRepository;
+        this.fineBalanceService = fineBalanceService;
+        this.executor = executor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.duration = Timer.builder("libsystem.fines.accrual.duration").description("Duration of the fine accrual runs").register(meterRegistry);
+        this.accrued = Counter
+            .builder("libsystem.fines.accrual.borrowings")
+            .description("Number of overdue borrowings whose fine was accrued")
+            .register(meterRegistry);
+        Gauge
+            .builder("libsystem.fines.accrual.throughput", throughput, AtomicLong::get)
+            .description("Overdue borrowings accrued per second by the last run")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Accrue the fines of the overdue borrowings, every night at 1:30.
+     */
+    @Scheduled(cron = "0 30 1 * * ?")
+    public void accrueFines() {
+        accrueFines(LocalDate.now());
+    }
+
+    /**
+     * Accrue the fines of the borrowings that are still out and were due before a date.
+     *
+     * @param today the accrual date.
+     * @return the number of borrowings whose fine was accrued.
+     */
+    public long accrueFines(LocalDate today) {
+        long start = System.nanoTime();
+        List<Future<Integer>> chunks = new ArrayList<>();
+        Set<Long> userIds = new TreeSet<>();
+        Pageable chunk = PageRequest.of(0, CHUNK_SIZE);
+        List<Object[]> rows = borrowingRepository.findOverdue(today, chunk);
+        while (!rows.isEmpty()) {
+            Map<Integer, List<Long>> idsByFine = groupByFine(rows, today);
+            rows.stream().map(row -> (Long) row[3]).filter(Objects::nonNull).forEach(userIds::add);
+            chunks.add(executor.submit(() -> transactionTemplate.execute(status -> update(idsByFine))));
+            if (rows.size() < CHUNK_SIZE) {
+                break;
+            }
+            Object[] last = rows.get(rows.size() - 1);
+            rows = borrowingRepository.findOverdueAfter(today, (LocalDate) last[1], (Long) last[0], chunk);
+        }
+        long count = 0;
+        for (Future<Integer> updated : chunks) {
+            count += await(updated);
+        }
+        List<Long> users = new ArrayList<>(userIds);
+        for (int from = 0; from < users.size(); from += CHUNK_SIZE) {
+            List<Long> slice = users.subList(from, Math.min(from + CHUNK_SIZE, users.size()));
+            transactionTemplate.executeWithoutResult(status -> fineBalanceService.recompute(slice));
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        duration.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        accrued.increment(count);
+        throughput.set(count * TimeUnit.SECONDS.toNanos(1) / Math.max(elapsedNanos, 1));
+        log.info("Accrued the fines of {} overdue borrowings in {} chunks in {} ms", count, chunks.size(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        return count;
+    }
+
+    private static Map<Integer, List<Long>> groupByFine(List<Object[]> rows, LocalDate today) {
+        Map<Integer, List<Long>> idsByFine = new HashMap<>();
+        for (Object[] row : rows) {
+            long daysOverdue = ChronoUnit.DAYS.between((LocalDate) row[1], today);
+            Integer fineAmount = (Integer) row[2];
+            int fine = fineAmount == null ? 0 : Math.toIntExact(daysOverdue * fineAmount);
+            idsByFine.computeIfAbsent(fine, f -> new ArrayList<>()).add((Long) row[0]);
+        }
+        return idsByFine;
+    }
+
+    private int update(Map<Integer, List<Long>> idsByFine) {
+        int updated = 0;
+        for (Map.Entry<Integer, List<Long>> group : idsByFine.entrySet()) {
+            updated += borrowingRepository.updateFine(group.getValue(), group.getKey());
+        }
+        return updated;
+    }
+
+    private static int await(Future<Integer> updated) {
+        try {
+            return updated.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while accruing fines", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not accrue fines", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.FineBalance;
+import com.mycompany.myapp.repository.ArchivedBorrowingRepository;
+import com.mycompany.myapp.repository.BorrowingRepository;
+import com.mycompany.myapp.repository.FineBalanceRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for the fines each user owes.
+ * <p>
+ * The balance of a user is the sum of the fines of their borrowings, archived ones included. It is stored in its own row, so that reading it is
+ * a primary key lookup, and updated by the transaction that changes a fine: an exact delta when a single borrowing
+ * changes, or a recomputation from the borrowings of the affected users for bulk changes. Every night, after the fines
+ * were accrued, the balances are checked against the borrowings and corrected if they drifted.
+ */
+@Service
+@Transactional
+public class FineBalanceService {
+
+    private final Logger log = LoggerFactory.getLogger(FineBalanceService.class);
+
+    private static final int RECOMPUTE_BATCH_SIZE = 500;
+
+    private final FineBalanceRepository fineBalanceRepository;
+
+    private final BorrowingRepository borrowingRepository;
+
+    private final ArchivedBorrowingRepository archivedBorrowingRepository;
+
+    public FineBalanceService(
+        FineBalanceRepository fineBalanceRepository,
+        BorrowingRepository borrowingRepository,
+        ArchivedBorrowingRepository archivedBorrowingRepository
+    ) {
+        this.fineBalanceRepository = fineBalanceRepository;
+        this.borrowingRepository = borrowingRepository;
+        this.archivedBorrowingRepository = archivedBorrowingRepository;
+    }
+
+    /**
+     * Get the balance of a user.
+     *
+     * @param userId the id of the user.
+     * @return the fines the user owes.
+     */
+    @Transactional(readOnly = true)
+    public int getBalance(Long userId) {
+        return fineBalanceRepository.findBalanceByUserId(userId).orElse(0);
+    }
+
+    /**
+     * Add the change of a borrowing fine to the balance of its user.
+     *
+     * @param userId the id of the user, may be {@code null}.
+     * @param delta the new fine minus the previous one.
+     */
+    public void addToBalance(Long userId, int delta) {
+        if (userId == null || delta == 0) {
+            return;
+        }
+        if (fineBalanceRepository.addToBalance(userId, delta) == 0) {
+            createMissing(Set.of(userId));
+            fineBalanceRepository.recompute(Set.of(userId));
+        }
+    }
+
+    /**
+     * Recompute the balances of users from the fines of their borrowings, archived ones included.
+     *
+     * @param userIds the ids of the users; {@code null} ids are ignored.
+     */
+    public void recompute(Collection<Long> userIds) {
+        Set<Long> ids = userIds.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return;
+        }
+        createMissing(ids);
+        fineBalanceRepository.recompute(ids);
+    }
+
+    /**
+     * Create an empty balance for the users that have none yet.
+     * <p>
+     * Callers updating balances concurrently should create them beforehand, as two transactions creating the same
+     * balance would conflict.
+     *
+     * @param userIds the ids of the users.
+     */
+    public void createMissing(Collection<Long> userIds) {
+        Set<Long> missing = userIds.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        if (missing.isEmpty()) {
+            return;
+        }
+        missing.removeAll(fineBalanceRepository.findUserIdsIn(missing));
+        if (!missing.isEmpty()) {
+            fineBalanceRepository.saveAll(missing.stream().map(id -> new FineBalance().userId(id).balance(0)).collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * Check every balance against the borrowings, every night at 2:30, and correct the ones that drifted.
+     *
+     * @return the number of corrected balances.
+     */
+    @Scheduled(cron = "0 30 2 * * ?")
+    public int reconcile() {
+        long start = System.currentTimeMillis();
+        Map<Long, Integer> expected = new HashMap<>();
+        for (Object[] row : borrowingRepository.sumFinesByUser()) {
+            expected.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+        for (Object[] row : archivedBorrowingRepository.sumFinesByUser()) {
+            expected.merge((Long) row[0], ((Number) row[1]).intValue(), Integer::sum);
+        }
+        List<Long> drifted = new ArrayList<>();
+        for (Object[] balance : fineBalanceRepository.findAllBalances()) {
+            Integer fines = expected.remove((Long) balance[0]);
+            if (!Objects.equals(balance[1], fines == null ? 0 : fines)) {
+                drifted.add((Long) balance[0]);
+            }
+        }
+        // The users left have no balance yet
+        expected.forEach((userId, fines) -> {
+            if (fines != 0) {
+                drifted.add(userId);
+            }
+        });
+        for (int i = 0; i < drifted.size(); i += RECOMPUTE_BATCH_SIZE) {
+            recompute(drifted.subList(i, Math.min(i + RECOMPUTE_BATCH_SIZE, drifted.size())));
+        }
+        if (!drifted.isEmpty()) {
+            log.warn("Corrected {} drifted fine balances", drifted.size());
+        }
+        log.info("Reconciled fine balances in {} ms", System.currentTimeMillis() - start);
+        return drifted.size();
+    }
+}
@@ -0,0 +1,10 @@
+package com.mycompany.myapp.service;
+
+public class HoldAlreadyPlacedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public HoldAlreadyPlacedException() {
+        super("The book is already held!");
+    }
+}
@@ -0,0 +1,397 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.Hold;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.HoldRepository;
+import com.mycompany.myapp.service.dto.HoldDTO;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service for the holds users place on books with no copy left.
+ * <p>
+ * The holds of a book form a queue, served in the order they were placed: when a copy is returned, it is reserved for
+ * the first waiting hold instead of going back to the shelf, and the user is notified by email. The hold is then ready
+ * until the user checks the copy out, or cancels the hold, which passes the copy on to the next hold. A ready hold whose
+ * copy is not collected within {@link #PICKUP_DAYS} days expires, which passes the copy on too. Copies added to a book
+ * by editing its quantity are served to the queue like returned ones.
+ * <p>
+ * Placing a hold and serving the queue both lock the row of the book, as returning a copy does, so that a hold is never
+ * left waiting while a copy is on the shelf. Holds of different books never wait on each other.
+ * <p>
+ * The holds are also kept in memory, in one concurrent queue per book, so that they are read without any database
+ * access. The queues are loaded when the application starts, and updated once the changes they reflect are committed.
+ */
+@Service
+public class HoldService {
+
+    private final Logger log = LoggerFactory.getLogger(HoldService.class);
+
+    /**
+     * Number of days a copy stays reserved for a ready hold.
+     */
+    static final int PICKUP_DAYS = 7;
+
+    private final HoldRepository holdRepository;
+
+    private final BookRepository bookRepository;
+
+    private final BookSearchService bookSearchService;
+
+    private final MailService mailService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * The holds of each book by id, so in the order they were placed.
+     */
+    private final ConcurrentMap<Long, ConcurrentNavigableMap<Long, Entry>> queues = new ConcurrentHashMap<>();
+
+    public HoldService(
+        HoldRepository holdRepository,
+        BookRepository bookRepository,
+        BookSearchService bookSearchService,
+        MailService mailService,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.holdRepository = holdRepository;
+        this.bookRepository = bookRepository;
+        this.bookSearchService = bookSearchService;
+        this.mailService = mailService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Load the queues of holds from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        List<Object[]> rows = holdRepository.findAllEntries();
+        queues.clear();
+        for (Object[] row : rows) {
+            put(new Entry((Long) row[0], (Long) row[1], (Long) row[2], (String) row[3], (Instant) row[4], (Instant) row[5]));
+        }
+        log.info("Loaded {} holds in {} ms", rows.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Place a hold on a book for a user.
+     *
+     * @param bookId the id of the book.
+     * @param user the user.
+     * @return the placed hold, or empty if the book does not exist.
+     * @throws BookAvailableException if a copy of the book is left.
+     * @throws HoldAlreadyPlacedException if the user already holds the book.
+     */
+    @Transactional
+    public Optional<HoldDTO> place(Long bookId, User user) {
+        Optional<Integer> quantity = bookRepository.findQuantityForUpdate(bookId);
+        if (quantity.isEmpty()) {
+            return Optional.empty();
+        }
+        if (quantity.get() != null && quantity.get() > 0) {
+            throw new BookAvailableException();
+        }
+        if (holdRepository.existsByBookIdAndUserId(bookId, user.getId())) {
+            throw new HoldAlreadyPlacedException();
+        }
+        Hold hold = holdRepository.save(new Hold().placedDate(Instant.now()).book(bookRepository.getById(bookId)).user(user));
+        Entry entry = new Entry(hold.getId(), bookId, user.getId(), user.getLogin(), hold.getPlacedDate(), null);
+        AfterCommit.run(() -> put(entry));
+        return Optional.of(entry.toDto(position(entry)));
+    }
+
+    /**
+     * Cancel a hold. The copy reserved for a ready hold is passed on to the next waiting hold, or put back.
+     *
+     * @param id the id of the hold.
+     * @param login the login of the user the hold must belong to, or {@code null} for any user.
+     * @return the cancelled hold, or empty if it does not exist or belongs to another user.
+     */
+    @Transactional
+    public Optional<HoldDTO> cancel(Long id, String login) {
+        Optional<Hold> found = holdRepository.findWithUserById(id).filter(hold -> login == null || login.equals(hold.getUser().getLogin()));
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        Hold hold = found.get();
+        Long bookId = hold.getBook().getId();
+        // The book is locked first, as when serving the queue, so that the hold cannot become ready meanwhile
+        bookRepository.findQuantityForUpdate(bookId);
+        if (holdRepository.removeWaitingById(id) == 0) {
+            if (holdRepository.removeReadyById(id) == 0) {
+                return Optional.empty();
+            }
+            passOn(bookId);
+        }
+        AfterCommit.run(() -> remove(bookId, id));
+        return Optional.of(new HoldDTO(id, bookId, hold.getUser().getLogin(), hold.getPlacedDate(), hold.getReadyDate(), null));
+    }
+
+    /**
+     * Reserve copies of a book that were just put back for its first waiting holds, and notify their users.
+     * <p>
+     * The caller must have locked the book row, by putting the copies back in the same transaction.
+     *
+     * @param bookId the id of the book.
+     * @param copies the number of copies put back.
+     * @return the number of copies reserved, at most {@code copies}.
+     */
+    @Transactional
+    public int serve(Long bookId, int copies) {
+        List<Hold> waiting = holdRepository.findWaitingForUpdate(bookId, PageRequest.of(0, copies));
+        if (waiting.isEmpty()) {
+            return 0;
+        }
+        if (bookRepository.reserveCopies(bookId, waiting.size()) == 0) {
+            throw new IllegalStateException("Fewer than " + waiting.size() + " copies left of book " + bookId);
+        }
+        Instant readyDate = Instant.now();
+        String title = bookRepository.findTitleById(bookId).orElse(null);
+        for (Hold hold : waiting) {
+            hold.setReadyDate(readyDate);
+            User user = (User) Hibernate.unproxy(hold.getUser());
+            Long id = hold.getId();
+            AfterCommit.run(() -> {
+                markReady(bookId, id, readyDate);
+                mailService.sendHoldReadyEmail(user, title);
+            });
+        }
+        return waiting.size();
+    }
+
+    /**
+     * Expire the ready holds whose copy was not collected in time, every hour.
+     */
+    @Scheduled(cron = "0 45 * * * ?")
+    public void expire() {
+        expire(Instant.now());
+    }
+
+    /**
+     * Expire the holds that were ready for more than {@link #PICKUP_DAYS} days at a given time, passing their copies on
+     * to the next waiting holds, or putting them back.
+     * <p>
+     * Each hold is expired in its own transaction, so that no more than one book is locked at a time.
+     *
+     * @param now the time to expire the holds at.
+     * @return the number of holds expired.
+     */
+    public int expire(Instant now) {
+        List<Object[]> ready = holdRepository.findReadyBefore(now.minus(PICKUP_DAYS, ChronoUnit.DAYS));
+        int count = 0;
+        for (Object[] row : ready) {
+            Long id = (Long) row[0];
+            Long bookId = (Long) row[1];
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> expire(id, bookId)))) {
+                count++;
+            }
+        }
+        if (count > 0) {
+            log.info("Expired {} uncollected holds", count);
+        }
+        return count;
+    }
+
+    /**
+     * Collect the copy reserved for the ready hold of a user on a book, if any, completing the hold.
+     *
+     * @param bookId the id of the book.
+     * @param userId the id of the user.
+     * @return {@code true} if a copy was reserved for the user, who can check it out without taking another one.
+     */
+    @Transactional
+    public boolean collect(Long bookId, Long userId) {
+        Optional<Long> id = holdRepository.findReadyId(bookId, userId);
+        if (id.isEmpty() || holdRepository.removeReadyById(id.get()) == 0) {
+            return false;
+        }
+        AfterCommit.run(() -> remove(bookId, id.get()));
+        return true;
+    }
+
+    /**
+     * Get the queue of holds of a book.
+     *
+     * @param bookId the id of the book.
+     * @return the holds, ready ones first, then waiting ones in the order they will be served.
+     */
+    public List<HoldDTO> getHoldsOfBook(Long bookId) {
+        ConcurrentNavigableMap<Long, Entry> queue = queues.get(bookId);
+        List<HoldDTO> holds = new ArrayList<>();
+        if (queue == null) {
+            return holds;
+        }
+        int position = 0;
+        for (Entry entry : queue.values()) {
+            if (entry.readyDate != null) {
+                holds.add(entry.toDto(null));
+            }
+        }
+        for (Entry entry : queue.values()) {
+            if (entry.readyDate == null) {
+                holds.add(entry.toDto(++position));
+            }
+        }
+        return holds;
+    }
+
+    /**
+     * Get the holds of a user.
+     *
+     * @param login the login of the user.
+     * @return the holds, with their place in the queue of their book, first placed first.
+     */
+    public List<HoldDTO> getHoldsOfUser(String login) {
+        List<HoldDTO> holds = new ArrayList<>();
+        for (ConcurrentNavigableMap<Long, Entry> queue : queues.values()) {
+            for (Entry entry : queue.values()) {
+                if (entry.login.equals(login)) {
+                    holds.add(entry.toDto(position(entry)));
+                }
+            }
+        }
+        holds.sort(Comparator.comparing(HoldDTO::getId));
+        return holds;
+    }
+
+    /**
+     * @param bookId the id of the book.
+     * @param userId the id of the user.
+     * @return whether a copy of the book is reserved for the user, as far as the in-memory queues know.
+     */
+    public boolean hasReadyHold(Long bookId, Long userId) {
+        ConcurrentNavigableMap<Long, Entry> queue = queues.get(bookId);
+        return queue != null && queue.values().stream().anyMatch(entry -> entry.readyDate != null && entry.userId.equals(userId));
+    }
+
+    /**
+     * @param bookId the id of the book.
+     * @return the number of holds waiting for a copy of the book, as far as the in-memory queues know.
+     */
+    public int countWaiting(Long bookId) {
+        ConcurrentNavigableMap<Long, Entry> queue = queues.get(bookId);
+        return queue == null ? 0 : (int) queue.values().stream().filter(entry -> entry.readyDate == null).count();
+    }
+
+    private boolean expire(Long id, Long bookId) {
+        bookRepository.findQuantityForUpdate(bookId);
+        // The hold may have been collected or cancelled since it was read
+        if (holdRepository.removeReadyById(id) == 0) {
+            return false;
+        }
+        passOn(bookId);
+        AfterCommit.run(() -> remove(bookId, id));
+        return true;
+    }
+
+    /**
+     * Pass the copy reserved for a ready hold, just deleted, on to the next waiting hold, or put it back.
+     */
+    private void passOn(Long bookId) {
+        bookRepository.incrementQuantity(bookId);
+        serve(bookId, 1);
+        Book book = bookRepository.getById(bookId);
+        bookSearchService.index(book);
+    }
+
+    private Integer position(Entry entry) {
+        if (entry.readyDate != null) {
+            return null;
+        }
+        ConcurrentNavigableMap<Long, Entry> queue = queues.get(entry.bookId);
+        if (queue == null) {
+            return 1;
+        }
+        return 1 + (int) queue.headMap(entry.id).values().stream().filter(ahead -> ahead.readyDate == null).count();
+    }
+
+    private void put(Entry entry) {
+        queues.compute(
+            entry.bookId,
+            (bookId, queue) -> {
+                ConcurrentNavigableMap<Long, Entry> updated = queue != null ? queue : new ConcurrentSkipListMap<>();
+                updated.put(entry.id, entry);
+                return updated;
+            }
+        );
+    }
+
+    private void markReady(Long bookId, Long id, Instant readyDate) {
+        queues.computeIfPresent(
+            bookId,
+            (key, queue) -> {
+                queue.computeIfPresent(id, (holdId, entry) -> entry.ready(readyDate));
+                return queue;
+            }
+        );
+    }
+
+    private void remove(Long bookId, Long id) {
+        queues.computeIfPresent(
+            bookId,
+            (key, queue) -> {
+                queue.remove(id);
+                return queue.isEmpty() ? null : queue;
+            }
+        );
+    }
+
+    /**
+     * A hold, as kept in memory.
+     */
+    private static final class Entry {
+
+        private final Long id;
+
+        private final Long bookId;
+
+        private final Long userId;
+
+        private final String login;
+
+        private final Instant placedDate;
+
+        private final Instant readyDate;
+
+        Entry(Long id, Long bookId, Long userId, String login, Instant placedDate, Instant readyDate) {
+            this.id = id;
+            this.bookId = bookId;
+            this.userId = userId;
+            this.login = login;
+            this.placedDate = placedDate;
+            this.readyDate = readyDate;
+        }
+
+        Entry ready(Instant readyDate) {
+            return new Entry(id, bookId, userId, login, placedDate, readyDate);
+        }
+
+        HoldDTO toDto(Integer position) {
+            return new HoldDTO(id, bookId, login, placedDate, readyDate, position);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.mycompany.myapp.service;
 import com.mycompany.myapp.domain.User;
 import java.nio.charset.StandardCharsets;
 import java.util.Locale;
+import java.util.Map;
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
 import org.slf4j.Logger;
@@ -31,6 +32,8 @@ public class MailService {
 
     private static final String BASE_URL = "baseUrl";
 
+    private static final String BOOK_TITLE = "bookTitle";
+
     private final JHipsterProperties jHipsterProperties;
 
     private final JavaMailSender javaMailSender;
@@ -53,6 +56,16 @@ public class MailService {
 
     @Async
     public void sendEmail(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
+        sendEmailNow(to, subject, content, isMultipart, isHtml);
+    }
+
+    /**
+     * Send an email in the calling thread, for jobs sending many emails at their own pace rather than queuing them all
+     * on the async executor.
+     *
+     * @return {@code true} if the email was sent.
+     */
+    public boolean sendEmailNow(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
         log.debug(
             "Send email[multipart '{}' and html '{}'] to '{}' with subject '{}' and content={}",
             isMultipart,
@@ -72,13 +85,20 @@ public class MailService {
             message.setText(content, isHtml);
             javaMailSender.send(mimeMessage);
             log.debug("Sent email to User '{}'", to);
+            return true;
         } catch (MailException | MessagingException e) {
             log.warn("Email could not be sent to user '{}'", to, e);
+            return false;
         }
     }
 
     @Async
     public void sendEmailFromTemplate(User user, String templateName, String titleKey) {
+        sendEmailFromTemplate(user, templateName, titleKey, Map.of());
+    }
+
+    @Async
+    public void sendEmailFromTemplate(User user, String templateName, String titleKey, Map<String, Object> variables) {
         if (user.getEmail() == null) {
             log.debug("Email doesn't exist for user '{}'", user.getLogin());
             return;
@@ -87,6 +107,7 @@ public class MailService {
         Context context = new Context(locale);
         context.setVariable(USER, user);
         context.setVariable(BASE_URL, jHipsterProperties.getMail().getBaseUrl());
+        variables.forEach(context::setVariable);
         String content = templateEngine.process(templateName, context);
         String subject = messageSource.getMessage(titleKey, null, locale);
         sendEmail(user.getEmail(), subject, content, false, true);
@@ -109,4 +130,10 @@ public class MailService {
         log.debug("Sending password reset email to '{}'", user.getEmail());
         sendEmailFromTemplate(user, "mail/passwordResetEmail", "email.reset.title");
     }
+
+    @Async
+    public void sendHoldReadyEmail(User user, String bookTitle) {
+        log.debug("Sending hold ready email to '{}'", user.getEmail());
+        sendEmailFromTemplate(user, "mail/holdReadyEmail", "email.hold.title", Map.of(BOOK_TITLE, bookTitle == null ? "" : bookTitle));
+    }
 }
@@ -0,0 +1,10 @@
+package com.mycompany.myapp.service;
+
+public class SpaceAlreadyBookedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SpaceAlreadyBookedException() {
+        super("The user already booked a space on this day!");
+    }
+}
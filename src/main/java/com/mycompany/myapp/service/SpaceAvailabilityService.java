@@ -0,0 +1,152 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.repository.SpacesRepository;
+import com.mycompany.myapp.service.dto.SpaceAvailabilityDTO;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for the availability of the study spaces over a range of days, such as the month shown by the booking
+ * calendar.
+ * <p>
+ * The spaces of a range are counted by one grouped query on the {@code date} index, and the result is cached for that
+ * range. Once a booking is committed or cancelled, the cached ranges holding its day are evicted, and the others are
+ * kept. Every eviction moves an epoch forward, and a range counted while the epoch moved is not kept in the cache, as
+ * its count may predate the booking whose eviction it raced.
+ */
+@Service
+public class SpaceAvailabilityService {
+
+    private final Logger log = LoggerFactory.getLogger(SpaceAvailabilityService.class);
+
+    public static final String SPACE_AVAILABILITY_CACHE = "spaceAvailability";
+
+    private final SpacesRepository spacesRepository;
+
+    private final CacheManager cacheManager;
+
+    private final ApplicationProperties.Spaces capacity;
+
+    private final AtomicLong epoch = new AtomicLong();
+
+    public SpaceAvailabilityService(SpacesRepository spacesRepository, CacheManager cacheManager, ApplicationProperties applicationProperties) {
+        this.spacesRepository = spacesRepository;
+        this.cacheManager = cacheManager;
+        this.capacity = applicationProperties.getSpaces();
+    }
+
+    /**
+     * Get the availability of each day of a range.
+     *
+     * @param from the first day of the range.
+     * @param to the last day of the range.
+     * @return the booked and free spaces of each day, in date order.
+     */
+    @SuppressWarnings("unchecked")
+    public List<SpaceAvailabilityDTO> getAvailability(LocalDate from, LocalDate to) {
+        Cache cache = cache();
+        DayRange range = new DayRange(from, to);
+        List<SpaceAvailabilityDTO> cached = cache.get(range, List.class);
+        if (cached != null) {
+            return cached;
+        }
+        long countedAt = epoch.get();
+        List<SpaceAvailabilityDTO> availability = count(from, to);
+        cache.put(range, availability);
+        // An eviction that moved the epoch before this put may have missed it, one that moves it later will not
+        if (epoch.get() != countedAt) {
+            cache.evict(range);
+        }
+        return availability;
+    }
+
+    private List<SpaceAvailabilityDTO> count(LocalDate from, LocalDate to) {
+        Map<LocalDate, Integer> booked = new HashMap<>();
+        for (Object[] row : spacesRepository.countByDateBetween(from, to)) {
+            booked.put((LocalDate) row[0], ((Number) row[1]).intValue());
+        }
+        List<SpaceAvailabilityDTO> availability = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            int count = booked.getOrDefault(day, 0);
+            availability.add(new SpaceAvailabilityDTO(day, count, Math.max(0, capacity.getCapacity(day) - count)));
+        }
+        return availability;
+    }
+
+    /**
+     * Evict the cached ranges holding a day, as its bookings changed.
+     *
+     * @param date the day.
+     */
+    @SuppressWarnings("unchecked")
+    public void evict(LocalDate date) {
+        epoch.incrementAndGet();
+        Cache cache = cache();
+        if (!(cache.getNativeCache() instanceof javax.cache.Cache)) {
+            cache.clear();
+            return;
+        }
+        List<Object> keys = new ArrayList<>();
+        for (javax.cache.Cache.Entry<Object, Object> entry : (javax.cache.Cache<Object, Object>) cache.getNativeCache()) {
+            if (entry.getKey() instanceof DayRange && ((DayRange) entry.getKey()).contains(date)) {
+                keys.add(entry.getKey());
+            }
+        }
+        keys.forEach(cache::evict);
+        log.debug("Evicted {} space availability ranges holding {}", keys.size(), date);
+    }
+
+    private Cache cache() {
+        return Objects.requireNonNull(cacheManager.getCache(SPACE_AVAILABILITY_CACHE));
+    }
+
+    /**
+     * The key of the availability of a range of days.
+     */
+    private static final class DayRange implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final LocalDate from;
+
+        private final LocalDate to;
+
+        DayRange(LocalDate from, LocalDate to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        boolean contains(LocalDate date) {
+            return !date.isBefore(from) && !date.isAfter(to);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DayRange)) {
+                return false;
+            }
+            DayRange other = (DayRange) o;
+            return from.equals(other.from) && to.equals(other.to);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(from, to);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Spaces;
+import com.mycompany.myapp.repository.SpacesRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for the booking of the study spaces, at most the capacity of the day and one per user and day, see
+ * {@link ApplicationProperties.Spaces}.
+ * <p>
+ * Bookings are admitted in memory, without any database access or lock on the spaces table: each day has its own
+ * atomic counter of booked spaces and bitset of the ids of the users holding it, so that bookings of different days
+ * never wait on each other and bookings of the same day only for the check itself. A day is loaded from the database
+ * the first time it is booked. A booking holds its space as soon as it is admitted, and gives it back if its
+ * transaction rolls back.
+ * <p>
+ * The days in memory are reconciled with the database every {@link #RECONCILE_INTERVAL_MILLIS} ms, to take in the
+ * spaces written without this service. A day is only reconciled if no booking of that day was admitted, committed or
+ * cancelled while it was read, and a day left with more spaces than its capacity, such as a day closed after it was
+ * booked, is reported. The cached availability of a day is evicted whenever its bookings change.
+ */
+@Service
+public class SpaceBookingService {
+
+    private final Logger log = LoggerFactory.getLogger(SpaceBookingService.class);
+
+    static final long RECONCILE_INTERVAL_MILLIS = 60_000;
+
+    private final SpacesRepository spacesRepository;
+
+    private final SpaceAvailabilityService spaceAvailabilityService;
+
+    private final ApplicationProperties.Spaces capacity;
+
+    private final ConcurrentMap<LocalDate, Day> days = new ConcurrentHashMap<>();
+
+    public SpaceBookingService(
+        SpacesRepository spacesRepository,
+        SpaceAvailabilityService spaceAvailabilityService,
+        ApplicationProperties applicationProperties
+    ) {
+        this.spacesRepository = spacesRepository;
+        this.spaceAvailabilityService = spaceAvailabilityService;
+        this.capacity = applicationProperties.getSpaces();
+    }
+
+    /**
+     * Book a space.
+     *
+     * @param spaces the space to book, on a day and for a user.
+     * @return the booked space.
+     * @throws SpaceFullException if no space is left on the day.
+     * @throws SpaceAlreadyBookedException if the user already holds a space on the day.
+     */
+    @Transactional
+    public Spaces book(Spaces spaces) {
+        admit(spaces.getDate(), userIdOf(spaces));
+        return spacesRepository.save(spaces);
+    }
+
+    /**
+     * Hold a space on another day or for another user, as a booked space is updated. The new space is held at once,
+     * and the previous one is given back once the current transaction commits.
+     *
+     * @throws SpaceFullException if no space is left on the new day.
+     * @throws SpaceAlreadyBookedException if the new user already holds a space on the new day.
+     */
+    @Transactional
+    public void move(LocalDate previousDate, Long previousUserId, LocalDate date, Long userId) {
+        if (previousDate != null && previousDate.equals(date) && (previousUserId == null ? userId == null : previousUserId.equals(userId))) {
+            return;
+        }
+        admit(date, userId);
+        cancel(previousDate, previousUserId);
+    }
+
+    /**
+     * Give back a space, once the current transaction commits, as a booked space is deleted.
+     */
+    @Transactional
+    public void cancel(LocalDate date, Long userId) {
+        if (date == null) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            Day day = days.get(date);
+            if (day != null) {
+                day.release(userId);
+            }
+            spaceAvailabilityService.evict(date);
+        });
+    }
+
+    /**
+     * Get the number of spaces booked on a day.
+     */
+    public int getBooked(LocalDate date) {
+        return day(date).booked.get();
+    }
+
+    private void admit(LocalDate date, Long userId) {
+        if (date == null) {
+            return;
+        }
+        Day day = day(date);
+        day.admit(userId, capacity.getCapacity(date));
+        AfterCommit.run(
+            () -> {
+                day.commit();
+                spaceAvailabilityService.evict(date);
+            },
+            () -> day.rollback(userId)
+        );
+    }
+
+    private Day day(LocalDate date) {
+        Day day = days.get(date);
+        if (day != null) {
+            return day;
+        }
+        Day loaded = new Day();
+        loaded.reset(loaded.version, spacesRepository.findUserIdsByDate(date));
+        day = days.putIfAbsent(date, loaded);
+        return day != null ? day : loaded;
+    }
+
+    /**
+     * Reconcile the days in memory with the spaces in the database, and forget the past days.
+     *
+     * @return the number of days whose bookings were corrected.
+     */
+    @Scheduled(fixedDelay = RECONCILE_INTERVAL_MILLIS, initialDelay = RECONCILE_INTERVAL_MILLIS)
+    public int reconcile() {
+        LocalDate today = LocalDate.now();
+        days.keySet().removeIf(date -> date.isBefore(today));
+        if (days.isEmpty()) {
+            return 0;
+        }
+        // The versions are read before the spaces, so that a day changed meanwhile is left as it is
+        Map<LocalDate, Long> versions = new HashMap<>();
+        days.forEach((date, day) -> versions.put(date, day.version()));
+        Map<LocalDate, List<Long>> userIds = new HashMap<>();
+        for (Object[] row : spacesRepository.findDateAndUserIdByDateIn(versions.keySet())) {
+            userIds.computeIfAbsent((LocalDate) row[0], date -> new ArrayList<>()).add((Long) row[1]);
+        }
+        int corrected = 0;
+        for (Map.Entry<LocalDate, Long> version : versions.entrySet()) {
+            Day day = days.get(version.getKey());
+            if (day == null) {
+                continue;
+            }
+            if (day.reset(version.getValue(), userIds.getOrDefault(version.getKey(), List.of()))) {
+                spaceAvailabilityService.evict(version.getKey());
+                corrected++;
+            }
+            if (day.booked.get() > capacity.getCapacity(version.getKey())) {
+                log.warn(
+                    "{} has {} spaces booked, over its capacity of {}",
+                    version.getKey(),
+                    day.booked.get(),
+                    capacity.getCapacity(version.getKey())
+                );
+            }
+        }
+        if (corrected > 0) {
+            log.info("Corrected the bookings of {} of {} days", corrected, versions.size());
+        }
+        return corrected;
+    }
+
+    private static Long userIdOf(Spaces spaces) {
+        return spaces.getUser() == null ? null : spaces.getUser().getId();
+    }
+
+    /**
+     * The bookings of a day. The number of booked spaces is read without lock, every change holds the day's monitor.
+     */
+    private static final class Day {
+
+        private final AtomicInteger booked = new AtomicInteger();
+
+        /**
+         * The ids of the users holding a space, committed or not.
+         */
+        private final BitSet users = new BitSet();
+
+        /**
+         * The number of admitted bookings not committed yet.
+         */
+        private int pending;
+
+        /**
+         * Incremented on every change, to detect the changes made while the day is read from the database.
+         */
+        private long version;
+
+        synchronized void admit(Long userId, int capacity) {
+            if (userId != null && users.get(index(userId))) {
+                throw new SpaceAlreadyBookedException();
+            }
+            if (booked.get() >= capacity) {
+                throw new SpaceFullException();
+            }
+            if (userId != null) {
+                users.set(index(userId));
+            }
+            booked.incrementAndGet();
+            pending++;
+            version++;
+        }
+
+        synchronized void commit() {
+            pending--;
+            version++;
+        }
+
+        synchronized void rollback(Long userId) {
+            pending--;
+            release(userId);
+        }
+
+        synchronized void release(Long userId) {
+            if (userId != null) {
+                users.clear(index(userId));
+            }
+            if (booked.get() > 0) {
+                booked.decrementAndGet();
+            }
+            version++;
+        }
+
+        synchronized long version() {
+            return version;
+        }
+
+        /**
+         * Replace the bookings with the spaces read from the database, unless the day changed since they were read.
+         *
+         * @return {@code true} if the bookings were corrected.
+         */
+        synchronized boolean reset(long expectedVersion, List<Long> userIds) {
+            if (version != expectedVersion || pending > 0) {
+                return false;
+            }
+            BitSet actual = new BitSet();
+            userIds.stream().filter(userId -> userId != null).forEach(userId -> actual.set(index(userId)));
+            if (actual.equals(users) && booked.get() == userIds.size()) {
+                return false;
+            }
+            users.clear();
+            users.or(actual);
+            booked.set(userIds.size());
+            version++;
+            return true;
+        }
+
+        private static int index(Long userId) {
+            return Math.toIntExact(userId);
+        }
+    }
+}
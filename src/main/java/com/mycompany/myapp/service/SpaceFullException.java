@@ -0,0 +1,10 @@
+package com.mycompany.myapp.service;
+
+public class SpaceFullException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SpaceFullException() {
+        super("No space is left on this day!");
+    }
+}
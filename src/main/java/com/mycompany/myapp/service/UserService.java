@@ -7,6 +7,7 @@ import com.mycompany.myapp.repository.AuthorityRepository;
 import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.security.AuthoritiesConstants;
 import com.mycompany.myapp.security.SecurityUtils;
+import com.mycompany.myapp.security.jwt.TokenRevocationStore;
 import com.mycompany.myapp.service.dto.AdminUserDTO;
 import com.mycompany.myapp.service.dto.UserDTO;
 import java.time.Instant;
@@ -15,6 +16,7 @@ import java.util.*;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -38,10 +40,22 @@ public class UserService {
 
     private final AuthorityRepository authorityRepository;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthorityRepository authorityRepository) {
+    private final CacheManager cacheManager;
+
+    private final TokenRevocationStore tokenRevocationStore;
+
+    public UserService(
+        UserRepository userRepository,
+        PasswordEncoder passwordEncoder,
+        AuthorityRepository authorityRepository,
+        CacheManager cacheManager,
+        TokenRevocationStore tokenRevocationStore
+    ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authorityRepository = authorityRepository;
+        this.cacheManager = cacheManager;
+        this.tokenRevocationStore = tokenRevocationStore;
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -66,6 +80,7 @@ public class UserService {
                 user.setPassword(passwordEncoder.encode(newPassword));
                 user.setResetKey(null);
                 user.setResetDate(null);
+                tokenRevocationStore.revokeAll(user.getLogin());
                 return user;
             });
     }
@@ -128,6 +143,7 @@ public class UserService {
         }
         userRepository.delete(existingUser);
         userRepository.flush();
+        clearUserCaches(existingUser);
         return true;
     }
 
@@ -177,6 +193,10 @@ public class UserService {
             .filter(Optional::isPresent)
             .map(Optional::get)
             .map(user -> {
+                clearUserCaches(user);
+                if (user.isActivated() && !userDTO.isActivated()) {
+                    tokenRevocationStore.revokeAll(user.getLogin());
+                }
                 user.setLogin(userDTO.getLogin().toLowerCase());
                 user.setFirstName(userDTO.getFirstName());
                 user.setLastName(userDTO.getLastName());
@@ -206,6 +226,8 @@ public class UserService {
             .findOneByLogin(login)
             .ifPresent(user -> {
                 userRepository.delete(user);
+                clearUserCaches(user);
+                tokenRevocationStore.revokeAll(user.getLogin());
                 log.debug("Deleted User: {}", user);
             });
     }
@@ -247,6 +269,7 @@ public class UserService {
                 }
                 String encryptedPassword = passwordEncoder.encode(newPassword);
                 user.setPassword(encryptedPassword);
+                tokenRevocationStore.revokeAll(user.getLogin());
                 log.debug("Changed password for User: {}", user);
             });
     }
@@ -283,6 +306,7 @@ public class UserService {
             .forEach(user -> {
                 log.debug("Deleting not activated user {}", user.getLogin());
                 userRepository.delete(user);
+                clearUserCaches(user);
             });
     }
 
@@ -294,4 +318,15 @@ public class UserService {
     public List<String> getAuthorities() {
         return authorityRepository.findAll().stream().map(Authority::getName).collect(Collectors.toList());
     }
+
+    /**
+     * Evict the cached id of a user now and once the change is committed, so that a request reading the user before the
+     * commit cannot leave a stale id cached.
+     */
+    private void clearUserCaches(User user) {
+        String login = user.getLogin();
+        Runnable evict = () -> Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_ID_BY_LOGIN_CACHE)).evict(login);
+        evict.run();
+        AfterCommit.run(evict);
+    }
 }
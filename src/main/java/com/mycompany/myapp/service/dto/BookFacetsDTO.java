@@ -0,0 +1,88 @@
+package com.mycompany.myapp.service.dto;
+
+import java.util.List;
+
+/**
+ * A DTO representing the facet counts of the book catalog.
+ */
+public class BookFacetsDTO {
+
+    private final Long categoryId;
+
+    private final long total;
+
+    private final List<FacetCount> categories;
+
+    private final List<FacetCount> authors;
+
+    private final List<FacetCount> publishers;
+
+    public BookFacetsDTO(Long categoryId, long total, List<FacetCount> categories, List<FacetCount> authors, List<FacetCount> publishers) {
+        this.categoryId = categoryId;
+        this.total = total;
+        this.categories = categories;
+        this.authors = authors;
+        this.publishers = publishers;
+    }
+
+    /**
+     * @return the category the counts are restricted to, or {@code null} for the whole catalog.
+     */
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public List<FacetCount> getCategories() {
+        return categories;
+    }
+
+    public List<FacetCount> getAuthors() {
+        return authors;
+    }
+
+    public List<FacetCount> getPublishers() {
+        return publishers;
+    }
+
+    @Override
+    public String toString() {
+        return "BookFacetsDTO{" + "categoryId=" + categoryId + ", total=" + total + "}";
+    }
+
+    /**
+     * The number of books sharing a facet value.
+     */
+    public static class FacetCount {
+
+        private final Long id;
+
+        private final String value;
+
+        private final long count;
+
+        public FacetCount(Long id, String value, long count) {
+            this.id = id;
+            this.value = value;
+            this.count = count;
+        }
+
+        /**
+         * @return the id of the category, or {@code null} for author and publisher facets.
+         */
+        public Long getId() {
+            return id;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
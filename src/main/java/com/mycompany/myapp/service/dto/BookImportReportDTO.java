@@ -0,0 +1,113 @@
+package com.mycompany.myapp.service.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing the outcome of a bulk book import.
+ */
+public class BookImportReportDTO {
+
+    /**
+     * At most this many row errors are reported; further rejected rows are only counted.
+     */
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    private long rowsRead;
+
+    private long rowsImported;
+
+    private long rowsRejected;
+
+    private long durationMillis;
+
+    private final List<RowError> errors = new ArrayList<>();
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    public void setRowsImported(long rowsImported) {
+        this.rowsImported = rowsImported;
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    public void setRowsRejected(long rowsRejected) {
+        this.rowsRejected = rowsRejected;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return durationMillis == 0 ? rowsImported : rowsImported * 1000.0 / durationMillis;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Record a rejected row.
+     *
+     * @param line the line number of the row in the uploaded file.
+     * @param message why the row was rejected.
+     */
+    public void reject(long line, String message) {
+        rowsRejected++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(line, message));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return (
+            "BookImportReportDTO{" +
+            "rowsRead=" + rowsRead +
+            ", rowsImported=" + rowsImported +
+            ", rowsRejected=" + rowsRejected +
+            ", durationMillis=" + durationMillis +
+            "}"
+        );
+    }
+
+    /**
+     * A row that could not be imported.
+     */
+    public static class RowError {
+
+        private final long line;
+
+        private final String message;
+
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.mycompany.myapp.service.dto;
+
+/**
+ * A DTO representing a typeahead suggestion for the book catalog.
+ */
+public class BookSuggestionDTO {
+
+    /**
+     * The book field a suggestion completes.
+     */
+    public enum Field {
+        TITLE,
+        AUTHOR,
+    }
+
+    private final String value;
+
+    private final Field field;
+
+    private final long weight;
+
+    public BookSuggestionDTO(String value, Field field, long weight) {
+        this.value = value;
+        this.field = field;
+        this.weight = weight;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * @return the popularity of the suggestion: the number of books with this value, plus the number of times they were borrowed.
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return "BookSuggestionDTO{" + "value='" + value + "'" + ", field=" + field + ", weight=" + weight + "}";
+    }
+}
@@ -0,0 +1,117 @@
+package com.mycompany.myapp.service.dto;
+
+import java.time.LocalDate;
+
+/**
+ * A DTO representing one operation of a batch of checkouts and returns.
+ */
+public class CirculationOperationDTO {
+
+    public enum Type {
+        CHECKOUT,
+        RETURN,
+    }
+
+    private Type type;
+
+    private Long bookId;
+
+    private Long userId;
+
+    private LocalDate dueDate;
+
+    private Long borrowingId;
+
+    public CirculationOperationDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    /**
+     * @param bookId the id of the book to check out.
+     * @param userId the id of the borrowing user, may be {@code null}.
+     * @return a checkout operation, due after the loan period.
+     */
+    public static CirculationOperationDTO checkout(Long bookId, Long userId) {
+        CirculationOperationDTO operation = new CirculationOperationDTO();
+        operation.setType(Type.CHECKOUT);
+        operation.setBookId(bookId);
+        operation.setUserId(userId);
+        return operation;
+    }
+
+    /**
+     * @param borrowingId the id of the borrowing to return.
+     * @return a return operation.
+     */
+    public static CirculationOperationDTO checkin(Long borrowingId) {
+        CirculationOperationDTO operation = new CirculationOperationDTO();
+        operation.setType(Type.RETURN);
+        operation.setBorrowingId(borrowingId);
+        return operation;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    /**
+     * @return the id of the book to check out.
+     */
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public void setBookId(Long bookId) {
+        this.bookId = bookId;
+    }
+
+    /**
+     * @return the id of the user checking out the book, may be {@code null}.
+     */
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * @return the due date of the checkout, or {@code null} for the default loan period.
+     */
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(LocalDate dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    /**
+     * @return the id of the borrowing to return.
+     */
+    public Long getBorrowingId() {
+        return borrowingId;
+    }
+
+    public void setBorrowingId(Long borrowingId) {
+        this.borrowingId = borrowingId;
+    }
+
+    @Override
+    public String toString() {
+        return (
+            "CirculationOperationDTO{" +
+            "type=" + type +
+            ", bookId=" + bookId +
+            ", userId=" + userId +
+            ", dueDate=" + dueDate +
+            ", borrowingId=" + borrowingId +
+            "}"
+        );
+    }
+}
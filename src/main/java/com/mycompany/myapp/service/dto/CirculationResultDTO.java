@@ -0,0 +1,56 @@
+package com.mycompany.myapp.service.dto;
+
+import com.mycompany.myapp.domain.Borrowing;
+
+/**
+ * A DTO representing the outcome of one operation of a batch of checkouts and returns.
+ */
+public class CirculationResultDTO {
+
+    private final CirculationOperationDTO.Type type;
+
+    private final Borrowing borrowing;
+
+    private final String error;
+
+    private CirculationResultDTO(CirculationOperationDTO.Type type, Borrowing borrowing, String error) {
+        this.type = type;
+        this.borrowing = borrowing;
+        this.error = error;
+    }
+
+    public static CirculationResultDTO succeeded(CirculationOperationDTO.Type type, Borrowing borrowing) {
+        return new CirculationResultDTO(type, borrowing, null);
+    }
+
+    public static CirculationResultDTO failed(CirculationOperationDTO.Type type, String error) {
+        return new CirculationResultDTO(type, null, error);
+    }
+
+    public CirculationOperationDTO.Type getType() {
+        return type;
+    }
+
+    public boolean isSucceeded() {
+        return error == null;
+    }
+
+    /**
+     * @return the created or returned borrowing, if the operation succeeded.
+     */
+    public Borrowing getBorrowing() {
+        return borrowing;
+    }
+
+    /**
+     * @return the error key, such as {@code bookunavailable} or {@code alreadyreturned}, if the operation failed.
+     */
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "CirculationResultDTO{" + "type=" + type + ", borrowing=" + (borrowing == null ? null : borrowing.getId()) + ", error='" + error + "'" + "}";
+    }
+}
@@ -0,0 +1,159 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A DTO representing the circulation statistics of a period: loans per day, week and month, the most borrowed books
+ * and the loans of each category.
+ */
+public class CirculationStatsDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final LocalDate from;
+
+    private final LocalDate to;
+
+    private final long total;
+
+    private final List<PeriodCount> days;
+
+    private final List<PeriodCount> weeks;
+
+    private final List<PeriodCount> months;
+
+    private final List<RankCount> topBooks;
+
+    private final List<RankCount> categories;
+
+    public CirculationStatsDTO(
+        LocalDate from,
+        LocalDate to,
+        long total,
+        List<PeriodCount> days,
+        List<PeriodCount> weeks,
+        List<PeriodCount> months,
+        List<RankCount> topBooks,
+        List<RankCount> categories
+    ) {
+        this.from = from;
+        this.to = to;
+        this.total = total;
+        this.days = days;
+        this.weeks = weeks;
+        this.months = months;
+        this.topBooks = topBooks;
+        this.categories = categories;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return the loans of each day with loans.
+     */
+    public List<PeriodCount> getDays() {
+        return days;
+    }
+
+    /**
+     * @return the loans of each week with loans, starting on Monday.
+     */
+    public List<PeriodCount> getWeeks() {
+        return weeks;
+    }
+
+    /**
+     * @return the loans of each month with loans, starting on the first day of the month.
+     */
+    public List<PeriodCount> getMonths() {
+        return months;
+    }
+
+    public List<RankCount> getTopBooks() {
+        return topBooks;
+    }
+
+    public List<RankCount> getCategories() {
+        return categories;
+    }
+
+    @Override
+    public String toString() {
+        return "CirculationStatsDTO{" + "from=" + from + ", to=" + to + ", total=" + total + "}";
+    }
+
+    /**
+     * The number of loans of a day, week or month.
+     */
+    public static class PeriodCount implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final LocalDate start;
+
+        private final long loans;
+
+        public PeriodCount(LocalDate start, long loans) {
+            this.start = start;
+            this.loans = loans;
+        }
+
+        /**
+         * @return the first day of the period.
+         */
+        public LocalDate getStart() {
+            return start;
+        }
+
+        public long getLoans() {
+            return loans;
+        }
+    }
+
+    /**
+     * The number of loans of a book or category.
+     */
+    public static class RankCount implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Long id;
+
+        private final String name;
+
+        private final long loans;
+
+        public RankCount(Long id, String name, long loans) {
+            this.id = id;
+            this.name = name;
+            this.loans = loans;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        /**
+         * @return the title of the book, or the name of the category.
+         */
+        public String getName() {
+            return name;
+        }
+
+        public long getLoans() {
+            return loans;
+        }
+    }
+}
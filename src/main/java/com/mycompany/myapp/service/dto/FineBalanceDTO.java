@@ -0,0 +1,32 @@
+package com.mycompany.myapp.service.dto;
+
+/**
+ * A DTO representing the fines a user owes.
+ */
+public class FineBalanceDTO {
+
+    private final String login;
+
+    private final int balance;
+
+    public FineBalanceDTO(String login, int balance) {
+        this.login = login;
+        this.balance = balance;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+
+    /**
+     * @return the sum of the fines of the borrowings of the user.
+     */
+    public int getBalance() {
+        return balance;
+    }
+
+    @Override
+    public String toString() {
+        return "FineBalanceDTO{" + "login='" + login + "'" + ", balance=" + balance + "}";
+    }
+}
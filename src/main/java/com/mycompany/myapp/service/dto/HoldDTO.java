@@ -0,0 +1,102 @@
+package com.mycompany.myapp.service.dto;
+
+import java.time.Instant;
+
+/**
+ * A DTO representing a hold on a book, with its place in the queue of the book.
+ */
+public class HoldDTO {
+
+    private Long id;
+
+    private Long bookId;
+
+    private String login;
+
+    private Instant placedDate;
+
+    private Instant readyDate;
+
+    private Integer position;
+
+    public HoldDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public HoldDTO(Long id, Long bookId, String login, Instant placedDate, Instant readyDate, Integer position) {
+        this.id = id;
+        this.bookId = bookId;
+        this.login = login;
+        this.placedDate = placedDate;
+        this.readyDate = readyDate;
+        this.position = position;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public void setBookId(Long bookId) {
+        this.bookId = bookId;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+
+    public void setLogin(String login) {
+        this.login = login;
+    }
+
+    public Instant getPlacedDate() {
+        return placedDate;
+    }
+
+    public void setPlacedDate(Instant placedDate) {
+        this.placedDate = placedDate;
+    }
+
+    /**
+     * @return when a copy was put aside for the hold, or {@code null} while it is waiting.
+     */
+    public Instant getReadyDate() {
+        return readyDate;
+    }
+
+    public void setReadyDate(Instant readyDate) {
+        this.readyDate = readyDate;
+    }
+
+    /**
+     * @return the place of the hold among the waiting holds of the book, from {@code 1}, or {@code null} once it is ready.
+     */
+    public Integer getPosition() {
+        return position;
+    }
+
+    public void setPosition(Integer position) {
+        this.position = position;
+    }
+
+    @Override
+    public String toString() {
+        return (
+            "HoldDTO{" +
+            "id=" + id +
+            ", bookId=" + bookId +
+            ", login='" + login + "'" +
+            ", placedDate=" + placedDate +
+            ", readyDate=" + readyDate +
+            ", position=" + position +
+            "}"
+        );
+    }
+}
@@ -0,0 +1,41 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * A DTO representing the number of booked and free study spaces of a day.
+ */
+public class SpaceAvailabilityDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final LocalDate date;
+
+    private final int booked;
+
+    private final int free;
+
+    public SpaceAvailabilityDTO(LocalDate date, int booked, int free) {
+        this.date = date;
+        this.booked = booked;
+        this.free = free;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public int getBooked() {
+        return booked;
+    }
+
+    public int getFree() {
+        return free;
+    }
+
+    @Override
+    public String toString() {
+        return "SpaceAvailabilityDTO{" + "date=" + date + ", booked=" + booked + ", free=" + free + "}";
+    }
+}
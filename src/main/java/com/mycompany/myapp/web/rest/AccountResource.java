@@ -3,9 +3,11 @@ package com.mycompany.myapp.web.rest;
 import com.mycompany.myapp.domain.User;
 import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.security.SecurityUtils;
+import com.mycompany.myapp.service.FineBalanceService;
 import com.mycompany.myapp.service.MailService;
 import com.mycompany.myapp.service.UserService;
 import com.mycompany.myapp.service.dto.AdminUserDTO;
+import com.mycompany.myapp.service.dto.FineBalanceDTO;
 import com.mycompany.myapp.service.dto.PasswordChangeDTO;
 import com.mycompany.myapp.web.rest.errors.*;
 import com.mycompany.myapp.web.rest.vm.KeyAndPasswordVM;
@@ -41,10 +43,18 @@ public class AccountResource {
 
     private final MailService mailService;
 
-    public AccountResource(UserRepository userRepository, UserService userService, MailService mailService) {
+    private final FineBalanceService fineBalanceService;
+
+    public AccountResource(
+        UserRepository userRepository,
+        UserService userService,
+        MailService mailService,
+        FineBalanceService fineBalanceService
+    ) {
         this.userRepository = userRepository;
         this.userService = userService;
         this.mailService = mailService;
+        this.fineBalanceService = fineBalanceService;
     }
 
     /**
@@ -105,6 +115,23 @@ public class AccountResource {
             .orElseThrow(() -> new AccountResourceException("User could not be found"));
     }
 
+    /**
+     * {@code GET  /account/fines} : get the fines the current user owes.
+     *
+     * @return the fine balance of the current user.
+     * @throws RuntimeException {@code 500 (Internal Server Error)} if the user couldn't be found.
+     */
+    @GetMapping("/account/fines")
+    public FineBalanceDTO getAccountFines() {
+        String userLogin = SecurityUtils
+            .getCurrentUserLogin()
+            .orElseThrow(() -> new AccountResourceException("Current user login not found"));
+        return userRepository
+            .findOneByLogin(userLogin)
+            .map(user -> new FineBalanceDTO(user.getLogin(), fineBalanceService.getBalance(user.getId())))
+            .orElseThrow(() -> new AccountResourceException("User could not be found"));
+    }
+
     /**
      * {@code POST  /account} : update the current user information.
      *
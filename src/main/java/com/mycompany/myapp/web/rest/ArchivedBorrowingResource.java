@@ -0,0 +1,83 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.domain.ArchivedBorrowing;
+import com.mycompany.myapp.repository.ArchivedBorrowingRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.security.SecurityUtils;
+import java.util.List;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import tech.jhipster.web.util.PaginationUtil;
+import tech.jhipster.web.util.ResponseUtil;
+
+/**
+ * REST controller for reading {@link com.mycompany.myapp.domain.ArchivedBorrowing}, the borrowings returned long ago.
+ * <p>
+ * The archive is read-only: borrowings are only added to it by the archival job. Users can only read their own.
+ */
+@RestController
+@RequestMapping("/api")
+@Transactional(readOnly = true)
+public class ArchivedBorrowingResource {
+
+    private final Logger log = LoggerFactory.getLogger(ArchivedBorrowingResource.class);
+
+    private final ArchivedBorrowingRepository archivedBorrowingRepository;
+
+    private final UserRepository userRepository;
+
+    public ArchivedBorrowingResource(ArchivedBorrowingRepository archivedBorrowingRepository, UserRepository userRepository) {
+        this.archivedBorrowingRepository = archivedBorrowingRepository;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * {@code GET  /archived-borrowings} : get the archived borrowings, all of them for admins, the user's own otherwise.
+     *
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of archived borrowings in body.
+     */
+    @GetMapping("/archived-borrowings")
+    public ResponseEntity<List<ArchivedBorrowing>> getAllArchivedBorrowings(Pageable pageable) {
+        log.debug("REST request to get a page of ArchivedBorrowings");
+        Page<ArchivedBorrowing> page;
+        if (SecurityUtils.hasCurrentUserThisAuthority(AuthoritiesConstants.ADMIN)) {
+            page = archivedBorrowingRepository.findAll(pageable);
+        } else {
+            Optional<Long> userId = SecurityUtils.getCurrentUserLogin().flatMap(userRepository::findIdByLogin);
+            if (userId.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+            page = archivedBorrowingRepository.findByUserId(userId.get(), pageable);
+        }
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /archived-borrowings/:id} : get the "id" archived borrowing.
+     *
+     * @param id the id the borrowing had before it was archived.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the archived borrowing,
+     * or with status {@code 404 (Not Found)} if it does not exist or belongs to another user.
+     */
+    @GetMapping("/archived-borrowings/{id}")
+    public ResponseEntity<ArchivedBorrowing> getArchivedBorrowing(@PathVariable Long id) {
+        log.debug("REST request to get ArchivedBorrowing : {}", id);
+        if (SecurityUtils.hasCurrentUserThisAuthority(AuthoritiesConstants.ADMIN)) {
+            return ResponseUtil.wrapOrNotFound(archivedBorrowingRepository.findById(id));
+        }
+        Optional<Long> userId = SecurityUtils.getCurrentUserLogin().flatMap(userRepository::findIdByLogin);
+        return ResponseUtil.wrapOrNotFound(userId.flatMap(user -> archivedBorrowingRepository.findByIdAndUserId(id, user)));
+    }
+}
@@ -2,22 +2,47 @@ package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Book;
 import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.KeysetCursor;
+import com.mycompany.myapp.repository.KeysetSlice;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.service.BookFacetService;
+import com.mycompany.myapp.service.BookImportService;
+import com.mycompany.myapp.service.BookSearchService;
+import com.mycompany.myapp.service.BookSuggestService;
+import com.mycompany.myapp.service.ExportService;
+import com.mycompany.myapp.service.HoldService;
+import com.mycompany.myapp.service.dto.BookFacetsDTO;
+import com.mycompany.myapp.service.dto.BookImportReportDTO;
+import com.mycompany.myapp.service.dto.BookSuggestionDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.ETagUtil;
+import com.mycompany.myapp.web.rest.util.ExpandUtil;
+import com.mycompany.myapp.web.rest.util.ExportUtil;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import javax.persistence.EntityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -35,13 +60,45 @@ public class BookResource {
 
     private static final String ENTITY_NAME = "book";
 
+    private static final Set<String> EXPANDABLE = Set.of("category");
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final BookRepository bookRepository;
 
-    public BookResource(BookRepository bookRepository) {
+    private final BookSearchService bookSearchService;
+
+    private final BookFacetService bookFacetService;
+
+    private final BookSuggestService bookSuggestService;
+
+    private final BookImportService bookImportService;
+
+    private final ExportService exportService;
+
+    private final HoldService holdService;
+
+    private final EntityManager entityManager;
+
+    public BookResource(
+        BookRepository bookRepository,
+        BookSearchService bookSearchService,
+        BookFacetService bookFacetService,
+        BookSuggestService bookSuggestService,
+        BookImportService bookImportService,
+        ExportService exportService,
+        HoldService holdService,
+        EntityManager entityManager
+    ) {
         this.bookRepository = bookRepository;
+        this.bookSearchService = bookSearchService;
+        this.bookFacetService = bookFacetService;
+        this.bookSuggestService = bookSuggestService;
+        this.bookImportService = bookImportService;
+        this.exportService = exportService;
+        this.holdService = holdService;
+        this.entityManager = entityManager;
     }
 
     /**
@@ -58,14 +115,58 @@ public class BookResource {
             throw new BadRequestAlertException("A new book cannot already have an ID", ENTITY_NAME, "idexists");
         }
         Book result = bookRepository.save(book);
+        bookSearchService.index(result);
+        bookFacetService.index(result);
+        bookSuggestService.index(result);
         return ResponseEntity
             .created(new URI("/api/books/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
             .body(result);
     }
 
+    /**
+     * {@code POST  /books/_import} : Import books in bulk from CSV, in the layout of the book fake data.
+     * <p>
+     * Rows are committed in chunks as they are read, so rows imported before an error stay imported.
+     *
+     * @param body the CSV content.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the import report,
+     * or with status {@code 400 (Bad Request)} if the CSV header is invalid.
+     * @throws IOException if the request body cannot be read.
+     */
+    @PostMapping(value = "/books/_import", consumes = "text/csv")
+    @PreAuthorize("hasRole(\"" + AuthoritiesConstants.ADMIN + "\")")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<BookImportReportDTO> importBooksFromCsv(InputStream body) throws IOException {
+        log.debug("REST request to import Books from CSV");
+        try {
+            return ResponseEntity.ok(bookImportService.importCsv(body));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "importinvalid");
+        }
+    }
+
+    /**
+     * {@code POST  /books/_import} : Import books in bulk from NDJSON, one book per line.
+     * <p>
+     * Rows are committed in chunks as they are read, so rows imported before an error stay imported.
+     *
+     * @param body the NDJSON content.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the import report.
+     * @throws IOException if the request body cannot be read.
+     */
+    @PostMapping(value = "/books/_import", consumes = "application/x-ndjson")
+    @PreAuthorize("hasRole(\"" + AuthoritiesConstants.ADMIN + "\")")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<BookImportReportDTO> importBooksFromNdjson(InputStream body) throws IOException {
+        log.debug("REST request to import Books from NDJSON");
+        return ResponseEntity.ok(bookImportService.importNdjson(body));
+    }
+
     /**
      * {@code PUT  /books/:id} : Updates an existing book.
+     * <p>
+     * Copies added by raising the quantity are reserved for the waiting holds on the book first.
      *
      * @param id the id of the book to save.
      * @param book the book to update.
@@ -88,8 +189,17 @@ public class BookResource {
         if (!bookRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        // The book is locked first, as when returning a copy, so that the copies added are served to the holds
+        Integer previousQuantity = bookRepository.findQuantityForUpdate(id).orElse(null);
+        if (book.getVersion() == null) {
+            // Clients that do not send the version overwrite the current one
+            bookRepository.findVersionById(id).ifPresent(book::setVersion);
+        }
 
-        Book result = bookRepository.save(book);
+        Book result = serveAddedCopies(bookRepository.saveAndFlush(book), previousQuantity);
+        bookSearchService.index(result);
+        bookFacetService.index(result);
+        bookSuggestService.index(result);
         return ResponseEntity
             .ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, book.getId().toString()))
@@ -98,6 +208,8 @@ public class BookResource {
 
     /**
      * {@code PATCH  /books/:id} : Partial updates given fields of an existing book, field will ignore if it is null
+     * <p>
+     * Copies added by raising the quantity are reserved for the waiting holds on the book first.
      *
      * @param id the id of the book to save.
      * @param book the book to update.
@@ -121,6 +233,7 @@ public class BookResource {
         if (!bookRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        Integer previousQuantity = bookRepository.findQuantityForUpdate(id).orElse(null);
 
         Optional<Book> result = bookRepository
             .findById(book.getId())
@@ -143,7 +256,11 @@ public class BookResource {
 
                 return existingBook;
             })
-            .map(bookRepository::save);
+            .map(bookRepository::saveAndFlush)
+            .map(saved -> serveAddedCopies(saved, previousQuantity));
+        result.ifPresent(bookSearchService::index);
+        result.ifPresent(bookFacetService::index);
+        result.ifPresent(bookSuggestService::index);
 
         return ResponseUtil.wrapOrNotFound(
             result,
@@ -151,16 +268,147 @@ public class BookResource {
         );
     }
 
+    /**
+     * Reserve the copies an update added to a book for its waiting holds, as if they were returned.
+     * <p>
+     * The book row must have been locked before the update, when its previous quantity was read.
+     *
+     * @param book the updated book, flushed.
+     * @param previousQuantity the quantity of the book before the update.
+     * @return the book, read back if copies were reserved so that it carries their quantity and version.
+     */
+    private Book serveAddedCopies(Book book, Integer previousQuantity) {
+        int added = (book.getQuantity() == null ? 0 : book.getQuantity()) - (previousQuantity == null ? 0 : previousQuantity);
+        if (added > 0 && holdService.serve(book.getId(), added) > 0) {
+            entityManager.refresh(book);
+        }
+        return book;
+    }
+
     /**
      * {@code GET  /books} : get all the books.
+     * <p>
+     * When {@code after} is given, the books are paginated by cursor: an empty {@code after} reads the first page, and the
+     * {@code Link} header carries the cursor on the next one. No total count is computed in that mode.
+     * <p>
+     * Otherwise the page carries an ETag, and a request whose {@code If-None-Match} matches the current page is answered
+     * from the book versions alone.
+     * <p>
+     * The category of each book is only serialized with its id, unless {@code expand=category} is given.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of books in body.
+     * @param after the cursor returned with the previous page, if paginating by cursor.
+     * @param expand the associations to fetch with the books, {@code category} or none.
+     * @param ifNoneMatch the ETag of the page the client already has, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of books in body,
+     * or with status {@code 304 (Not Modified)} if the page has not changed.
      */
     @GetMapping("/books")
-    public ResponseEntity<List<Book>> getAllBooks(Pageable pageable) {
+    public ResponseEntity<List<Book>> getAllBooks(
+        Pageable pageable,
+        @RequestParam(value = KeysetPaginationUtil.AFTER_PARAMETER, required = false) String after,
+        @RequestParam(value = ExpandUtil.EXPAND_PARAMETER, required = false) String expand,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get a page of Books");
-        Page<Book> page = bookRepository.findAll(pageable);
+        Set<String> associations = ExpandUtil.parseExpand(expand, ENTITY_NAME, EXPANDABLE);
+        if (after != null) {
+            KeysetCursor cursor = toCursor(after, pageable);
+            KeysetSlice<Book> slice;
+            try {
+                slice = bookRepository.findAllAfter(cursor, pageable.getPageSize(), associations);
+            } catch (IllegalArgumentException | InvalidDataAccessApiUsageException e) {
+                throw new BadRequestAlertException("Invalid cursor sort", ENTITY_NAME, "cursorinvalid");
+            }
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                slice
+            );
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
+        // Read from the versions projection, as the categories of the page are not loaded unless expanded
+        String etag = null;
+        if (ifNoneMatch != null) {
+            etag = ETagUtil.generateETag(ENTITY_NAME, bookRepository.findAllVersions(pageable), bookRepository.count(), associations);
+            if (ETagUtil.matches(ifNoneMatch, etag)) {
+                return ETagUtil.notModified(etag);
+            }
+        }
+        Page<Book> page = bookRepository.findAll(pageable, associations);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        if (etag == null) {
+            etag = ETagUtil.generateETag(ENTITY_NAME, bookRepository.findAllVersions(pageable), page.getTotalElements(), associations);
+        }
+        return ResponseEntity.ok().headers(headers).eTag(etag).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /books/_export} : export all the books, for audits.
+     *
+     * @param format the export format, {@code ndjson} (the default) or {@code csv}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the books streamed in body,
+     * or with status {@code 400 (Bad Request)} if the format is not supported.
+     */
+    @GetMapping("/books/_export")
+    @PreAuthorize("hasRole(\"" + AuthoritiesConstants.ADMIN + "\")")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<StreamingResponseBody> exportBooks(@RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        log.debug("REST request to export all Books as {}", format);
+        return ExportUtil.createExportResponse(ENTITY_NAME, "books", format, exportService::exportBooks);
+    }
+
+    /**
+     * {@code GET  /books/facets} : get the number of books per category, author and publisher.
+     *
+     * @param categoryId the id of the category to restrict the counts to, if any.
+     * @param size the maximum number of values returned per facet.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the facet counts in body, largest first.
+     */
+    @GetMapping("/books/facets")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<BookFacetsDTO> getBookFacets(
+        @RequestParam(value = "categoryId", required = false) Long categoryId,
+        @RequestParam(value = "size", defaultValue = "10") int size
+    ) {
+        log.debug("REST request to get Book facets for category {}", categoryId);
+        if (size < 1) {
+            throw new BadRequestAlertException("Invalid facet size", ENTITY_NAME, "sizeinvalid");
+        }
+        return ResponseEntity.ok(bookFacetService.getFacets(categoryId, size));
+    }
+
+    /**
+     * {@code GET  /books/_suggest?prefix=:prefix} : suggest book titles and authors completing what the user typed.
+     *
+     * @param prefix the start of a word of the title or author.
+     * @param size the maximum number of suggestions.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the suggestions in body, most popular first,
+     * or with status {@code 400 (Bad Request)} if the size is not positive.
+     */
+    @GetMapping("/books/_suggest")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<List<BookSuggestionDTO>> suggestBooks(
+        @RequestParam("prefix") String prefix,
+        @RequestParam(value = "size", defaultValue = "" + BookSuggestService.MAX_SUGGESTIONS) int size
+    ) {
+        log.debug("REST request to suggest Books for prefix {}", prefix);
+        if (size < 1) {
+            throw new BadRequestAlertException("Invalid suggestion size", ENTITY_NAME, "sizeinvalid");
+        }
+        return ResponseEntity.ok(bookSuggestService.suggest(prefix, size));
+    }
+
+    /**
+     * {@code SEARCH  /_search/books?q=:query} : search for the books corresponding to the query.
+     *
+     * @param query the query of the book search.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of books in body, best matches first.
+     */
+    @GetMapping("/_search/books")
+    public ResponseEntity<List<Book>> searchBooks(@RequestParam("q") String query, Pageable pageable) {
+        log.debug("REST request to search for a page of Books for query {}", query);
+        Page<Book> page = bookSearchService.search(query, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
@@ -169,13 +417,30 @@ public class BookResource {
      * {@code GET  /books/:id} : get the "id" book.
      *
      * @param id the id of the book to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the book, or with status {@code 404 (Not Found)}.
+     * @param expand the associations to fetch with the book, {@code category} or none.
+     * @param ifNoneMatch the ETag of the book the client already has, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the book,
+     * or with status {@code 304 (Not Modified)} if the book has not changed,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/books/{id}")
-    public ResponseEntity<Book> getBook(@PathVariable Long id) {
+    public ResponseEntity<Book> getBook(
+        @PathVariable Long id,
+        @RequestParam(value = ExpandUtil.EXPAND_PARAMETER, required = false) String expand,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get Book : {}", id);
-        Optional<Book> book = bookRepository.findById(id);
-        return ResponseUtil.wrapOrNotFound(book);
+        Set<String> associations = ExpandUtil.parseExpand(expand, ENTITY_NAME, EXPANDABLE);
+        List<Object[]> versions = bookRepository.findVersionsById(id);
+        if (versions.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        String etag = ETagUtil.generateETag(ENTITY_NAME, versions, associations);
+        if (ETagUtil.matches(ifNoneMatch, etag)) {
+            return ETagUtil.notModified(etag);
+        }
+        Optional<Book> book = bookRepository.findById(id, associations);
+        return book.map(b -> ResponseEntity.ok().eTag(etag).body(b)).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
     }
 
     /**
@@ -188,9 +453,20 @@ public class BookResource {
     public ResponseEntity<Void> deleteBook(@PathVariable Long id) {
         log.debug("REST request to delete Book : {}", id);
         bookRepository.deleteById(id);
+        bookSearchService.remove(id);
+        bookFacetService.remove(id);
+        bookSuggestService.remove(id);
         return ResponseEntity
             .noContent()
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    private KeysetCursor toCursor(String after, Pageable pageable) {
+        try {
+            return after.isEmpty() ? KeysetCursor.first(pageable.getSort()) : KeysetCursor.decode(after);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+    }
 }
@@ -1,26 +1,46 @@
 package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Borrowing;
+import com.mycompany.myapp.repository.KeysetCursor;
+import com.mycompany.myapp.repository.KeysetSlice;
 import com.mycompany.myapp.repository.BorrowingRepository;
+import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.security.AuthoritiesConstants;
 import com.mycompany.myapp.security.SecurityUtils;
+import com.mycompany.myapp.service.BookUnavailableException;
+import com.mycompany.myapp.service.BorrowingAlreadyReturnedException;
+import com.mycompany.myapp.service.CirculationService;
+import com.mycompany.myapp.service.CirculationStatsService;
+import com.mycompany.myapp.service.ExportService;
+import com.mycompany.myapp.service.FineBalanceService;
+import com.mycompany.myapp.service.dto.CirculationOperationDTO;
+import com.mycompany.myapp.service.dto.CirculationResultDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.ExportUtil;
+import com.mycompany.myapp.web.rest.util.ExpandUtil;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -38,43 +58,154 @@ public class BorrowingResource {
 
     private static final String ENTITY_NAME = "borrowing";
 
+    private static final Set<String> EXPANDABLE = Set.of("book", "user");
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final BorrowingRepository borrowingRepository;
 
-    public BorrowingResource(BorrowingRepository borrowingRepository) {
+    private final CirculationService circulationService;
+
+    private final FineBalanceService fineBalanceService;
+
+    private final ExportService exportService;
+
+    private final UserRepository userRepository;
+
+    private final CirculationStatsService circulationStatsService;
+
+    public BorrowingResource(
+        BorrowingRepository borrowingRepository,
+        CirculationService circulationService,
+        FineBalanceService fineBalanceService,
+        ExportService exportService,
+        UserRepository userRepository,
+        CirculationStatsService circulationStatsService
+    ) {
         this.borrowingRepository = borrowingRepository;
+        this.userRepository = userRepository;
+        this.circulationStatsService = circulationStatsService;
+        this.circulationService = circulationService;
+        this.fineBalanceService = fineBalanceService;
+        this.exportService = exportService;
     }
 
     /**
-     * {@code POST  /borrowings} : Create a new borrowing.
+     * {@code POST  /borrowings} : Create a new borrowing. An open borrowing of a book takes a copy from the book quantity.
      *
      * @param borrowing the borrowing to create.
-     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new borrowing, or with status {@code 400 (Bad Request)} if the borrowing has already an ID.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new borrowing,
+     * or with status {@code 400 (Bad Request)} if the borrowing has already an ID, or is open and no copy of its book is left.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping("/borrowings")
     @PreAuthorize("hasRole(\"" + AuthoritiesConstants.ADMIN + "\")")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ResponseEntity<Borrowing> createBorrowing(@RequestBody Borrowing borrowing) throws URISyntaxException {
         log.debug("REST request to save Borrowing : {}", borrowing);
         if (borrowing.getId() != null) {
             throw new BadRequestAlertException("A new borrowing cannot already have an ID", ENTITY_NAME, "idexists");
         }
-        Borrowing result = borrowingRepository.save(borrowing);
+        Borrowing result;
+        try {
+            result = circulationService.create(borrowing);
+        } catch (BookUnavailableException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "bookunavailable");
+        }
         return ResponseEntity
             .created(new URI("/api/borrowings/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
             .body(result);
     }
 
+    /**
+     * {@code POST  /borrowings/_checkout} : Check out a copy of a book, taking it from the book quantity.
+     *
+     * @param borrowing the borrowing to create, with the book to check out.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new borrowing,
+     * or with status {@code 400 (Bad Request)} if the borrowing has already an ID, has no book, or no copy of the book is left.
+     * @throws URISyntaxException if the Location URI syntax is incorrect.
+     */
+    @PostMapping("/borrowings/_checkout")
+    @PreAuthorize("hasRole(\"" + AuthoritiesConstants.ADMIN + "\")")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<Borrowing> checkoutBook(@RequestBody Borrowing borrowing) throws URISyntaxException {
+        log.debug("REST request to check out Borrowing : {}", borrowing);
+        if (borrowing.getId() != null) {
+            throw new BadRequestAlertException("A new borrowing cannot already have an ID", ENTITY_NAME, "idexists");
+        }
+        if (borrowing.getBook() == null || borrowing.getBook().getId() == null) {
+            throw new BadRequestAlertException("A checkout needs a book", ENTITY_NAME, "booknull");
+        }
+        Borrowing result;
+        try {
+            result = circulationService.checkout(borrowing);
+        } catch (BookUnavailableException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "bookunavailable");
+        }
+        return ResponseEntity
+            .created(new URI("/api/borrowings/" + result.getId()))
+            .headers(HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+            .body(result);
+    }
+
+    /**
+     * {@code POST  /borrowings/:id/_return} : Return the copy of a book held by the "id" borrowing, putting it back in the book quantity.
+     *
+     * @param id the id of the borrowing to return.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the returned borrowing,
+     * or with status {@code 400 (Bad Request)} if the borrowing was already returned,
+     * or with status {@code 404 (Not Found)} if the borrowing is not found.
+     */
+    @PostMapping("/borrowings/{id}/_return")
+    @PreAuthorize("hasRole(\"" + AuthoritiesConstants.ADMIN + "\")")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<Borrowing> returnBook(@PathVariable Long id) {
+        log.debug("REST request to return Borrowing : {}", id);
+        Optional<Borrowing> result;
+        try {
+            result = circulationService.checkin(id);
+        } catch (BorrowingAlreadyReturnedException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "alreadyreturned");
+        }
+        return ResponseUtil.wrapOrNotFound(result, HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, id.toString()));
+    }
+
+    /**
+     * {@code POST  /borrowings/_batch} : Check out and return books in a single transaction, such as the stack of books of
+     * a patron at a circulation desk.
+     * <p>
+     * An operation that cannot be executed, such as the checkout of a book with no copy left, fails with an error key in
+     * its result without failing the other operations.
+     *
+     * @param operations the checkouts and returns, at most {@link CirculationService#MAX_BATCH_SIZE}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each operation, in order,
+     * or with status {@code 400 (Bad Request)} if the batch is too large.
+     */
+    @PostMapping("/borrowings/_batch")
+    @PreAuthorize("hasRole(\"" + AuthoritiesConstants.ADMIN + "\")")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<List<CirculationResultDTO>> executeBatch(@RequestBody List<CirculationOperationDTO> operations) {
+        log.debug("REST request to execute a batch of {} circulation operations", operations.size());
+        if (operations.size() > CirculationService.MAX_BATCH_SIZE) {
+            throw new BadRequestAlertException(
+                "A batch cannot have more than " + CirculationService.MAX_BATCH_SIZE + " operations",
+                ENTITY_NAME,
+                "batchtoolarge"
+            );
+        }
+        return ResponseEntity.ok(circulationService.execute(operations));
+    }
+
     /**
      * {@code PUT  /borrowings/:id} : Updates an existing borrowing.
      *
      * @param id the id of the borrowing to save.
      * @param borrowing the borrowing to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated borrowing,
-     * or with status {@code 400 (Bad Request)} if the borrowing is not valid,
+     * or with status {@code 400 (Bad Request)} if the borrowing is not valid, or would return, reopen or change the book
+     * of a loan without moving its copy,
      * or with status {@code 500 (Internal Server Error)} if the borrowing couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -92,11 +223,17 @@ public class BorrowingResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!borrowingRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        Borrowing previous = circulationService
+            .findForUpdate(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        checkCopyUnchanged(previous, borrowing.getReturn_date(), bookIdOf(borrowing));
 
+        Long previousUserId = borrowingRepository.findUserIdById(id).orElse(null);
+        LocalDate previousDate = previous.getDate_borrowed();
+        Long previousBookId = bookIdOf(previous);
         Borrowing result = borrowingRepository.save(borrowing);
+        circulationStatsService.moveLoan(previousDate, previousBookId, result.getDate_borrowed(), bookIdOf(result));
+        fineBalanceService.recompute(Arrays.asList(previousUserId, result.getUser() == null ? null : result.getUser().getId()));
         return ResponseEntity
             .ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, borrowing.getId().toString()))
@@ -109,7 +246,8 @@ public class BorrowingResource {
      * @param id the id of the borrowing to save.
      * @param borrowing the borrowing to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated borrowing,
-     * or with status {@code 400 (Bad Request)} if the borrowing is not valid,
+     * or with status {@code 400 (Bad Request)} if the borrowing is not valid, or would return a loan without putting back
+     * its copy,
      * or with status {@code 404 (Not Found)} if the borrowing is not found,
      * or with status {@code 500 (Internal Server Error)} if the borrowing couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -132,10 +270,15 @@ public class BorrowingResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
-        Optional<Borrowing> result = borrowingRepository
-            .findById(borrowing.getId())
+        Optional<Borrowing> result = circulationService
+            .findForUpdate(borrowing.getId())
             .map(existingBorrowing -> {
+                if (borrowing.getReturn_date() != null) {
+                    checkCopyUnchanged(existingBorrowing, borrowing.getReturn_date(), bookIdOf(existingBorrowing));
+                }
                 if (borrowing.getDate_borrowed() != null) {
+                    Long bookId = bookIdOf(existingBorrowing);
+                    circulationStatsService.moveLoan(existingBorrowing.getDate_borrowed(), bookId, borrowing.getDate_borrowed(), bookId);
                     existingBorrowing.setDate_borrowed(borrowing.getDate_borrowed());
                 }
                 if (borrowing.getDue_date() != null) {
@@ -147,10 +290,16 @@ public class BorrowingResource {
                 if (borrowing.getStatus() != null) {
                     existingBorrowing.setStatus(borrowing.getStatus());
                 }
+                if (borrowing.getFine() != null) {
+                    existingBorrowing.setFine(borrowing.getFine());
+                }
 
                 return existingBorrowing;
             })
             .map(borrowingRepository::save);
+        if (borrowing.getFine() != null) {
+            result.map(Borrowing::getUser).ifPresent(user -> fineBalanceService.recompute(List.of(user.getId())));
+        }
 
         return ResponseUtil.wrapOrNotFound(
             result,
@@ -160,21 +309,34 @@ public class BorrowingResource {
 
     /**
      * {@code GET  /borrowings} : get all the borrowings.
+     * <p>
+     * When {@code after} is given, the borrowings are paginated by cursor: an empty {@code after} reads the first page, and
+     * the {@code Link} header carries the cursor on the next one. No total count is computed in that mode.
      *
      * @param pageable the pagination information.
+     * @param after the cursor returned with the previous page, if paginating by cursor.
+     * @param expand the associations to fetch with the borrowings, {@code book}, {@code user}, or both.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of borrowings in body.
      */
     @GetMapping("/borrowings")
-    public ResponseEntity<List<Borrowing>> getAllBorrowings(Pageable pageable) {
+    public ResponseEntity<List<Borrowing>> getAllBorrowings(
+        Pageable pageable,
+        @RequestParam(value = KeysetPaginationUtil.AFTER_PARAMETER, required = false) String after,
+        @RequestParam(value = ExpandUtil.EXPAND_PARAMETER, required = false) String expand
+    ) {
         log.debug("REST request to get a page of Borrowings");
+        Set<String> associations = ExpandUtil.parseExpand(expand, ENTITY_NAME, EXPANDABLE);
+        if (after != null) {
+            return getAllBorrowingsAfter(toCursor(after, pageable), pageable.getPageSize(), associations);
+        }
         if(SecurityUtils.hasCurrentUserThisAuthority("ROLE_ADMIN")) {
-            Page<Borrowing> page = borrowingRepository.findAll(pageable);
+            Page<Borrowing> page = borrowingRepository.findAll(pageable, associations);
             HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
             return ResponseEntity.ok().headers(headers).body(page.getContent());
         } else {
-            Optional <String> usernameOptional = SecurityUtils.getCurrentUserLogin();
-            if(usernameOptional.isPresent()) {
-                Page<Borrowing> page = borrowingRepository.findByUserIsCurrentUser(usernameOptional.get(), pageable);
+            Optional<Long> userId = SecurityUtils.getCurrentUserLogin().flatMap(userRepository::findIdByLogin);
+            if (userId.isPresent()) {
+                Page<Borrowing> page = borrowingRepository.findByUserId(userId.get(), pageable, associations);
                 HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
                 return ResponseEntity.ok().headers(headers).body(page.getContent());
             }
@@ -182,33 +344,101 @@ public class BorrowingResource {
         return  ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
     }
 
+    private ResponseEntity<List<Borrowing>> getAllBorrowingsAfter(KeysetCursor cursor, int size, Set<String> associations) {
+        KeysetSlice<Borrowing> slice;
+        try {
+            if (SecurityUtils.hasCurrentUserThisAuthority(AuthoritiesConstants.ADMIN)) {
+                slice = borrowingRepository.findAllAfter(cursor, size, associations);
+            } else {
+                Optional<Long> userId = SecurityUtils.getCurrentUserLogin().flatMap(userRepository::findIdByLogin);
+                if (userId.isEmpty()) {
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+                }
+                slice = borrowingRepository.findByUserIdAfter(userId.get(), cursor, size, associations);
+            }
+        } catch (IllegalArgumentException | InvalidDataAccessApiUsageException e) {
+            throw new BadRequestAlertException("Invalid cursor sort", ENTITY_NAME, "cursorinvalid");
+        }
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    /**
+     * {@code GET  /borrowings/_export} : export all the borrowings, for audits.
+     *
+     * @param format the export format, {@code ndjson} (the default) or {@code csv}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the borrowings streamed in body,
+     * or with status {@code 400 (Bad Request)} if the format is not supported.
+     */
+    @GetMapping("/borrowings/_export")
+    @PreAuthorize("hasRole(\"" + AuthoritiesConstants.ADMIN + "\")")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<StreamingResponseBody> exportBorrowings(@RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        log.debug("REST request to export all Borrowings as {}", format);
+        return ExportUtil.createExportResponse(ENTITY_NAME, "borrowings", format, exportService::exportBorrowings);
+    }
+
     /**
      * {@code GET  /borrowings/:id} : get the "id" borrowing.
      *
      * @param id the id of the borrowing to retrieve.
+     * @param expand the associations to fetch with the borrowing, {@code book}, {@code user}, or both.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the borrowing, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/borrowings/{id}")
-    public ResponseEntity<Borrowing> getBorrowing(@PathVariable Long id) {
+    public ResponseEntity<Borrowing> getBorrowing(
+        @PathVariable Long id,
+        @RequestParam(value = ExpandUtil.EXPAND_PARAMETER, required = false) String expand
+    ) {
         log.debug("REST request to get Borrowing : {}", id);
-        Optional<Borrowing> borrowing = borrowingRepository.findById(id);
+        Set<String> associations = ExpandUtil.parseExpand(expand, ENTITY_NAME, EXPANDABLE);
+        Optional<Borrowing> borrowing = borrowingRepository.findById(id, associations);
         return ResponseUtil.wrapOrNotFound(borrowing);
     }
 
     /**
-     * {@code DELETE  /borrowings/:id} : delete the "id" borrowing.
+     * {@code DELETE  /borrowings/:id} : delete the "id" borrowing. The copy held by an open borrowing is put back in the book quantity.
      *
      * @param id the id of the borrowing to delete.
      * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
      */
     @DeleteMapping("/borrowings/{id}")
     @PreAuthorize("hasRole(\"" + AuthoritiesConstants.ADMIN + "\")")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ResponseEntity<Void> deleteBorrowing(@PathVariable Long id) {
         log.debug("REST request to delete Borrowing : {}", id);
-        borrowingRepository.deleteById(id);
+        circulationService.delete(id);
         return ResponseEntity
             .noContent()
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    /**
+     * Check that an update of a borrowing leaves the copies of its book alone: an open borrowing is only returned through
+     * {@code _return}, a returned one is not reopened, and an open one keeps its book.
+     */
+    private static void checkCopyUnchanged(Borrowing previous, LocalDate returnDate, Long bookId) {
+        if (previous.getReturn_date() == null && returnDate != null) {
+            throw new BadRequestAlertException("An open borrowing can only be returned with _return", ENTITY_NAME, "returnnotallowed");
+        }
+        if (previous.getReturn_date() != null && returnDate == null) {
+            throw new BadRequestAlertException("A returned borrowing cannot be reopened", ENTITY_NAME, "reopennotallowed");
+        }
+        if (previous.getReturn_date() == null && !Objects.equals(bookIdOf(previous), bookId)) {
+            throw new BadRequestAlertException("The book of an open borrowing cannot change", ENTITY_NAME, "booknotchangeable");
+        }
+    }
+
+    private static Long bookIdOf(Borrowing borrowing) {
+        return borrowing.getBook() == null ? null : borrowing.getBook().getId();
+    }
+
+    private KeysetCursor toCursor(String after, Pageable pageable) {
+        try {
+            return after.isEmpty() ? KeysetCursor.first(pageable.getSort()) : KeysetCursor.decode(after);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+    }
 }
@@ -3,11 +3,13 @@ package com.mycompany.myapp.web.rest;
 import com.mycompany.myapp.domain.Category;
 import com.mycompany.myapp.repository.CategoryRepository;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.ETagUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -18,6 +20,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -90,6 +93,10 @@ public class CategoryResource {
         if (!categoryRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        if (category.getVersion() == null) {
+            // Clients that do not send the version overwrite the current one
+            categoryRepository.findVersionById(id).ifPresent(category::setVersion);
+        }
 
         Category result = categoryRepository.save(category);
         return ResponseEntity
@@ -145,29 +152,59 @@ public class CategoryResource {
 
     /**
      * {@code GET  /categories} : get all the categories.
+     * <p>
+     * The page carries an ETag, and a request whose {@code If-None-Match} matches the current page is answered from the
+     * category versions alone.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of categories in body.
+     * @param ifNoneMatch the ETag of the page the client already has, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of categories in body,
+     * or with status {@code 304 (Not Modified)} if the page has not changed.
      */
     @GetMapping("/categories")
-    public ResponseEntity<List<Category>> getAllCategories(Pageable pageable) {
+    public ResponseEntity<List<Category>> getAllCategories(
+        Pageable pageable,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get a page of Categories");
+        if (ifNoneMatch != null) {
+            String etag = ETagUtil.generateETag(ENTITY_NAME, categoryRepository.findAllVersions(pageable), categoryRepository.count());
+            if (ETagUtil.matches(ifNoneMatch, etag)) {
+                return ETagUtil.notModified(etag);
+            }
+        }
         Page<Category> page = categoryRepository.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        List<Object[]> versions = page.getContent().stream().map(c -> new Object[] { c.getId(), c.getVersion() }).collect(Collectors.toList());
+        String etag = ETagUtil.generateETag(ENTITY_NAME, versions, page.getTotalElements());
+        return ResponseEntity.ok().headers(headers).eTag(etag).body(page.getContent());
     }
 
     /**
      * {@code GET  /categories/:id} : get the "id" category.
      *
      * @param id the id of the category to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the category, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the ETag of the category the client already has, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the category,
+     * or with status {@code 304 (Not Modified)} if the category has not changed,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/categories/{id}")
-    public ResponseEntity<Category> getCategory(@PathVariable Long id) {
+    public ResponseEntity<Category> getCategory(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get Category : {}", id);
+        Optional<Integer> version = categoryRepository.findVersionById(id);
+        if (version.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        String etag = ETagUtil.generateETag(ENTITY_NAME, List.<Object[]>of(new Object[] { id, version.get() }));
+        if (ETagUtil.matches(ifNoneMatch, etag)) {
+            return ETagUtil.notModified(etag);
+        }
         Optional<Category> category = categoryRepository.findById(id);
-        return ResponseUtil.wrapOrNotFound(category);
+        return category.map(c -> ResponseEntity.ok().eTag(etag).body(c)).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
     }
 
     /**
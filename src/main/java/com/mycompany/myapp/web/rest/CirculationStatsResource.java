@@ -0,0 +1,58 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.service.CirculationStatsService;
+import com.mycompany.myapp.service.dto.CirculationStatsDTO;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for the circulation statistics.
+ */
+@RestController
+@RequestMapping("/api")
+public class CirculationStatsResource {
+
+    private final Logger log = LoggerFactory.getLogger(CirculationStatsResource.class);
+
+    private static final String ENTITY_NAME = "circulationStats";
+
+    static final int DEFAULT_RANGE_DAYS = 30;
+
+    static final int MAX_RANGE_DAYS = 731;
+
+    private final CirculationStatsService circulationStatsService;
+
+    public CirculationStatsResource(CirculationStatsService circulationStatsService) {
+        this.circulationStatsService = circulationStatsService;
+    }
+
+    /**
+     * {@code GET  /stats/circulation} : get the circulation statistics of a period.
+     *
+     * @param from the first day of the period, defaults to {@link #DEFAULT_RANGE_DAYS} days before {@code to}.
+     * @param to the last day of the period, defaults to today.
+     * @return the loans per day, week and month of the period, its most borrowed books and the loans of each category,
+     * or with status {@code 400 (Bad Request)} if the period is reversed or longer than {@link #MAX_RANGE_DAYS} days.
+     */
+    @GetMapping("/stats/circulation")
+    @PreAuthorize("hasRole(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public CirculationStatsDTO getCirculationStats(
+        @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        log.debug("REST request to get the circulation statistics from {} to {}", from, to);
+        LocalDate last = to != null ? to : LocalDate.now();
+        LocalDate first = from != null ? from : last.minusDays(DEFAULT_RANGE_DAYS - 1);
+        if (first.isAfter(last) || ChronoUnit.DAYS.between(first, last) >= MAX_RANGE_DAYS) {
+            throw new BadRequestAlertException("Invalid period", ENTITY_NAME, "rangeinvalid");
+        }
+        return circulationStatsService.getStats(first, last);
+    }
+}
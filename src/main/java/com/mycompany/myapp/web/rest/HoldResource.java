@@ -0,0 +1,131 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.security.SecurityUtils;
+import com.mycompany.myapp.service.BookAvailableException;
+import com.mycompany.myapp.service.HoldAlreadyPlacedException;
+import com.mycompany.myapp.service.HoldService;
+import com.mycompany.myapp.service.dto.HoldDTO;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import tech.jhipster.web.util.HeaderUtil;
+
+/**
+ * REST controller for managing the holds placed on books with no copy left.
+ */
+@RestController
+@RequestMapping("/api")
+public class HoldResource {
+
+    private final Logger log = LoggerFactory.getLogger(HoldResource.class);
+
+    private static final String ENTITY_NAME = "hold";
+
+    @Value("${jhipster.clientApp.name}")
+    private String applicationName;
+
+    private final HoldService holdService;
+
+    private final UserRepository userRepository;
+
+    public HoldResource(HoldService holdService, UserRepository userRepository) {
+        this.holdService = holdService;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * {@code POST  /holds} : Place a hold on a book for the current user.
+     *
+     * @param hold the hold to place, with the id of the book.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new hold, with its place in the queue,
+     * or with status {@code 400 (Bad Request)} if the book does not exist, has copies left, or is already held by the user.
+     * @throws URISyntaxException if the Location URI syntax is incorrect.
+     */
+    @PostMapping("/holds")
+    public ResponseEntity<HoldDTO> placeHold(@RequestBody HoldDTO hold) throws URISyntaxException {
+        log.debug("REST request to place Hold : {}", hold);
+        if (hold.getId() != null) {
+            throw new BadRequestAlertException("A new hold cannot already have an ID", ENTITY_NAME, "idexists");
+        }
+        if (hold.getBookId() == null) {
+            throw new BadRequestAlertException("A hold needs a book", ENTITY_NAME, "booknull");
+        }
+        Optional<User> user = SecurityUtils.getCurrentUserLogin().flatMap(userRepository::findOneByLogin);
+        if (user.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        HoldDTO result;
+        try {
+            result =
+                holdService
+                    .place(hold.getBookId(), user.get())
+                    .orElseThrow(() -> new BadRequestAlertException("Book not found", ENTITY_NAME, "booknotfound"));
+        } catch (BookAvailableException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "bookavailable");
+        } catch (HoldAlreadyPlacedException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "holdexists");
+        }
+        return ResponseEntity
+            .created(new URI("/api/holds/" + result.getId()))
+            .headers(HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+            .body(result);
+    }
+
+    /**
+     * {@code GET  /holds} : get the holds of the current user.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of holds in body, with their place in the queue.
+     */
+    @GetMapping("/holds")
+    public ResponseEntity<List<HoldDTO>> getHolds() {
+        log.debug("REST request to get the Holds of the current user");
+        Optional<String> login = SecurityUtils.getCurrentUserLogin();
+        if (login.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(holdService.getHoldsOfUser(login.get()));
+    }
+
+    /**
+     * {@code GET  /books/:id/holds} : get the queue of holds of the "id" book.
+     *
+     * @param id the id of the book.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of holds in body, ready ones first.
+     */
+    @GetMapping("/books/{id}/holds")
+    @PreAuthorize("hasRole(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public List<HoldDTO> getBookHolds(@PathVariable Long id) {
+        log.debug("REST request to get the Holds of Book : {}", id);
+        return holdService.getHoldsOfBook(id);
+    }
+
+    /**
+     * {@code DELETE  /holds/:id} : cancel the "id" hold. Users can only cancel their own holds.
+     *
+     * @param id the id of the hold to cancel.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}, or with status {@code 404 (Not Found)}.
+     */
+    @DeleteMapping("/holds/{id}")
+    public ResponseEntity<Void> cancelHold(@PathVariable Long id) {
+        log.debug("REST request to cancel Hold : {}", id);
+        String login = SecurityUtils.hasCurrentUserThisAuthority(AuthoritiesConstants.ADMIN)
+            ? null
+            : SecurityUtils.getCurrentUserLogin().orElse("");
+        if (holdService.cancel(id, login).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id.toString())).build();
+    }
+}
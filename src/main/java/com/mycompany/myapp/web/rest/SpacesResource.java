@@ -2,19 +2,35 @@ package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Borrowing;
 import com.mycompany.myapp.domain.Spaces;
+import com.mycompany.myapp.repository.KeysetCursor;
+import com.mycompany.myapp.repository.KeysetSlice;
 import com.mycompany.myapp.repository.SpacesRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.security.AuthoritiesConstants;
 import com.mycompany.myapp.security.SecurityUtils;
+import com.mycompany.myapp.service.SpaceAlreadyBookedException;
+import com.mycompany.myapp.service.SpaceAvailabilityService;
+import com.mycompany.myapp.service.SpaceBookingService;
+import com.mycompany.myapp.service.SpaceFullException;
+import com.mycompany.myapp.service.dto.SpaceAvailabilityDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.ExpandUtil;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -37,20 +53,39 @@ public class SpacesResource {
 
     private static final String ENTITY_NAME = "spaces";
 
+    private static final Set<String> EXPANDABLE = Set.of("user");
+
+    static final int MAX_AVAILABILITY_DAYS = 366;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final SpacesRepository spacesRepository;
 
-    public SpacesResource(SpacesRepository spacesRepository) {
+    private final UserRepository userRepository;
+
+    private final SpaceBookingService spaceBookingService;
+
+    private final SpaceAvailabilityService spaceAvailabilityService;
+
+    public SpacesResource(
+        SpacesRepository spacesRepository,
+        UserRepository userRepository,
+        SpaceBookingService spaceBookingService,
+        SpaceAvailabilityService spaceAvailabilityService
+    ) {
         this.spacesRepository = spacesRepository;
+        this.userRepository = userRepository;
+        this.spaceBookingService = spaceBookingService;
+        this.spaceAvailabilityService = spaceAvailabilityService;
     }
 
     /**
      * {@code POST  /spaces} : Create a new spaces.
      *
      * @param spaces the spaces to create.
-     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new spaces, or with status {@code 400 (Bad Request)} if the spaces has already an ID.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new spaces,
+     * or with status {@code 400 (Bad Request)} if the spaces has already an ID, no space is left on its day, or its user already holds one.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping("/spaces")
@@ -59,7 +94,12 @@ public class SpacesResource {
         if (spaces.getId() != null) {
             throw new BadRequestAlertException("A new spaces cannot already have an ID", ENTITY_NAME, "idexists");
         }
-        Spaces result = spacesRepository.save(spaces);
+        Spaces result;
+        try {
+            result = spaceBookingService.book(spaces);
+        } catch (SpaceFullException | SpaceAlreadyBookedException e) {
+            throw unavailable(e);
+        }
         return ResponseEntity
             .created(new URI("/api/spaces/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
@@ -72,7 +112,7 @@ public class SpacesResource {
      * @param id the id of the spaces to save.
      * @param spaces the spaces to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated spaces,
-     * or with status {@code 400 (Bad Request)} if the spaces is not valid,
+     * or with status {@code 400 (Bad Request)} if the spaces is not valid, no space is left on its day, or its user already holds one,
      * or with status {@code 500 (Internal Server Error)} if the spaces couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -87,9 +127,10 @@ public class SpacesResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!spacesRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        Spaces existingSpaces = spacesRepository
+            .findById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        move(existingSpaces, spaces.getDate(), spaces.getUser() == null ? null : spaces.getUser().getId());
 
         Spaces result = spacesRepository.save(spaces);
         return ResponseEntity
@@ -104,7 +145,7 @@ public class SpacesResource {
      * @param id the id of the spaces to save.
      * @param spaces the spaces to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated spaces,
-     * or with status {@code 400 (Bad Request)} if the spaces is not valid,
+     * or with status {@code 400 (Bad Request)} if the spaces is not valid, or no space is left on its new day,
      * or with status {@code 404 (Not Found)} if the spaces is not found,
      * or with status {@code 500 (Internal Server Error)} if the spaces couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -130,6 +171,7 @@ public class SpacesResource {
             .findById(spaces.getId())
             .map(existingSpaces -> {
                 if (spaces.getDate() != null) {
+                    move(existingSpaces, spaces.getDate(), existingSpaces.getUser() == null ? null : existingSpaces.getUser().getId());
                     existingSpaces.setDate(spaces.getDate());
                 }
 
@@ -145,21 +187,34 @@ public class SpacesResource {
 
     /**
      * {@code GET  /spaces} : get all the spaces.
+     * <p>
+     * When {@code after} is given, the spaces are paginated by cursor: an empty {@code after} reads the first page, and
+     * the {@code Link} header carries the cursor on the next one. No total count is computed in that mode.
      *
      * @param pageable the pagination information.
+     * @param after the cursor returned with the previous page, if paginating by cursor.
+     * @param expand the associations to fetch with the spaces, {@code user} or none.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of spaces in body.
      */
     @GetMapping("/spaces")
-    public ResponseEntity<List<Spaces>> getAllSpaces(Pageable pageable) {
+    public ResponseEntity<List<Spaces>> getAllSpaces(
+        Pageable pageable,
+        @RequestParam(value = KeysetPaginationUtil.AFTER_PARAMETER, required = false) String after,
+        @RequestParam(value = ExpandUtil.EXPAND_PARAMETER, required = false) String expand
+    ) {
         log.debug("REST request to get a page of Spaces");
+        Set<String> associations = ExpandUtil.parseExpand(expand, ENTITY_NAME, EXPANDABLE);
+        if (after != null) {
+            return getAllSpacesAfter(toCursor(after, pageable), pageable.getPageSize(), associations);
+        }
         if(SecurityUtils.hasCurrentUserThisAuthority("ROLE_ADMIN")) {
-            Page<Spaces> page = spacesRepository.findAll(pageable);
+            Page<Spaces> page = spacesRepository.findAll(pageable, associations);
             HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
             return ResponseEntity.ok().headers(headers).body(page.getContent());
         } else {
-            Optional <String> usernameOptional = SecurityUtils.getCurrentUserLogin();
-            if(usernameOptional.isPresent()) {
-                Page<Spaces> page = spacesRepository.findByUserIsCurrentUser(usernameOptional.get(), pageable);
+            Optional<Long> userId = SecurityUtils.getCurrentUserLogin().flatMap(userRepository::findIdByLogin);
+            if (userId.isPresent()) {
+                Page<Spaces> page = spacesRepository.findByUserId(userId.get(), pageable, associations);
                 HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
                 return ResponseEntity.ok().headers(headers).body(page.getContent());
             }
@@ -167,17 +222,61 @@ public class SpacesResource {
         return  ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
     }
 
+    private ResponseEntity<List<Spaces>> getAllSpacesAfter(KeysetCursor cursor, int size, Set<String> associations) {
+        KeysetSlice<Spaces> slice;
+        try {
+            if (SecurityUtils.hasCurrentUserThisAuthority(AuthoritiesConstants.ADMIN)) {
+                slice = spacesRepository.findAllAfter(cursor, size, associations);
+            } else {
+                Optional<Long> userId = SecurityUtils.getCurrentUserLogin().flatMap(userRepository::findIdByLogin);
+                if (userId.isEmpty()) {
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+                }
+                slice = spacesRepository.findByUserIdAfter(userId.get(), cursor, size, associations);
+            }
+        } catch (IllegalArgumentException | InvalidDataAccessApiUsageException e) {
+            throw new BadRequestAlertException("Invalid cursor sort", ENTITY_NAME, "cursorinvalid");
+        }
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+
+    /**
+     * {@code GET  /spaces/availability} : get the booked and free spaces of each day of a range, such as a month.
+     *
+     * @param from the first day of the range.
+     * @param to the last day of the range.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the availability of each day in body, in date order,
+     * or with status {@code 400 (Bad Request)} if the range is reversed or longer than {@link #MAX_AVAILABILITY_DAYS} days.
+     */
+    @GetMapping("/spaces/availability")
+    public ResponseEntity<List<SpaceAvailabilityDTO>> getSpacesAvailability(
+        @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        log.debug("REST request to get the availability of Spaces from {} to {}", from, to);
+        if (from.isAfter(to) || ChronoUnit.DAYS.between(from, to) >= MAX_AVAILABILITY_DAYS) {
+            throw new BadRequestAlertException("Invalid range", ENTITY_NAME, "rangeinvalid");
+        }
+        return ResponseEntity.ok(spaceAvailabilityService.getAvailability(from, to));
+    }
 
     /**
      * {@code GET  /spaces/:id} : get the "id" spaces.
      *
      * @param id the id of the spaces to retrieve.
+     * @param expand the associations to fetch with the spaces, {@code user} or none.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the spaces, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/spaces/{id}")
-    public ResponseEntity<Spaces> getSpaces(@PathVariable Long id) {
+    public ResponseEntity<Spaces> getSpaces(
+        @PathVariable Long id,
+        @RequestParam(value = ExpandUtil.EXPAND_PARAMETER, required = false) String expand
+    ) {
         log.debug("REST request to get Spaces : {}", id);
-        Optional<Spaces> spaces = spacesRepository.findById(id);
+        Set<String> associations = ExpandUtil.parseExpand(expand, ENTITY_NAME, EXPANDABLE);
+        Optional<Spaces> spaces = spacesRepository.findById(id, associations);
         return ResponseUtil.wrapOrNotFound(spaces);
     }
 
@@ -190,10 +289,38 @@ public class SpacesResource {
     @DeleteMapping("/spaces/{id}")
     public ResponseEntity<Void> deleteSpaces(@PathVariable Long id) {
         log.debug("REST request to delete Spaces : {}", id);
+        spacesRepository
+            .findById(id)
+            .ifPresent(spaces -> spaceBookingService.cancel(spaces.getDate(), spaces.getUser() == null ? null : spaces.getUser().getId()));
         spacesRepository.deleteById(id);
         return ResponseEntity
             .noContent()
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    private void move(Spaces existingSpaces, LocalDate date, Long userId) {
+        try {
+            spaceBookingService.move(
+                existingSpaces.getDate(),
+                existingSpaces.getUser() == null ? null : existingSpaces.getUser().getId(),
+                date,
+                userId
+            );
+        } catch (SpaceFullException | SpaceAlreadyBookedException e) {
+            throw unavailable(e);
+        }
+    }
+
+    private static BadRequestAlertException unavailable(RuntimeException e) {
+        return new BadRequestAlertException(e.getMessage(), ENTITY_NAME, e instanceof SpaceFullException ? "spacefull" : "alreadybooked");
+    }
+
+    private KeysetCursor toCursor(String after, Pageable pageable) {
+        try {
+            return after.isEmpty() ? KeysetCursor.first(pageable.getSort()) : KeysetCursor.decode(after);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+    }
 }
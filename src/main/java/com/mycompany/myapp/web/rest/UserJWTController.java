@@ -3,6 +3,7 @@ package com.mycompany.myapp.web.rest;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.mycompany.myapp.security.jwt.JWTFilter;
 import com.mycompany.myapp.security.jwt.TokenProvider;
+import com.mycompany.myapp.security.jwt.TokenRevocationStore;
 import com.mycompany.myapp.web.rest.vm.LoginVM;
 import javax.validation.Valid;
 import org.springframework.http.HttpHeaders;
@@ -25,9 +26,16 @@ public class UserJWTController {
 
     private final AuthenticationManagerBuilder authenticationManagerBuilder;
 
-    public UserJWTController(TokenProvider tokenProvider, AuthenticationManagerBuilder authenticationManagerBuilder) {
+    private final TokenRevocationStore tokenRevocationStore;
+
+    public UserJWTController(
+        TokenProvider tokenProvider,
+        AuthenticationManagerBuilder authenticationManagerBuilder,
+        TokenRevocationStore tokenRevocationStore
+    ) {
         this.tokenProvider = tokenProvider;
         this.authenticationManagerBuilder = authenticationManagerBuilder;
+        this.tokenRevocationStore = tokenRevocationStore;
     }
 
     @PostMapping("/authenticate")
@@ -45,6 +53,17 @@ public class UserJWTController {
         return new ResponseEntity<>(new JWTToken(jwt), httpHeaders, HttpStatus.OK);
     }
 
+    /**
+     * {@code POST  /logout} : revoke the token of the current user, so that it is no longer accepted.
+     *
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout() {
+        tokenRevocationStore.revoke(SecurityContextHolder.getContext().getAuthentication());
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Object to return as body in JWT Authentication.
      */
@@ -0,0 +1,63 @@
+package com.mycompany.myapp.web.rest.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Utility class for version-based ETags and conditional {@code GET} requests.
+ * <p>
+ * An ETag digests the versions of every row a representation is built from, so it can be computed from a projection
+ * query before loading any entity, and compared with the {@code If-None-Match} header of the request.
+ */
+public final class ETagUtil {
+
+    private ETagUtil() {}
+
+    /**
+     * Generate a strong ETag.
+     *
+     * @param entityName the name of the entity the representation is built from.
+     * @param rows the ids and versions of the rows the representation is built from.
+     * @param parts anything else the representation depends on, such as a total count.
+     * @return the quoted ETag.
+     */
+    public static String generateETag(String entityName, List<Object[]> rows, Object... parts) {
+        String content = entityName + Arrays.deepToString(rows.toArray()) + Arrays.deepToString(parts);
+        return "\"" + DigestUtils.md5DigestAsHex(content.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Check whether an {@code If-None-Match} header matches an ETag.
+     *
+     * @param ifNoneMatch the header value, may be {@code null}.
+     * @param etag the current ETag.
+     * @return {@code true} if the client already has the current representation.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || trimmed.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Create a {@code 304 (Not Modified)} response.
+     *
+     * @param etag the current ETag.
+     * @param <X> the type of the response body.
+     * @return the response entity.
+     */
+    public static <X> ResponseEntity<X> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+}
@@ -0,0 +1,43 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Utility class for handling the {@code expand} request parameter.
+ * <p>
+ * Associations are not serialized beyond their id unless they are named in {@code expand}, such as
+ * {@code ?expand=book,user}, in which case they are fetched by the same query as the entities.
+ */
+public final class ExpandUtil {
+
+    public static final String EXPAND_PARAMETER = "expand";
+
+    private ExpandUtil() {}
+
+    /**
+     * Parse the {@code expand} request parameter.
+     *
+     * @param expand the comma separated names of the associations to fetch, may be {@code null}.
+     * @param entityName the name of the listed entity, for the error message.
+     * @param expandable the names of the associations that can be fetched.
+     * @return the names of the associations to fetch, sorted.
+     * @throws BadRequestAlertException if an association cannot be fetched.
+     */
+    public static Set<String> parseExpand(String expand, String entityName, Set<String> expandable) {
+        if (expand == null || expand.isBlank()) {
+            return Collections.emptySet();
+        }
+        Set<String> associations = new TreeSet<>();
+        for (String association : expand.split(",")) {
+            String name = association.trim();
+            if (!expandable.contains(name)) {
+                throw new BadRequestAlertException("Cannot expand " + name, entityName, "expandinvalid");
+            }
+            associations.add(name);
+        }
+        return associations;
+    }
+}
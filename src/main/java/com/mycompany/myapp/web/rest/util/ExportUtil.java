@@ -0,0 +1,59 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.mycompany.myapp.service.ExportService;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Utility class for streaming table exports as file downloads.
+ */
+public final class ExportUtil {
+
+    private ExportUtil() {}
+
+    /**
+     * Writes an export in the requested format.
+     */
+    @FunctionalInterface
+    public interface ExportWriter {
+        void write(ExportService.Format format, OutputStream out) throws IOException;
+    }
+
+    /**
+     * Create a response streaming an export as a downloadable file.
+     * <p>
+     * The export is written once the request thread has been released, so the writer must open its own transaction.
+     *
+     * @param entityName the name of the exported entity, used in error responses.
+     * @param fileName the name of the downloaded file, without extension.
+     * @param format the requested format name, {@code ndjson} or {@code csv}.
+     * @param exportWriter writes the export.
+     * @return the response entity.
+     * @throws BadRequestAlertException if the format is not supported.
+     */
+    public static ResponseEntity<StreamingResponseBody> createExportResponse(
+        String entityName,
+        String fileName,
+        String format,
+        ExportWriter exportWriter
+    ) {
+        ExportService.Format exportFormat;
+        try {
+            exportFormat = ExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Unsupported export format " + format, entityName, "exportformatinvalid");
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(exportFormat.getMediaType()));
+        headers.setContentDisposition(ContentDisposition.attachment().filename(fileName + "." + exportFormat.getExtension()).build());
+        StreamingResponseBody body = out -> exportWriter.write(exportFormat, out);
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+}
@@ -0,0 +1,42 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.mycompany.myapp.repository.KeysetSlice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling keyset (cursor) pagination.
+ * <p>
+ * Unlike {@link tech.jhipster.web.util.PaginationUtil}, no {@code X-Total-Count} header is sent, as working it out would
+ * need the count query that cursor pagination is meant to avoid. The {@code Link} header only carries the next page,
+ * whose {@code after} parameter is the opaque cursor to send back.
+ */
+public final class KeysetPaginationUtil {
+
+    public static final String AFTER_PARAMETER = "after";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Generate pagination headers for a Spring Data {@link KeysetSlice} object.
+     *
+     * @param uriBuilder The URI builder.
+     * @param slice The page.
+     * @param <T> The type of object.
+     * @return http header.
+     */
+    public static <T> HttpHeaders generateKeysetPaginationHttpHeaders(UriComponentsBuilder uriBuilder, KeysetSlice<T> slice) {
+        HttpHeaders headers = new HttpHeaders();
+        slice
+            .getNextCursor()
+            .ifPresent(cursor -> {
+                String link = uriBuilder
+                    .replaceQueryParam("page")
+                    .replaceQueryParam("sort")
+                    .replaceQueryParam(AFTER_PARAMETER, cursor.encode())
+                    .toUriString();
+                headers.add(HttpHeaders.LINK, "<" + link + ">; rel=\"next\"");
+            });
+        return headers;
+    }
+}
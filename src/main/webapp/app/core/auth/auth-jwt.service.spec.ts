@@ -84,5 +84,22 @@ describe('Auth JWT', () => {
       expect(localStorageService.clear).toHaveBeenCalled();
       expect(sessionStorageService.clear).toHaveBeenCalled();
     });
+
+    it('should revoke the token', () => {
+      // GIVEN
+      sessionStorageService.retrieve = jest.fn().mockReturnValue('sessionStorageToken');
+      let completed = false;
+
+      // WHEN
+      service.logout().subscribe({ complete: () => (completed = true) });
+      const req = httpMock.expectOne('api/logout');
+      req.flush(null, { status: 204, statusText: 'No Content' });
+
+      // THEN
+      httpMock.verify();
+      expect(req.request.method).toBe('POST');
+      expect(req.request.headers.get('Authorization')).toBe('Bearer sessionStorageToken');
+      expect(completed).toBe(true);
+    });
   });
 });
@@ -34,9 +34,17 @@ export class AuthServerProvider {
 
   logout(): Observable<void> {
     return new Observable(observer => {
+      const jwt = this.getToken();
       this.localStorageService.clear('authenticationToken');
       this.sessionStorageService.clear('authenticationToken');
-      observer.complete();
+      if (!jwt) {
+        observer.complete();
+        return;
+      }
+      // Revoke the token server-side, the user being logged out whether it succeeds or not
+      this.http
+        .post(this.applicationConfigService.getEndpointFor('api/logout'), null, { headers: { Authorization: `Bearer ${jwt}` } })
+        .subscribe({ error: () => observer.complete(), complete: () => observer.complete() });
     });
   }
 
@@ -40,6 +40,7 @@ export class BookComponent implements OnInit {
         page: pageToLoad - 1,
         size: this.itemsPerPage,
         sort: this.sort(),
+        expand: 'category',
       })
       .subscribe(
         (res: HttpResponse<IBook[]>) => {
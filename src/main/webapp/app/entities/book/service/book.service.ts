@@ -29,7 +29,7 @@ export class BookService {
   }
 
   find(id: number): Observable<EntityResponseType> {
-    return this.http.get<IBook>(`${this.resourceUrl}/${id}`, { observe: 'response' });
+    return this.http.get<IBook>(`${this.resourceUrl}/${id}`, { params: { expand: 'category' }, observe: 'response' });
   }
 
   query(req?: any): Observable<EntityArrayResponseType> {
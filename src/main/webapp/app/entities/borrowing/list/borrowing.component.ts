@@ -40,6 +40,7 @@ export class BorrowingComponent implements OnInit {
         page: pageToLoad - 1,
         size: this.itemsPerPage,
         sort: this.sort(),
+        expand: 'book,user',
       })
       .subscribe(
         (res: HttpResponse<IBorrowing[]>) => {
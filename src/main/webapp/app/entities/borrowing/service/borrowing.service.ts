@@ -42,7 +42,7 @@ export class BorrowingService {
 
   find(id: number): Observable<EntityResponseType> {
     return this.http
-      .get<IBorrowing>(`${this.resourceUrl}/${id}`, { observe: 'response' })
+      .get<IBorrowing>(`${this.resourceUrl}/${id}`, { params: { expand: 'book,user' }, observe: 'response' })
       .pipe(map((res: EntityResponseType) => this.convertDateFromServer(res)));
   }
 
@@ -40,6 +40,7 @@ export class SpacesComponent implements OnInit {
         page: pageToLoad - 1,
         size: this.itemsPerPage,
         sort: this.sort(),
+        expand: 'user',
       })
       .subscribe(
         (res: HttpResponse<ISpaces[]>) => {
@@ -42,7 +42,7 @@ export class SpacesService {
 
   find(id: number): Observable<EntityResponseType> {
     return this.http
-      .get<ISpaces>(`${this.resourceUrl}/${id}`, { observe: 'response' })
+      .get<ISpaces>(`${this.resourceUrl}/${id}`, { params: { expand: 'user' }, observe: 'response' })
       .pipe(map((res: EntityResponseType) => this.convertDateFromServer(res)));
   }
 
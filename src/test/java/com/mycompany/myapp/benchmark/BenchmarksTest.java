@@ -0,0 +1,55 @@
+package com.mycompany.myapp.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.Collection;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs the JMH benchmarks of this package, with {@code ./mvnw -Pdev,benchmark test}.
+ * <p>
+ * The benchmarks to run are matched by the {@code benchmark.include} regular expression, all of them by default. Each
+ * is run in {@code benchmark.forks} forked JVMs, with {@code benchmark.iterations} warmup and measurement iterations
+ * of one second. The results are written in the JMH JSON format to {@code benchmark.result}, so that runs can be
+ * compared.
+ */
+@Tag("benchmark")
+class BenchmarksTest {
+
+    private static final String INCLUDE = System.getProperty("benchmark.include", BenchmarksTest.class.getPackageName() + ".*Benchmark");
+
+    private static final int FORKS = Integer.getInteger("benchmark.forks", 1);
+
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 5);
+
+    private static final String RESULT = System.getProperty("benchmark.result", "target/jmh-result.json");
+
+    @Test
+    void runBenchmarks() throws Exception {
+        new File(RESULT).getAbsoluteFile().getParentFile().mkdirs();
+        Options options = new OptionsBuilder()
+            .include(INCLUDE)
+            .forks(FORKS)
+            .warmupIterations(ITERATIONS)
+            .warmupTime(TimeValue.seconds(1))
+            .measurementIterations(ITERATIONS)
+            .measurementTime(TimeValue.seconds(1))
+            .shouldFailOnError(true)
+            .resultFormat(ResultFormatType.JSON)
+            .result(RESULT)
+            .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        assertThat(results).isNotEmpty();
+        assertThat(new File(RESULT)).exists();
+    }
+}
@@ -0,0 +1,117 @@
+package com.mycompany.myapp.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mycompany.myapp.config.JacksonConfiguration;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.Borrowing;
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.User;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Benchmarks of the JSON serialization and deserialization of the books and borrowings, with the Jackson modules of
+ * {@link JacksonConfiguration}, including the Hibernate one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JsonBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private ObjectMapper objectMapper;
+
+    private Book book;
+
+    private Borrowing borrowing;
+
+    private List<Borrowing> borrowings;
+
+    private String bookJson;
+
+    private String borrowingJson;
+
+    @Setup
+    public void setup() throws Exception {
+        JacksonConfiguration jacksonConfiguration = new JacksonConfiguration();
+        objectMapper =
+            Jackson2ObjectMapperBuilder
+                .json()
+                .modules(
+                    jacksonConfiguration.javaTimeModule(),
+                    jacksonConfiguration.jdk8TimeModule(),
+                    jacksonConfiguration.hibernate5Module(),
+                    jacksonConfiguration.problemModule(),
+                    jacksonConfiguration.constraintViolationProblemModule()
+                )
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        User user = new User();
+        user.setId(1L);
+        user.setLogin("benchmark");
+        user.setEmail("benchmark@localhost");
+        user.setActivated(true);
+        user.setLangKey("en");
+        book = book(1L);
+        borrowing = borrowing(1L, book, user);
+        borrowings = new ArrayList<>();
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            borrowings.add(borrowing(id, book(id), user));
+        }
+        bookJson = objectMapper.writeValueAsString(book);
+        borrowingJson = objectMapper.writeValueAsString(borrowing);
+    }
+
+    private static Book book(Long id) {
+        return new Book()
+            .id(id)
+            .title("The Pragmatic Programmer " + id)
+            .author("Andrew Hunt")
+            .publisher("Addison-Wesley")
+            .fine_amount(50)
+            .quantity(3)
+            .category(new Category().id(1L).name("Software"));
+    }
+
+    private static Borrowing borrowing(Long id, Book book, User user) {
+        LocalDate today = LocalDate.now();
+        return new Borrowing().id(id).date_borrowed(today).due_date(today.plusDays(14)).status(true).fine(0).book(book).user(user);
+    }
+
+    @Benchmark
+    public String writeBook() throws Exception {
+        return objectMapper.writeValueAsString(book);
+    }
+
+    @Benchmark
+    public Book readBook() throws Exception {
+        return objectMapper.readValue(bookJson, Book.class);
+    }
+
+    @Benchmark
+    public String writeBorrowing() throws Exception {
+        return objectMapper.writeValueAsString(borrowing);
+    }
+
+    @Benchmark
+    public Borrowing readBorrowing() throws Exception {
+        return objectMapper.readValue(borrowingJson, Borrowing.class);
+    }
+
+    @Benchmark
+    public String writeBorrowingPage() throws Exception {
+        return objectMapper.writeValueAsString(borrowings);
+    }
+}
@@ -0,0 +1,102 @@
+package com.mycompany.myapp.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.mycompany.myapp.aop.logging.LoggingAspect;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.service.dto.AdminUserDTO;
+import com.mycompany.myapp.service.mapper.UserMapper;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.mock.env.MockEnvironment;
+
+/**
+ * Benchmarks of the overhead of {@link LoggingAspect} on a service call, with its logger at {@code DEBUG}, where the
+ * arguments and result of every call are logged, or at {@code INFO}, where nothing is.
+ * <p>
+ * The same call is made on the {@link UserMapper} service directly and through a proxy advised by the aspect. At
+ * {@code DEBUG} the logs are formatted and written to a discarding stream, so the console does not weigh on the
+ * results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LoggingAspectBenchmark {
+
+    @Param({ "INFO", "DEBUG" })
+    private String level;
+
+    private UserMapper userMapper;
+
+    private UserMapper advisedUserMapper;
+
+    private User user;
+
+    private Logger logger;
+
+    private OutputStreamAppender<ILoggingEvent> appender;
+
+    @Setup
+    public void setup() {
+        userMapper = new UserMapper();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(userMapper);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new LoggingAspect(new MockEnvironment()));
+        advisedUserMapper = proxyFactory.getProxy();
+
+        user = new User();
+        user.setId(1L);
+        user.setLogin("benchmark");
+        user.setEmail("benchmark@localhost");
+        user.setActivated(true);
+        user.setLangKey("en");
+
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern("%d{HH:mm:ss.SSS} %-5level [%thread] %logger{36} - %msg%n");
+        encoder.start();
+        appender = new OutputStreamAppender<>();
+        appender.setContext(loggerContext);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+        logger = loggerContext.getLogger(UserMapper.class);
+        logger.addAppender(appender);
+        logger.setAdditive(false);
+        logger.setLevel(Level.toLevel(level));
+    }
+
+    @TearDown
+    public void tearDown() {
+        logger.setLevel(null);
+        logger.setAdditive(true);
+        logger.detachAppender(appender);
+        appender.stop();
+    }
+
+    @Benchmark
+    public AdminUserDTO direct() {
+        return userMapper.userToAdminUserDTO(user);
+    }
+
+    @Benchmark
+    public AdminUserDTO advised() {
+        return advisedUserMapper.userToAdminUserDTO(user);
+    }
+}
@@ -0,0 +1,83 @@
+package com.mycompany.myapp.benchmark;
+
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.service.dto.AdminUserDTO;
+import com.mycompany.myapp.service.mapper.UserMapper;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks of the {@link UserMapper} mapping between {@link User} and {@link AdminUserDTO}, made for each user of the
+ * user management pages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserMapperBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private final UserMapper userMapper = new UserMapper();
+
+    private User user;
+
+    private AdminUserDTO userDTO;
+
+    private List<User> users;
+
+    @Setup
+    public void setup() {
+        user = user(1L);
+        userDTO = new AdminUserDTO(user);
+        users = new ArrayList<>();
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            users.add(user(id));
+        }
+    }
+
+    private static User user(Long id) {
+        Authority admin = new Authority();
+        admin.setName(AuthoritiesConstants.ADMIN);
+        Authority user = new Authority();
+        user.setName(AuthoritiesConstants.USER);
+        User result = new User();
+        result.setId(id);
+        result.setLogin("benchmark" + id);
+        result.setFirstName("Bench");
+        result.setLastName("Mark");
+        result.setEmail("benchmark" + id + "@localhost");
+        result.setActivated(true);
+        result.setLangKey("en");
+        result.setCreatedBy("system");
+        result.setCreatedDate(Instant.now());
+        result.setAuthorities(Set.of(admin, user));
+        return result;
+    }
+
+    @Benchmark
+    public AdminUserDTO userToAdminUserDTO() {
+        return userMapper.userToAdminUserDTO(user);
+    }
+
+    @Benchmark
+    public List<AdminUserDTO> usersToAdminUserDTOs() {
+        return userMapper.usersToAdminUserDTOs(users);
+    }
+
+    @Benchmark
+    public User userDTOToUser() {
+        return userMapper.userDTOToUser(userDTO);
+    }
+}
@@ -0,0 +1,384 @@
+package com.mycompany.myapp.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.LibsystemApp;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.AuthorityRepository;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Load test of the circulation, run with {@code ./mvnw -Pdev,loadtest test}.
+ * <p>
+ * Starts the whole application on a random port against the H2 test database, and has {@code loadtest.clients}
+ * concurrent clients, each logged in as a librarian through {@code /api/authenticate}, browse the catalog, check out
+ * and return books and book spaces over HTTP for {@code loadtest.duration} seconds. It reports the throughput and the
+ * latency percentiles of each operation, then checks that no book quantity went negative or lost a copy, and that no
+ * day has more spaces than its capacity or a user holding two of its spaces.
+ */
+@Tag("loadtest")
+@SpringBootTest(classes = LibsystemApp.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class CirculationLoadTest {
+
+    private final Logger log = LoggerFactory.getLogger(CirculationLoadTest.class);
+
+    private static final int CLIENTS = Integer.getInteger("loadtest.clients", 32);
+
+    private static final int DURATION_SECONDS = Integer.getInteger("loadtest.duration", 30);
+
+    private static final int BOOKS = Integer.getInteger("loadtest.books", 100);
+
+    private static final int COPIES = 5;
+
+    private static final int BOOKING_DAYS = 30;
+
+    private static final String PASSWORD = "loadtest";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+    private final List<Long> bookIds = new ArrayList<>();
+
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    public void init() {
+        for (int i = 0; i < BOOKS; i++) {
+            bookIds.add(bookRepository.save(new Book().title("Load test book " + i).author("Author").quantity(COPIES)).getId());
+        }
+        Set<Authority> authorities = new HashSet<>(authorityRepository.findAllById(List.of(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER)));
+        String password = passwordEncoder.encode(PASSWORD);
+        for (int i = 0; i < CLIENTS; i++) {
+            User user = new User();
+            user.setLogin("loadtest-" + i);
+            user.setPassword(password);
+            user.setActivated(true);
+            user.setAuthorities(authorities);
+            users.add(userRepository.save(user));
+        }
+    }
+
+    @AfterEach
+    public void cleanup() {
+        Map<String, Object> params = Map.of("bookIds", bookIds, "userIds", userIds());
+        new TransactionTemplate(transactionManager)
+            .executeWithoutResult(
+                status -> {
+                    jdbcTemplate.update("delete from borrowing where book_id in (:bookIds) or user_id in (:userIds)", params);
+                    jdbcTemplate.update("delete from spaces where user_id in (:userIds)", params);
+                    jdbcTemplate.update("delete from circulation_daily_stat where book_id in (:bookIds)", params);
+                }
+            );
+        bookRepository.deleteAllById(bookIds);
+        userRepository.deleteAll(users);
+    }
+
+    @Test
+    void runCirculationLoad() throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(DURATION_SECONDS).toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<Map<String, Recorder>>> clients = new ArrayList<>();
+        long start = System.nanoTime();
+        for (User user : users) {
+            clients.add(executor.submit(() -> new Client(user).run(deadline)));
+        }
+        Map<String, Recorder> recorders = new TreeMap<>();
+        for (Future<Map<String, Recorder>> client : clients) {
+            client.get().forEach((operation, recorder) -> recorders.computeIfAbsent(operation, Recorder::new).addAll(recorder));
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+
+        List<String> violations = findViolations();
+        report(recorders, elapsedSeconds, violations);
+
+        assertThat(recorders.values().stream().mapToLong(recorder -> recorder.errors).sum()).as("server errors").isZero();
+        assertThat(violations).as("invariant violations").isEmpty();
+    }
+
+    private List<String> findViolations() {
+        Map<String, Object> params = Map.of("bookIds", bookIds, "userIds", userIds());
+        List<String> violations = new ArrayList<>();
+        jdbcTemplate.query(
+            "select book.id, book.quantity, " +
+            "(select count(*) from borrowing where borrowing.book_id = book.id and borrowing.return_date is null) " +
+            "from book where book.id in (:bookIds)",
+            params,
+            rs -> {
+                long id = rs.getLong(1);
+                int quantity = rs.getInt(2);
+                int out = rs.getInt(3);
+                if (quantity < 0) {
+                    violations.add("negative quantity: book " + id + " has " + quantity);
+                }
+                if (quantity + out != COPIES) {
+                    violations.add("lost copies: book " + id + " has " + quantity + " in and " + out + " out of " + COPIES);
+                }
+            }
+        );
+        jdbcTemplate.query(
+            "select date, count(*) from spaces where user_id in (:userIds) group by date",
+            params,
+            rs -> {
+                if (rs.getInt(2) > applicationProperties.getSpaces().getCapacity(rs.getDate(1).toLocalDate())) {
+                    violations.add("overbooking: " + rs.getDate(1) + " has " + rs.getInt(2) + " spaces booked");
+                }
+            }
+        );
+        jdbcTemplate.query(
+            "select user_id, date, count(*) from spaces where user_id in (:userIds) group by user_id, date having count(*) > 1",
+            params,
+            rs -> {
+                violations.add("double booking: user " + rs.getLong(1) + " booked " + rs.getDate(2) + " " + rs.getInt(3) + " times");
+            }
+        );
+        return violations;
+    }
+
+    private void report(Map<String, Recorder> recorders, double elapsedSeconds, List<String> violations) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%nCirculation load test: %d clients for %.1f s%n", CLIENTS, elapsedSeconds));
+        report.append(
+            String.format(
+                "%-10s %8s %8s %8s %8s %8s %8s %8s %8s%n",
+                "operation",
+                "ok",
+                "rejected",
+                "errors",
+                "ops/s",
+                "p50 ms",
+                "p95 ms",
+                "p99 ms",
+                "max ms"
+            )
+        );
+        long total = 0;
+        for (Recorder recorder : recorders.values()) {
+            total += recorder.count();
+            report.append(
+                String.format(
+                    "%-10s %8d %8d %8d %8.1f %8.1f %8.1f %8.1f %8.1f%n",
+                    recorder.operation,
+                    recorder.ok,
+                    recorder.rejected,
+                    recorder.errors,
+                    recorder.count() / elapsedSeconds,
+                    recorder.percentile(50),
+                    recorder.percentile(95),
+                    recorder.percentile(99),
+                    recorder.percentile(100)
+                )
+            );
+        }
+        report.append(String.format("Throughput: %.1f requests/s%n", total / elapsedSeconds));
+        report.append(String.format("Invariant violations: %d%n", violations.size()));
+        violations.stream().limit(20).forEach(violation -> report.append("  ").append(violation).append(System.lineSeparator()));
+        log.info("{}", report);
+    }
+
+    private List<Long> userIds() {
+        return users.stream().map(User::getId).collect(Collectors.toList());
+    }
+
+    /**
+     * A librarian at a circulation desk, sending one request after the other.
+     */
+    private class Client {
+
+        private final User user;
+
+        private final Map<String, Recorder> recorders = new TreeMap<>();
+
+        private final Deque<Long> borrowingIds = new ArrayDeque<>();
+
+        private String token;
+
+        Client(User user) {
+            this.user = user;
+        }
+
+        Map<String, Recorder> run(long deadline) {
+            JsonNode login = send("login", "POST", "/api/authenticate", Map.of("username", user.getLogin(), "password", PASSWORD));
+            if (login == null) {
+                return recorders;
+            }
+            token = login.get("id_token").asText();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (System.nanoTime() < deadline) {
+                int action = random.nextInt(10);
+                if (action < 5) {
+                    send("browse", "GET", "/api/books?page=" + random.nextInt(Math.max(1, BOOKS / 20)) + "&size=20", null);
+                } else if (action < 7 || (action < 9 && borrowingIds.isEmpty())) {
+                    Long bookId = bookIds.get(random.nextInt(bookIds.size()));
+                    JsonNode borrowing = send(
+                        "checkout",
+                        "POST",
+                        "/api/borrowings/_checkout",
+                        Map.of("book", Map.of("id", bookId), "user", Map.of("id", user.getId()))
+                    );
+                    if (borrowing != null) {
+                        borrowingIds.add(borrowing.get("id").asLong());
+                    }
+                } else if (action < 9) {
+                    send("return", "POST", "/api/borrowings/" + borrowingIds.poll() + "/_return", null);
+                } else {
+                    String date = LocalDate.now().plusDays(random.nextInt(BOOKING_DAYS)).toString();
+                    send("booking", "POST", "/api/spaces", Map.of("date", date, "user", Map.of("id", user.getId())));
+                }
+            }
+            return recorders;
+        }
+
+        /**
+         * Send a request and record its latency and outcome.
+         *
+         * @return the response body, or {@code null} if the request did not succeed.
+         */
+        private JsonNode send(String operation, String method, String path, Object body) {
+            Recorder recorder = recorders.computeIfAbsent(operation, Recorder::new);
+            long start = System.nanoTime();
+            try {
+                HttpRequest.Builder request = HttpRequest
+                    .newBuilder(URI.create("http://localhost:" + port + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .method(
+                        method,
+                        body == null
+                            ? HttpRequest.BodyPublishers.noBody()
+                            : HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body))
+                    );
+                if (token != null) {
+                    request.header("Authorization", "Bearer " + token);
+                }
+                HttpResponse<byte[]> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+                recorder.record(System.nanoTime() - start, response.statusCode());
+                return response.statusCode() / 100 == 2 ? objectMapper.readTree(response.body()) : null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                recorder.record(System.nanoTime() - start, 0);
+                return null;
+            } catch (Exception e) {
+                recorder.record(System.nanoTime() - start, 0);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * The latencies and outcomes of an operation. A {@code 400 (Bad Request)} is a rejection, such as the checkout of a
+     * book with no copy left; any other failure is an error.
+     */
+    private static class Recorder {
+
+        private final String operation;
+
+        private final List<Long> latencies = new ArrayList<>();
+
+        private long ok;
+
+        private long rejected;
+
+        private long errors;
+
+        Recorder(String operation) {
+            this.operation = operation;
+        }
+
+        void record(long latencyNanos, int status) {
+            latencies.add(latencyNanos);
+            if (status / 100 == 2) {
+                ok++;
+            } else if (status == 400) {
+                rejected++;
+            } else {
+                errors++;
+            }
+        }
+
+        void addAll(Recorder other) {
+            latencies.addAll(other.latencies);
+            ok += other.ok;
+            rejected += other.rejected;
+            errors += other.errors;
+        }
+
+        long count() {
+            return latencies.size();
+        }
+
+        double percentile(int percentile) {
+            if (latencies.isEmpty()) {
+                return 0;
+            }
+            List<Long> sorted = latencies.stream().sorted().collect(Collectors.toList());
+            int index = Math.max(0, (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1);
+            return sorted.get(index) / 1e6;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.mycompany.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Integration tests checking, with the H2 {@code EXPLAIN} plans, that the borrowings and spaces of a user are read with
+ * the {@code (user_id, date)} indexes.
+ * <p>
+ * H2 keeps a single column index for each foreign key, and ties with it when only {@code user_id} is filtered on, so the
+ * composite indexes are checked on the reads of a user's rows from a date, and the plain reads only for not scanning.
+ */
+@IntegrationTest
+class UserLookupIndexIT {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void assertThatBorrowingsOfUserUseTheUserIndex() {
+        assertThat(explain("select * from borrowing where user_id = 1 and date_borrowed >= date '2026-01-01' order by date_borrowed"))
+            .containsIgnoringCase("idx_borrowing_user_id_date_borrowed: user_id = 1");
+        assertThat(explain("select * from borrowing where user_id = 1")).containsIgnoringCase("user_id = 1 */").doesNotContain("tableScan");
+    }
+
+    @Test
+    void assertThatSpacesOfUserUseTheUserIndex() {
+        assertThat(explain("select * from spaces where user_id = 1 and date >= date '2026-01-01' order by date"))
+            .containsIgnoringCase("idx_spaces_user_id_date: user_id = 1");
+        assertThat(explain("select * from spaces where user_id = 1")).containsIgnoringCase("user_id = 1 */").doesNotContain("tableScan");
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("explain " + sql, String.class);
+    }
+}
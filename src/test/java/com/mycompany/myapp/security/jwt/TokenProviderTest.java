@@ -83,6 +83,42 @@ class TokenProviderTest {
         assertThat(isTokenValid).isFalse();
     }
 
+    @Test
+    void testAuthenticateReturnsTheCachedAuthenticationOfAValidToken() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        Authentication authentication = tokenProvider.authenticate(token);
+
+        assertThat(authentication.getName()).isEqualTo("anonymous");
+        assertThat(authentication.getCredentials()).hasToString(token);
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly(AuthoritiesConstants.ANONYMOUS);
+        assertThat(tokenProvider.authenticate(token)).isSameAs(authentication);
+        // The authorities are shared by the tokens with the same claim
+        assertThat(tokenProvider.authenticate(tokenProvider.createToken(createAuthentication(), true)).getAuthorities().iterator().next())
+            .isSameAs(authentication.getAuthorities().iterator().next());
+    }
+
+    @Test
+    void testAuthenticateReturnsNullWhenJWTisInvalid() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+        assertThat(tokenProvider.authenticate(token)).isNotNull();
+
+        assertThat(tokenProvider.authenticate(createTokenWithDifferentSignature())).isNull();
+        assertThat(tokenProvider.authenticate(token.substring(0, token.length() - 2))).isNull();
+        assertThat(tokenProvider.authenticate("")).isNull();
+    }
+
+    @Test
+    void testAuthenticateReturnsNullWhenCachedJWTisExpired() throws Exception {
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", 1000);
+        String token = tokenProvider.createToken(createAuthentication(), false);
+        assertThat(tokenProvider.authenticate(token)).isNotNull();
+
+        Thread.sleep(1100);
+
+        assertThat(tokenProvider.authenticate(token)).isNull();
+    }
+
     @Test
     void testKeyIsSetFromSecretWhenSecretIsNotEmpty() {
         final String secret = "NwskoUmKHZtzGRKJKVjsJF7BtQMMxNWi";
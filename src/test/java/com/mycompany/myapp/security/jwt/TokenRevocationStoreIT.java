@@ -0,0 +1,109 @@
+package com.mycompany.myapp.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.RevokedToken;
+import com.mycompany.myapp.repository.RevokedTokenRepository;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Integration tests for {@link TokenRevocationStore}.
+ */
+@IntegrationTest
+class TokenRevocationStoreIT {
+
+    @Autowired
+    private TokenRevocationStore tokenRevocationStore;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @AfterEach
+    public void cleanup() {
+        revokedTokenRepository.deleteAll();
+        tokenRevocationStore.rebuild();
+    }
+
+    @Test
+    void assertThatRevokeRevokesOnlyThatToken() {
+        String subject = newSubject();
+        Authentication revoked = authentication(subject, Instant.now());
+        Authentication other = authentication(subject, Instant.now());
+
+        tokenRevocationStore.revoke(revoked);
+
+        assertThat(tokenRevocationStore.isRevoked(revoked)).isTrue();
+        assertThat(tokenRevocationStore.isRevoked(other)).isFalse();
+        assertThat(revokedTokenRepository.findAll()).extracting(RevokedToken::getTokenId).contains(tokenId(revoked));
+    }
+
+    @Test
+    void assertThatRevokeAllRevokesTheTokensIssuedUntilThen() {
+        String subject = newSubject();
+        Authentication issuedBefore = authentication(subject, Instant.now().minusSeconds(10));
+
+        tokenRevocationStore.revokeAll(subject);
+
+        assertThat(tokenRevocationStore.isRevoked(issuedBefore)).isTrue();
+        assertThat(tokenRevocationStore.isRevoked(authentication(subject, Instant.now().plusSeconds(10)))).isFalse();
+        assertThat(tokenRevocationStore.isRevoked(authentication(newSubject(), Instant.now().minusSeconds(10)))).isFalse();
+    }
+
+    @Test
+    void assertThatRebuildTakesInOtherRevocationsAndDeletesExpiredOnes() {
+        Authentication revokedElsewhere = authentication(newSubject(), Instant.now());
+        String expiredSubject = newSubject();
+        Instant now = Instant.now();
+        revokedTokenRepository.saveAll(
+            List.of(
+                new RevokedToken().tokenId(tokenId(revokedElsewhere)).subject(revokedElsewhere.getName()).revokedAt(now).expiresAt(now.plusSeconds(60)),
+                new RevokedToken().subject(expiredSubject).revokedAt(now.minusSeconds(120)).expiresAt(now.minusSeconds(60))
+            )
+        );
+        assertThat(tokenRevocationStore.isRevoked(revokedElsewhere)).isFalse();
+
+        tokenRevocationStore.rebuild();
+
+        assertThat(tokenRevocationStore.isRevoked(revokedElsewhere)).isTrue();
+        assertThat(revokedTokenRepository.findAll())
+            .extracting(RevokedToken::getSubject)
+            .contains(revokedElsewhere.getName())
+            .doesNotContain(expiredSubject);
+    }
+
+    @Test
+    void assertThatRebuildKeepsTheRecentRevocations() {
+        String subject = newSubject();
+        Authentication issuedBefore = authentication(subject, Instant.now().minusSeconds(10));
+        tokenRevocationStore.revokeAll(subject);
+        // As if its transaction was not committed yet when the database was read
+        revokedTokenRepository.deleteAll();
+
+        tokenRevocationStore.rebuild();
+
+        assertThat(tokenRevocationStore.isRevoked(issuedBefore)).isTrue();
+    }
+
+    private static Authentication authentication(String subject, Instant issuedAt) {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(subject, "token", List.of());
+        authentication.setDetails(new TokenDetails(UUID.randomUUID().toString(), issuedAt, issuedAt.plusSeconds(60)));
+        return authentication;
+    }
+
+    private static String tokenId(Authentication authentication) {
+        return ((TokenDetails) authentication.getDetails()).getId();
+    }
+
+    private static String newSubject() {
+        return "revocation-" + RandomStringUtils.randomAlphanumeric(10).toLowerCase();
+    }
+}
@@ -0,0 +1,96 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.service.dto.BookFacetsDTO;
+import com.mycompany.myapp.service.dto.BookFacetsDTO.FacetCount;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link BookFacetService} counters.
+ */
+class BookFacetServiceTest {
+
+    private final Category novels = new Category().id(1L).name("Novels");
+
+    private final Category essays = new Category().id(2L).name("Essays");
+
+    private BookFacetService bookFacetService;
+
+    @BeforeEach
+    public void setup() {
+        bookFacetService = new BookFacetService(null, null);
+        bookFacetService.index(new Book().id(1L).author("Frank Herbert").publisher("Chilton").category(novels));
+        bookFacetService.index(new Book().id(2L).author("Frank Herbert").publisher("Putnam").category(novels));
+        bookFacetService.index(new Book().id(3L).author("Mary Shelley").publisher("Putnam").category(essays));
+        bookFacetService.index(new Book().id(4L).author(" ").publisher(null));
+    }
+
+    @Test
+    void testFacetsCountTheWholeCatalogLargestFirst() {
+        BookFacetsDTO facets = bookFacetService.getFacets(null, 10);
+
+        assertThat(facets.getTotal()).isEqualTo(4);
+        assertThat(facets.getCategories())
+            .extracting(FacetCount::getId, FacetCount::getValue, FacetCount::getCount)
+            .containsExactly(tuple(1L, "Novels", 2L), tuple(2L, "Essays", 1L));
+        assertThat(facets.getAuthors()).extracting(FacetCount::getValue).containsExactly("Frank Herbert", "Mary Shelley");
+        assertThat(facets.getPublishers()).extracting(FacetCount::getValue).containsExactly("Putnam", "Chilton");
+        assertThat(bookFacetService.getFacets(null, 1).getAuthors()).hasSize(1);
+    }
+
+    @Test
+    void testFacetsFilterByCategory() {
+        BookFacetsDTO facets = bookFacetService.getFacets(1L, 10);
+
+        assertThat(facets.getTotal()).isEqualTo(2);
+        assertThat(facets.getAuthors())
+            .extracting(FacetCount::getValue, FacetCount::getCount)
+            .containsExactly(tuple("Frank Herbert", 2L));
+        assertThat(bookFacetService.getFacets(99L, 10).getTotal()).isZero();
+    }
+
+    @Test
+    void testUpdateAndRemoveMoveTheCounts() {
+        bookFacetService.index(new Book().id(2L).author("Mary Shelley").publisher("Putnam").category(essays));
+        bookFacetService.remove(1L);
+
+        assertThat(bookFacetService.getFacets(1L, 10).getTotal()).isZero();
+        assertThat(bookFacetService.getFacets(null, 10).getCategories())
+            .extracting(FacetCount::getId, FacetCount::getCount)
+            .containsExactly(tuple(2L, 2L));
+        assertThat(bookFacetService.getFacets(null, 10).getAuthors())
+            .extracting(FacetCount::getValue, FacetCount::getCount)
+            .containsExactly(tuple("Mary Shelley", 2L));
+    }
+
+    @Test
+    void testRebuildKeepsTheUpdatesMadeWhileReading() {
+        BookRepository bookRepository = mock(BookRepository.class);
+        bookFacetService = new BookFacetService(bookRepository, null);
+        when(bookRepository.streamAllByOrderById())
+            .thenAnswer(invocation -> {
+                // Committed after the rebuild started, but not in what it reads
+                bookFacetService.index(new Book().id(5L).author("Ursula K. Le Guin").category(novels));
+                bookFacetService.remove(3L);
+                return Stream.of(
+                    new Book().id(1L).author("Frank Herbert").category(novels),
+                    new Book().id(3L).author("Mary Shelley").category(essays)
+                );
+            });
+
+        bookFacetService.rebuild();
+
+        BookFacetsDTO facets = bookFacetService.getFacets(null, 10);
+        assertThat(facets.getTotal()).isEqualTo(2);
+        assertThat(facets.getAuthors()).extracting(FacetCount::getValue).containsExactlyInAnyOrder("Frank Herbert", "Ursula K. Le Guin");
+    }
+}
@@ -0,0 +1,63 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.repository.CategoryRepository;
+import com.mycompany.myapp.service.dto.BookImportReportDTO;
+import com.mycompany.myapp.service.dto.BookImportReportDTO.RowError;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Test class for the {@link BookImportService} chunk writes.
+ */
+class BookImportServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private BookImportService bookImportService;
+
+    @BeforeEach
+    public void setup() {
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findAll()).thenReturn(List.of());
+        bookImportService =
+            new BookImportService(
+                categoryRepository,
+                mock(BookSearchService.class),
+                mock(BookFacetService.class),
+                mock(BookSuggestService.class),
+                jdbcTemplate,
+                mock(PlatformTransactionManager.class),
+                new ObjectMapper()
+            );
+    }
+
+    @Test
+    void testRejectedBatchIsRetriedRowByRow() throws Exception {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), any(int[].class)))
+            .thenThrow(new DataIntegrityViolationException("Batch failed"));
+        when(jdbcTemplate.update(anyString(), argThat((Object[] row) -> "Bad".equals(row[0])), any(int[].class)))
+            .thenThrow(new DataIntegrityViolationException("Row failed"));
+
+        String csv = "title;author\nGood;Author\nBad;Author\nAlso good;Author\n";
+        BookImportReportDTO report = bookImportService.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(report.getRowsRead()).isEqualTo(3);
+        assertThat(report.getRowsImported()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting(RowError::getLine).containsExactly(3L);
+    }
+}
@@ -0,0 +1,98 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.repository.BookRepository;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Test class for the {@link BookSearchService} index.
+ */
+class BookSearchServiceTest {
+
+    private BookSearchService bookSearchService;
+
+    @BeforeEach
+    public void setup() {
+        bookSearchService = new BookSearchService(null);
+        bookSearchService.index(new Book().id(1L).title("Dune").author("Frank Herbert").publisher("Chilton Books"));
+        bookSearchService.index(new Book().id(2L).title("Children of Dune").author("Frank Herbert").publisher("Putnam"));
+        bookSearchService.index(new Book().id(3L).title("Frankenstein").author("Mary Shelley").publisher("Lackington"));
+    }
+
+    @Test
+    void testTokenizeNormalizesCaseAndAccents() {
+        assertThat(BookSearchService.tokenize("Les Misérables, TOME-1")).containsExactly("les", "miserables", "tome", "1");
+        assertThat(BookSearchService.tokenize("  ")).isEmpty();
+        assertThat(BookSearchService.tokenize(null)).isEmpty();
+    }
+
+    @Test
+    void testSearchRanksTitleMatchesFirst() {
+        assertThat(bookSearchService.search("dune", PageRequest.of(0, 10)).getContent())
+            .extracting(Book::getId)
+            .containsExactly(1L, 2L);
+        assertThat(bookSearchService.search("frank", PageRequest.of(0, 10)).getContent())
+            .extracting(Book::getId)
+            .containsExactly(1L, 2L);
+    }
+
+    @Test
+    void testSearchPrefersBooksMatchingMoreTerms() {
+        assertThat(bookSearchService.search("children dune", PageRequest.of(0, 10)).getContent())
+            .extracting(Book::getId)
+            .containsExactly(2L, 1L);
+    }
+
+    @Test
+    void testSearchIsPaginated() {
+        Page<Book> page = bookSearchService.search("herbert", PageRequest.of(1, 1));
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent()).extracting(Book::getId).containsExactly(2L);
+    }
+
+    @Test
+    void testIndexReplacesAndRemoveForgets() {
+        bookSearchService.index(new Book().id(1L).title("Dune Messiah").author("Frank Herbert"));
+        assertThat(bookSearchService.search("messiah", PageRequest.of(0, 10)).getContent()).extracting(Book::getId).containsExactly(1L);
+        assertThat(bookSearchService.search("chilton", PageRequest.of(0, 10)).getContent()).isEmpty();
+
+        bookSearchService.remove(1L);
+        assertThat(bookSearchService.search("messiah", PageRequest.of(0, 10)).getContent()).isEmpty();
+        assertThat(bookSearchService.search("dune", PageRequest.of(0, 10)).getContent()).extracting(Book::getId).containsExactly(2L);
+    }
+
+    @Test
+    void testRebuildKeepsTheChangesMadeWhileLoading() {
+        BookRepository bookRepository = mock(BookRepository.class);
+        bookSearchService = new BookSearchService(bookRepository);
+        when(bookRepository.findAll(any(Pageable.class), anySet()))
+            .thenAnswer(invocation -> {
+                // Committed after the rebuild started, but not in what it loads
+                bookSearchService.index(new Book().id(4L).title("The Dispossessed").author("Ursula K. Le Guin"));
+                bookSearchService.remove(3L);
+                return new PageImpl<>(
+                    List.of(new Book().id(1L).title("Dune"), new Book().id(3L).title("Frankenstein")),
+                    invocation.getArgument(0),
+                    2
+                );
+            });
+
+        bookSearchService.rebuildIndex();
+
+        assertThat(bookSearchService.search("dune", PageRequest.of(0, 10)).getContent()).extracting(Book::getId).containsExactly(1L);
+        assertThat(bookSearchService.search("dispossessed", PageRequest.of(0, 10)).getContent()).extracting(Book::getId).containsExactly(4L);
+        assertThat(bookSearchService.search("frankenstein", PageRequest.of(0, 10)).getContent()).isEmpty();
+    }
+}
@@ -0,0 +1,104 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.BorrowingRepository;
+import com.mycompany.myapp.service.dto.BookSuggestionDTO;
+import com.mycompany.myapp.service.dto.BookSuggestionDTO.Field;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link BookSuggestService} prefix tree.
+ */
+class BookSuggestServiceTest {
+
+    private BookSuggestService bookSuggestService;
+
+    @BeforeEach
+    public void setup() {
+        bookSuggestService = new BookSuggestService(null, null, null);
+        bookSuggestService.index(new Book().id(1L).title("Dune").author("Frank Herbert"));
+        bookSuggestService.index(new Book().id(2L).title("Dune Messiah").author("Frank Herbert"));
+        bookSuggestService.index(new Book().id(3L).title("Frankenstein").author("Mary Shelley"));
+    }
+
+    @Test
+    void testSuggestCompletesWordStartsByPopularity() {
+        assertThat(bookSuggestService.suggest("fRAN", 10))
+            .extracting(BookSuggestionDTO::getValue, BookSuggestionDTO::getField, BookSuggestionDTO::getWeight)
+            .containsExactly(tuple("Frank Herbert", Field.AUTHOR, 2L), tuple("Frankenstein", Field.TITLE, 1L));
+        assertThat(bookSuggestService.suggest("herb", 10)).extracting(BookSuggestionDTO::getValue).containsExactly("Frank Herbert");
+        assertThat(bookSuggestService.suggest("mess", 10)).extracting(BookSuggestionDTO::getValue).containsExactly("Dune Messiah");
+        assertThat(bookSuggestService.suggest("dune m", 10)).extracting(BookSuggestionDTO::getValue).containsExactly("Dune Messiah");
+        assertThat(bookSuggestService.suggest("x", 10)).isEmpty();
+        assertThat(bookSuggestService.suggest("  ", 10)).isEmpty();
+        assertThat(bookSuggestService.suggest("f", 1)).hasSize(1);
+    }
+
+    @Test
+    void testBorrowingsMakeSuggestionsMorePopular() {
+        bookSuggestService.recordBorrowing(3L);
+        bookSuggestService.recordBorrowing(3L);
+
+        assertThat(bookSuggestService.suggest("fran", 10))
+            .extracting(BookSuggestionDTO::getValue, BookSuggestionDTO::getWeight)
+            .containsExactly(tuple("Frankenstein", 3L), tuple("Frank Herbert", 2L));
+
+        // Renaming the book keeps its borrowings
+        bookSuggestService.index(new Book().id(3L).title("Frankenstein; or, The Modern Prometheus").author("Mary Shelley"));
+        assertThat(bookSuggestService.suggest("prom", 10))
+            .extracting(BookSuggestionDTO::getValue, BookSuggestionDTO::getWeight)
+            .containsExactly(tuple("Frankenstein; or, The Modern Prometheus", 3L));
+    }
+
+    @Test
+    void testRemoveWithdrawsSuggestionsNoLongerCarriedByAnyBook() {
+        bookSuggestService.remove(2L);
+        assertThat(bookSuggestService.suggest("dune", 10)).extracting(BookSuggestionDTO::getValue).containsExactly("Dune");
+        assertThat(bookSuggestService.suggest("frank h", 10))
+            .extracting(BookSuggestionDTO::getValue, BookSuggestionDTO::getWeight)
+            .containsExactly(tuple("Frank Herbert", 1L));
+
+        bookSuggestService.remove(1L);
+        assertThat(bookSuggestService.suggest("frank h", 10)).isEmpty();
+    }
+
+    @Test
+    void testSuggestMatchesPrefixesLongerThanTheIndexedKeys() {
+        String title = "The Extraordinarily Long And Winding Title Of A Book";
+        bookSuggestService.index(new Book().id(4L).title(title));
+        bookSuggestService.index(new Book().id(5L).title("The Extraordinarily Long And Winding Title Of Another Story"));
+
+        assertThat(bookSuggestService.suggest("the extraordinarily long and winding title of a b", 10))
+            .extracting(BookSuggestionDTO::getValue)
+            .containsExactly(title);
+    }
+
+    @Test
+    void testRebuildKeepsThePatchesMadeWhileReading() {
+        BookRepository bookRepository = mock(BookRepository.class);
+        BorrowingRepository borrowingRepository = mock(BorrowingRepository.class);
+        bookSuggestService = new BookSuggestService(bookRepository, borrowingRepository, null);
+        when(borrowingRepository.countByBook()).thenReturn(List.of());
+        when(bookRepository.streamAllByOrderById())
+            .thenAnswer(invocation -> {
+                // Committed after the rebuild started, but not in what it reads
+                bookSuggestService.index(new Book().id(4L).title("The Dispossessed").author("Ursula K. Le Guin"));
+                bookSuggestService.remove(3L);
+                return Stream.of(new Book().id(1L).title("Dune").author("Frank Herbert"), new Book().id(3L).title("Frankenstein"));
+            });
+
+        bookSuggestService.rebuild();
+
+        assertThat(bookSuggestService.suggest("fran", 10)).extracting(BookSuggestionDTO::getValue).containsExactly("Frank Herbert");
+        assertThat(bookSuggestService.suggest("disp", 10)).extracting(BookSuggestionDTO::getValue).containsExactly("The Dispossessed");
+    }
+}
@@ -0,0 +1,138 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.ArchivedBorrowing;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.Borrowing;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.ArchivedBorrowingRepository;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.BorrowingRepository;
+import com.mycompany.myapp.repository.FineBalanceRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for {@link BorrowingArchivalService}.
+ * <p>
+ * These tests are not transactional, as the service commits its own transactions.
+ */
+@IntegrationTest
+class BorrowingArchivalServiceIT {
+
+    private static final LocalDate CUTOFF = LocalDate.of(2025, 10, 18);
+
+    @Autowired
+    private BorrowingArchivalService borrowingArchivalService;
+
+    @Autowired
+    private ArchivedBorrowingRepository archivedBorrowingRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowingRepository borrowingRepository;
+
+    @Autowired
+    private FineBalanceService fineBalanceService;
+
+    @Autowired
+    private FineBalanceRepository fineBalanceRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Book book;
+
+    private User user;
+
+    private final List<Long> borrowingIds = new ArrayList<>();
+
+    @BeforeEach
+    public void init() {
+        book = bookRepository.saveAndFlush(new Book().title("Archived").author("Author").quantity(1));
+        user = userRepository.saveAndFlush(newUser());
+    }
+
+    @AfterEach
+    public void cleanup() {
+        borrowingRepository.deleteAllById(borrowingRepository.findAllById(borrowingIds).stream().map(Borrowing::getId).collect(Collectors.toList()));
+        archivedBorrowingRepository.deleteAllById(
+            archivedBorrowingRepository.findAllById(borrowingIds).stream().map(ArchivedBorrowing::getId).collect(Collectors.toList())
+        );
+        bookRepository.deleteById(book.getId());
+        fineBalanceRepository.findById(user.getId()).ifPresent(fineBalanceRepository::delete);
+        userRepository.delete(user);
+    }
+
+    @Test
+    void assertThatOnlyBorrowingsReturnedBeforeTheCutoffAreArchived() {
+        Borrowing old = borrow(CUTOFF.minusDays(30), CUTOFF.minusDays(1), 7);
+        Borrowing recent = borrow(CUTOFF.minusDays(30), CUTOFF, 3);
+        Borrowing open = borrow(CUTOFF.minusDays(30), null, null);
+        fineBalanceService.recompute(List.of(user.getId()));
+
+        assertThat(borrowingArchivalService.archive(CUTOFF)).isGreaterThanOrEqualTo(1);
+
+        assertThat(borrowingRepository.findById(old.getId())).isEmpty();
+        assertThat(borrowingRepository.findById(recent.getId())).isPresent();
+        assertThat(borrowingRepository.findById(open.getId())).isPresent();
+        ArchivedBorrowing archived = archivedBorrowingRepository.findById(old.getId()).orElseThrow();
+        assertThat(archived.getReturn_date()).isEqualTo(CUTOFF.minusDays(1));
+        assertThat(archived.getFine()).isEqualTo(7);
+        assertThat(archived.getBookId()).isEqualTo(book.getId());
+        assertThat(archived.getUserId()).isEqualTo(user.getId());
+        assertThat(archived.getArchivedDate()).isNotNull();
+
+        // Archived fines are still owed
+        fineBalanceService.reconcile();
+        assertThat(fineBalanceService.getBalance(user.getId())).isEqualTo(10);
+        fineBalanceService.recompute(List.of(user.getId()));
+        assertThat(fineBalanceService.getBalance(user.getId())).isEqualTo(10);
+
+        // A second run has nothing left to move
+        assertThat(borrowingArchivalService.archive(CUTOFF)).isZero();
+    }
+
+    @Test
+    void assertThatEveryChunkIsArchived() {
+        int count = BorrowingArchivalService.CHUNK_SIZE + 1;
+        List<Borrowing> returned = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            returned.add(new Borrowing().return_date(CUTOFF.minusDays(1 + i % 7)).book(book));
+        }
+        borrowingRepository.saveAllAndFlush(returned).forEach(borrowing -> borrowingIds.add(borrowing.getId()));
+
+        assertThat(borrowingArchivalService.archive(CUTOFF)).isGreaterThanOrEqualTo(count);
+
+        assertThat(borrowingRepository.findAllById(borrowingIds)).isEmpty();
+        assertThat(archivedBorrowingRepository.findAllById(borrowingIds)).hasSize(count);
+    }
+
+    private Borrowing borrow(LocalDate dueDate, LocalDate returnDate, Integer fine) {
+        Borrowing borrowing = borrowingRepository.saveAndFlush(
+            new Borrowing().due_date(dueDate).return_date(returnDate).fine(fine).book(book).user(user)
+        );
+        borrowingIds.add(borrowing.getId());
+        return borrowing;
+    }
+
+    private static User newUser() {
+        User user = new User();
+        user.setLogin(RandomStringUtils.randomAlphabetic(10).toLowerCase());
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        return user;
+    }
+}
@@ -0,0 +1,267 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.Borrowing;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.BorrowingRepository;
+import com.mycompany.myapp.repository.FineBalanceRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.service.dto.CirculationOperationDTO;
+import com.mycompany.myapp.service.dto.CirculationResultDTO;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link CirculationService}.
+ * <p>
+ * These tests are not transactional, as the service commits its own transactions.
+ */
+@IntegrationTest
+class CirculationServiceIT {
+
+    private final Logger log = LoggerFactory.getLogger(CirculationServiceIT.class);
+
+    private static final int COPIES = 50;
+
+    private static final int CHECKOUTS = 400;
+
+    private static final int DESKS = 16;
+
+    private static final int FINE_AMOUNT = 2;
+
+    @Autowired
+    private CirculationService circulationService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowingRepository borrowingRepository;
+
+    @Autowired
+    private FineBalanceService fineBalanceService;
+
+    @Autowired
+    private FineBalanceRepository fineBalanceRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Book book;
+
+    private User user;
+
+    private final List<User> patrons = new ArrayList<>();
+
+    @BeforeEach
+    public void init() {
+        book = bookRepository.saveAndFlush(new Book().title("Circulating").author("Author").fine_amount(FINE_AMOUNT).quantity(COPIES));
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        borrowingRepository.deleteAll(borrowingsOfBook());
+        bookRepository.deleteById(book.getId());
+        if (user != null) {
+            fineBalanceRepository.findById(user.getId()).ifPresent(fineBalanceRepository::delete);
+            userRepository.delete(user);
+        }
+        userRepository.deleteAll(patrons);
+    }
+
+    @Test
+    void assertThatParallelCheckoutsNeverOversell() throws Exception {
+        for (int i = 0; i < DESKS; i++) {
+            patrons.add(userRepository.saveAndFlush(newUser()));
+        }
+        // Warm up both variants before measuring them
+        checkoutInParallel(this::checkoutUnderLock);
+        checkoutInParallel(circulationService::checkout);
+        long lockedMillis = checkoutInParallel(this::checkoutUnderLock);
+        long lockFreeMillis = checkoutInParallel(circulationService::checkout);
+
+        log.info(
+            "{} parallel checkouts of {} copies on {} desks: {} ms with conditional updates, {} ms under a pessimistic lock",
+            CHECKOUTS,
+            COPIES,
+            DESKS,
+            lockFreeMillis,
+            lockedMillis
+        );
+    }
+
+    /**
+     * Put back all the copies of the book, check out {@link #CHECKOUTS} borrowings of it from {@link #DESKS} desks at
+     * once, each for a patron, and check that exactly {@link #COPIES} were checked out.
+     *
+     * @return the elapsed time in ms.
+     */
+    private long checkoutInParallel(Function<Borrowing, Borrowing> checkout) throws Exception {
+        borrowingRepository.deleteAll(borrowingsOfBook());
+        book = bookRepository.saveAndFlush(bookRepository.findById(book.getId()).orElseThrow().quantity(COPIES));
+        ExecutorService desks = Executors.newFixedThreadPool(DESKS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger unavailable = new AtomicInteger();
+        List<Future<Borrowing>> checkouts = new ArrayList<>();
+        long elapsedMillis;
+        try {
+            for (int i = 0; i < CHECKOUTS; i++) {
+                User patron = patrons.get(i % patrons.size());
+                checkouts.add(
+                    desks.submit(() -> {
+                        start.await();
+                        try {
+                            return checkout.apply(new Borrowing().book(new Book().id(book.getId())).user(patron));
+                        } catch (BookUnavailableException e) {
+                            unavailable.incrementAndGet();
+                            return null;
+                        }
+                    })
+                );
+            }
+            long startNanos = System.nanoTime();
+            start.countDown();
+            int checkedOut = 0;
+            for (Future<Borrowing> borrowing : checkouts) {
+                if (borrowing.get(1, TimeUnit.MINUTES) != null) {
+                    checkedOut++;
+                }
+            }
+            elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+            assertThat(checkedOut).isEqualTo(COPIES);
+            assertThat(unavailable).hasValue(CHECKOUTS - COPIES);
+        } finally {
+            desks.shutdownNow();
+        }
+        assertThat(bookRepository.findById(book.getId())).get().extracting(Book::getQuantity).isEqualTo(0);
+        assertThat(borrowingsOfBook()).hasSize(COPIES);
+        return elapsedMillis;
+    }
+
+    /**
+     * The baseline the circulation is measured against: the same checkout, in a transaction that first locks the book
+     * row, as every checkout for a patron did before the lock was kept to collecting ready holds.
+     */
+    private Borrowing checkoutUnderLock(Borrowing borrowing) {
+        return transactionTemplate.execute(status -> {
+            em.find(Book.class, borrowing.getBook().getId(), LockModeType.PESSIMISTIC_WRITE);
+            return circulationService.checkout(borrowing);
+        });
+    }
+
+    private List<Borrowing> borrowingsOfBook() {
+        return borrowingRepository
+            .findAll()
+            .stream()
+            .filter(b -> b.getBook() != null && book.getId().equals(b.getBook().getId()))
+            .collect(Collectors.toList());
+    }
+
+    @Test
+    void assertThatCheckinPutsTheCopyBackOnce() {
+        Borrowing borrowing = circulationService.checkout(new Borrowing().book(new Book().id(book.getId())));
+        assertThat(borrowing.getDue_date()).isEqualTo(borrowing.getDate_borrowed().plusDays(CirculationService.LOAN_PERIOD_DAYS));
+        assertThat(bookRepository.findById(book.getId())).get().extracting(Book::getQuantity).isEqualTo(COPIES - 1);
+
+        Optional<Borrowing> returned = circulationService.checkin(borrowing.getId());
+        assertThat(returned).get().extracting(Borrowing::getReturn_date).isNotNull();
+        assertThat(bookRepository.findById(book.getId())).get().extracting(Book::getQuantity).isEqualTo(COPIES);
+
+        assertThatThrownBy(() -> circulationService.checkin(borrowing.getId())).isInstanceOf(BorrowingAlreadyReturnedException.class);
+        assertThat(bookRepository.findById(book.getId())).get().extracting(Book::getQuantity).isEqualTo(COPIES);
+    }
+
+    @Test
+    void assertThatLateCheckinSettlesTheFine() {
+        user = userRepository.saveAndFlush(newUser());
+        Borrowing borrowing = circulationService.checkout(
+            new Borrowing().date_borrowed(LocalDate.now().minusDays(20)).due_date(LocalDate.now().minusDays(6)).book(book).user(user)
+        );
+
+        Optional<Borrowing> returned = circulationService.checkin(borrowing.getId());
+
+        assertThat(returned).get().extracting(Borrowing::getFine).isEqualTo(6 * FINE_AMOUNT);
+        assertThat(fineBalanceService.getBalance(user.getId())).isEqualTo(6 * FINE_AMOUNT);
+    }
+
+    @Test
+    void assertThatBatchReportsEveryOperation() {
+        user = userRepository.saveAndFlush(newUser());
+        book = bookRepository.saveAndFlush(book.quantity(1));
+        Borrowing late = circulationService.checkout(
+            new Borrowing().date_borrowed(LocalDate.now().minusDays(20)).due_date(LocalDate.now().minusDays(3)).book(book).user(user)
+        );
+
+        List<CirculationResultDTO> results = circulationService.execute(
+            Arrays.asList(
+                CirculationOperationDTO.checkout(book.getId(), user.getId()),
+                CirculationOperationDTO.checkin(late.getId()),
+                CirculationOperationDTO.checkout(book.getId(), user.getId()),
+                CirculationOperationDTO.checkin(late.getId()),
+                CirculationOperationDTO.checkout(Long.MAX_VALUE, null),
+                CirculationOperationDTO.checkin(Long.MAX_VALUE),
+                new CirculationOperationDTO()
+            )
+        );
+
+        assertThat(results).extracting(CirculationResultDTO::getError)
+            .containsExactly(null, null, "bookunavailable", "alreadyreturned", "booknotfound", "idnotfound", "typenull");
+        // The copy returned by the batch was checked out by the same batch
+        assertThat(results.get(0).getBorrowing().getId()).isNotNull();
+        assertThat(results.get(0).getBorrowing().getDue_date()).isEqualTo(LocalDate.now().plusDays(CirculationService.LOAN_PERIOD_DAYS));
+        assertThat(results.get(1).getBorrowing().getReturn_date()).isEqualTo(LocalDate.now());
+        assertThat(bookRepository.findById(book.getId())).get().extracting(Book::getQuantity).isEqualTo(0);
+        assertThat(borrowingRepository.findById(late.getId())).get().extracting(Borrowing::getFine).isEqualTo(3 * FINE_AMOUNT);
+        assertThat(fineBalanceService.getBalance(user.getId())).isEqualTo(3 * FINE_AMOUNT);
+    }
+
+    @Test
+    void assertThatCheckinOfUnknownBorrowingIsEmpty() {
+        assertThat(circulationService.checkin(Long.MAX_VALUE)).isEmpty();
+    }
+
+    private static User newUser() {
+        User user = new User();
+        user.setLogin(RandomStringUtils.randomAlphabetic(10).toLowerCase());
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        return user;
+    }
+}
@@ -0,0 +1,131 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.Borrowing;
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.CirculationDailyStat;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.BorrowingRepository;
+import com.mycompany.myapp.repository.CategoryRepository;
+import com.mycompany.myapp.repository.CirculationDailyStatRepository;
+import com.mycompany.myapp.service.dto.CirculationStatsDTO;
+import com.mycompany.myapp.service.dto.CirculationStatsDTO.PeriodCount;
+import com.mycompany.myapp.service.dto.CirculationStatsDTO.RankCount;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for {@link CirculationStatsService}.
+ * <p>
+ * These tests are not transactional, as loans are only counted once they are committed.
+ */
+@IntegrationTest
+class CirculationStatsServiceIT {
+
+    private static final LocalDate MONDAY = LocalDate.of(2031, 3, 3);
+
+    private static final LocalDate SUNDAY = LocalDate.of(2031, 3, 9);
+
+    private static final LocalDate NEXT_MONTH = LocalDate.of(2031, 4, 1);
+
+    @Autowired
+    private CirculationStatsService circulationStatsService;
+
+    @Autowired
+    private CirculationService circulationService;
+
+    @Autowired
+    private CirculationDailyStatRepository circulationDailyStatRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowingRepository borrowingRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Category category;
+
+    private Book popular;
+
+    private Book other;
+
+    private final List<Borrowing> borrowings = new ArrayList<>();
+
+    @BeforeEach
+    public void init() {
+        // Loans counted by other tests are written first, so each test counts its own
+        circulationStatsService.flush();
+        category = categoryRepository.saveAndFlush(new Category().name("Statistics"));
+        popular = bookRepository.saveAndFlush(new Book().title("Popular").author("Author").quantity(10).category(category));
+        other = bookRepository.saveAndFlush(new Book().title("Other").author("Author").quantity(10).category(category));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        borrowingRepository.deleteAll(borrowings);
+        circulationDailyStatRepository.deleteAll(
+            circulationDailyStatRepository
+                .findAll()
+                .stream()
+                .filter(stat -> stat.getBookId().equals(popular.getId()) || stat.getBookId().equals(other.getId()))
+                .collect(Collectors.toList())
+        );
+        bookRepository.deleteAllById(List.of(popular.getId(), other.getId()));
+        categoryRepository.delete(category);
+    }
+
+    @Test
+    void assertThatCheckoutsAreCountedAndRolledUp() {
+        checkout(popular, MONDAY);
+        checkout(popular, MONDAY);
+        checkout(popular, SUNDAY);
+        checkout(other, NEXT_MONTH);
+        assertThat(circulationStatsService.flush()).isEqualTo(3);
+
+        CirculationStatsDTO stats = circulationStatsService.getStats(MONDAY.withDayOfMonth(1), NEXT_MONTH.plusDays(29));
+
+        assertThat(stats.getTotal()).isEqualTo(4);
+        assertThat(stats.getDays()).extracting(PeriodCount::getStart).containsExactly(MONDAY, SUNDAY, NEXT_MONTH);
+        assertThat(stats.getDays()).extracting(PeriodCount::getLoans).containsExactly(2L, 1L, 1L);
+        assertThat(stats.getWeeks()).extracting(PeriodCount::getStart).containsExactly(MONDAY, NEXT_MONTH.minusDays(1));
+        assertThat(stats.getWeeks()).extracting(PeriodCount::getLoans).containsExactly(3L, 1L);
+        assertThat(stats.getMonths()).extracting(PeriodCount::getStart).containsExactly(MONDAY.withDayOfMonth(1), NEXT_MONTH);
+        assertThat(stats.getMonths()).extracting(PeriodCount::getLoans).containsExactly(3L, 1L);
+        assertThat(stats.getTopBooks()).extracting(RankCount::getName).containsExactly("Popular", "Other");
+        assertThat(stats.getCategories()).extracting(RankCount::getId).containsExactly(category.getId());
+        assertThat(stats.getCategories()).extracting(RankCount::getLoans).containsExactly(4L);
+    }
+
+    @Test
+    void assertThatStatsAreCachedUntilRefreshed() {
+        LocalDate from = MONDAY.minusDays(7);
+        checkout(popular, MONDAY);
+        circulationStatsService.flush();
+        assertThat(circulationStatsService.getStats(from, MONDAY).getTotal()).isEqualTo(1);
+
+        checkout(popular, MONDAY);
+        circulationStatsService.flush();
+        assertThat(circulationStatsService.getStats(from, MONDAY).getTotal()).isEqualTo(1);
+        assertThat(circulationDailyStatRepository.findById(new CirculationDailyStat.Key(MONDAY, popular.getId())))
+            .hasValueSatisfying(stat -> assertThat(stat.getLoans()).isEqualTo(2));
+
+        circulationStatsService.refresh();
+        assertThat(circulationStatsService.getStats(from, MONDAY).getTotal()).isEqualTo(2);
+    }
+
+    private void checkout(Book book, LocalDate date) {
+        borrowings.add(circulationService.checkout(new Borrowing().date_borrowed(date).book(book)));
+    }
+}
@@ -0,0 +1,124 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.Borrowing;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.BorrowingRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+/**
+ * Integration tests for {@link DueDateReminderService}.
+ */
+@IntegrationTest
+class DueDateReminderServiceIT {
+
+    private static final LocalDate TODAY = LocalDate.of(2032, 6, 1);
+
+    @Autowired
+    private DueDateReminderService dueDateReminderService;
+
+    @MockBean
+    private MailService mailService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowingRepository borrowingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<Book> books = new ArrayList<>();
+
+    private final List<Borrowing> borrowings = new ArrayList<>();
+
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    public void init() {
+        when(mailService.sendEmailNow(anyString(), anyString(), anyString(), anyBoolean(), anyBoolean())).thenReturn(true);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        borrowingRepository.deleteAll(borrowings);
+        bookRepository.deleteAll(books);
+        userRepository.deleteAll(users);
+    }
+
+    @Test
+    void assertThatEachUserGetsOneDigestOfTheirDueBorrowings() {
+        User reader = newUser("reader@example.com");
+        borrow(reader, "Tom & Jerry", TODAY, null);
+        borrow(reader, "Second due", TODAY.plusDays(DueDateReminderService.REMINDER_DAYS), null);
+        borrow(reader, "Already returned", TODAY, TODAY.minusDays(1));
+        borrow(reader, "Due later", TODAY.plusDays(DueDateReminderService.REMINDER_DAYS + 1), null);
+        User other = newUser("other@example.com");
+        borrow(other, "Other book", TODAY.plusDays(1), null);
+        borrow(newUser(null), "Without email", TODAY, null);
+
+        assertThat(dueDateReminderService.remind(TODAY)).isEqualTo(2);
+
+        verify(mailService)
+            .sendEmailNow(
+                eq("reader@example.com"),
+                eq("Your Libsystem loans are due soon"),
+                argThat(
+                    content ->
+                        content.contains("Dear " + reader.getLogin()) &&
+                        content.contains("Tom &amp; Jerry") &&
+                        content.contains("Second due") &&
+                        !content.contains("Already returned") &&
+                        !content.contains("Due later")
+                ),
+                eq(false),
+                eq(true)
+            );
+        verify(mailService)
+            .sendEmailNow(eq("other@example.com"), anyString(), argThat(content -> content.contains("Other book")), eq(false), eq(true));
+        verify(mailService, times(2)).sendEmailNow(anyString(), anyString(), anyString(), anyBoolean(), anyBoolean());
+    }
+
+    private void borrow(User user, String title, LocalDate dueDate, LocalDate returnDate) {
+        Book book = bookRepository.saveAndFlush(new Book().title(title).author("Author").quantity(1));
+        books.add(book);
+        borrowings.add(
+            borrowingRepository.saveAndFlush(
+                new Borrowing().book(book).user(user).date_borrowed(dueDate.minusDays(14)).due_date(dueDate).return_date(returnDate)
+            )
+        );
+    }
+
+    private User newUser(String email) {
+        User user = new User();
+        user.setLogin(RandomStringUtils.randomAlphabetic(10).toLowerCase());
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        user.setEmail(email);
+        user.setLangKey("en");
+        user = userRepository.saveAndFlush(user);
+        users.add(user);
+        return user;
+    }
+}
@@ -0,0 +1,125 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.Borrowing;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.BorrowingRepository;
+import com.mycompany.myapp.repository.FineBalanceRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for {@link FineAccrualService}.
+ * <p>
+ * These tests are not transactional, as the service commits its own transactions.
+ */
+@IntegrationTest
+class FineAccrualServiceIT {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 18);
+
+    private static final int FINE_AMOUNT = 5;
+
+    @Autowired
+    private FineAccrualService fineAccrualService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowingRepository borrowingRepository;
+
+    @Autowired
+    private FineBalanceService fineBalanceService;
+
+    @Autowired
+    private FineBalanceRepository fineBalanceRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Book book;
+
+    private User user;
+
+    private final List<Borrowing> borrowings = new ArrayList<>();
+
+    @BeforeEach
+    public void init() {
+        book = bookRepository.saveAndFlush(new Book().title("Overdue").author("Author").fine_amount(FINE_AMOUNT).quantity(1));
+        user = userRepository.saveAndFlush(newUser());
+    }
+
+    @AfterEach
+    public void cleanup() {
+        borrowingRepository.deleteAll(borrowings);
+        bookRepository.deleteById(book.getId());
+        fineBalanceRepository.findById(user.getId()).ifPresent(fineBalanceRepository::delete);
+        userRepository.delete(user);
+    }
+
+    @Test
+    void assertThatOnlyOpenOverdueBorrowingsAccrueFines() {
+        Borrowing overdue = borrow(TODAY.minusDays(3), null);
+        Borrowing dueToday = borrow(TODAY, null);
+        Borrowing returned = borrow(TODAY.minusDays(10), TODAY.minusDays(1));
+
+        fineAccrualService.accrueFines(TODAY);
+
+        assertThat(fineOf(overdue)).isEqualTo(3 * FINE_AMOUNT);
+        assertThat(fineOf(dueToday)).isNull();
+        assertThat(fineOf(returned)).isNull();
+        assertThat(fineBalanceService.getBalance(user.getId())).isEqualTo(3 * FINE_AMOUNT);
+
+        // Fines are recomputed, not added up, on the next run
+        fineAccrualService.accrueFines(TODAY.plusDays(1));
+        assertThat(fineOf(overdue)).isEqualTo(4 * FINE_AMOUNT);
+        assertThat(fineOf(dueToday)).isEqualTo(FINE_AMOUNT);
+        assertThat(fineBalanceService.getBalance(user.getId())).isEqualTo(5 * FINE_AMOUNT);
+    }
+
+    @Test
+    void assertThatEveryChunkIsAccrued() {
+        int count = FineAccrualService.CHUNK_SIZE * 2 + 1;
+        List<Borrowing> overdue = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            overdue.add(new Borrowing().due_date(TODAY.minusDays(1 + i % 7)).book(book));
+        }
+        borrowings.addAll(borrowingRepository.saveAllAndFlush(overdue));
+
+        assertThat(fineAccrualService.accrueFines(TODAY)).isGreaterThanOrEqualTo(count);
+
+        assertThat(borrowingRepository.findAllById(borrowings.stream().map(Borrowing::getId).collect(Collectors.toList())))
+            .allSatisfy(b -> assertThat(b.getFine()).isEqualTo(FINE_AMOUNT * (int) (TODAY.toEpochDay() - b.getDue_date().toEpochDay())));
+    }
+
+    private Borrowing borrow(LocalDate dueDate, LocalDate returnDate) {
+        Borrowing borrowing = borrowingRepository.saveAndFlush(new Borrowing().due_date(dueDate).return_date(returnDate).book(book).user(user));
+        borrowings.add(borrowing);
+        return borrowing;
+    }
+
+    private Integer fineOf(Borrowing borrowing) {
+        return borrowingRepository.findById(borrowing.getId()).orElseThrow().getFine();
+    }
+
+    private static User newUser() {
+        User user = new User();
+        user.setLogin(RandomStringUtils.randomAlphabetic(10).toLowerCase());
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        return user;
+    }
+}
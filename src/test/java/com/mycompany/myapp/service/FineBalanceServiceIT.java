@@ -0,0 +1,89 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Borrowing;
+import com.mycompany.myapp.domain.FineBalance;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.BorrowingRepository;
+import com.mycompany.myapp.repository.FineBalanceRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import java.util.List;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link FineBalanceService}.
+ */
+@IntegrationTest
+@Transactional
+class FineBalanceServiceIT {
+
+    @Autowired
+    private FineBalanceService fineBalanceService;
+
+    @Autowired
+    private FineBalanceRepository fineBalanceRepository;
+
+    @Autowired
+    private BorrowingRepository borrowingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    public void init() {
+        user = userRepository.saveAndFlush(newUser());
+    }
+
+    @Test
+    void assertThatDeltasAreAddedToTheBalance() {
+        assertThat(fineBalanceService.getBalance(user.getId())).isZero();
+
+        borrowingRepository.saveAndFlush(new Borrowing().fine(10).user(user));
+        fineBalanceService.addToBalance(user.getId(), 10);
+        assertThat(fineBalanceService.getBalance(user.getId())).isEqualTo(10);
+
+        fineBalanceService.addToBalance(user.getId(), 5);
+        assertThat(fineBalanceService.getBalance(user.getId())).isEqualTo(15);
+    }
+
+    @Test
+    void assertThatBalancesAreRecomputedFromTheBorrowings() {
+        borrowingRepository.saveAndFlush(new Borrowing().fine(10).user(user));
+        borrowingRepository.saveAndFlush(new Borrowing().fine(7).user(user));
+        borrowingRepository.saveAndFlush(new Borrowing().user(user));
+
+        fineBalanceService.recompute(List.of(user.getId()));
+
+        assertThat(fineBalanceService.getBalance(user.getId())).isEqualTo(17);
+    }
+
+    @Test
+    void assertThatReconciliationCorrectsDriftedBalances() {
+        borrowingRepository.saveAndFlush(new Borrowing().fine(10).user(user));
+        User other = userRepository.saveAndFlush(newUser());
+        borrowingRepository.saveAndFlush(new Borrowing().fine(3).user(other));
+        fineBalanceRepository.saveAndFlush(new FineBalance().userId(user.getId()).balance(99));
+
+        assertThat(fineBalanceService.reconcile()).isGreaterThanOrEqualTo(2);
+
+        assertThat(fineBalanceService.getBalance(user.getId())).isEqualTo(10);
+        assertThat(fineBalanceService.getBalance(other.getId())).isEqualTo(3);
+        assertThat(fineBalanceService.reconcile()).isZero();
+    }
+
+    private static User newUser() {
+        User user = new User();
+        user.setLogin(RandomStringUtils.randomAlphabetic(10).toLowerCase());
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        return user;
+    }
+}
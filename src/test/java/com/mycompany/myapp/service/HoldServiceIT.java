@@ -0,0 +1,168 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.Borrowing;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.BorrowingRepository;
+import com.mycompany.myapp.repository.HoldRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.service.dto.HoldDTO;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+
+/**
+ * Integration tests for {@link HoldService}.
+ * <p>
+ * These tests are not transactional, as the service and the circulation commit their own transactions.
+ */
+@IntegrationTest
+class HoldServiceIT {
+
+    private static final String TITLE = "Popular";
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private CirculationService circulationService;
+
+    @Autowired
+    private BookSearchService bookSearchService;
+
+    @MockBean
+    private MailService mailService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowingRepository borrowingRepository;
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Book book;
+
+    private final List<User> users = new ArrayList<>();
+
+    private Borrowing borrowing;
+
+    @BeforeEach
+    public void init() {
+        book = bookRepository.saveAndFlush(new Book().title(TITLE).author("Author").quantity(1));
+        borrowing = circulationService.checkout(new Borrowing().book(book).user(newUser()));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        holdRepository.findAll().stream().filter(hold -> book.getId().equals(hold.getBook().getId())).forEach(holdRepository::delete);
+        holdService.rebuild();
+        borrowingRepository.deleteAll(
+            borrowingRepository.findAll().stream().filter(b -> book.getId().equals(b.getBook().getId())).collect(Collectors.toList())
+        );
+        bookRepository.deleteById(book.getId());
+        userRepository.deleteAll(users);
+    }
+
+    @Test
+    void assertThatReturnServesTheFirstWaitingHold() {
+        User first = newUser();
+        User second = newUser();
+        assertThat(holdService.place(book.getId(), first)).get().extracting(HoldDTO::getPosition).isEqualTo(1);
+        assertThat(holdService.place(book.getId(), second)).get().extracting(HoldDTO::getPosition).isEqualTo(2);
+        assertThatThrownBy(() -> holdService.place(book.getId(), first)).isInstanceOf(HoldAlreadyPlacedException.class);
+
+        circulationService.checkin(borrowing.getId());
+
+        // The returned copy is reserved for the first hold
+        assertThat(bookRepository.findById(book.getId())).get().extracting(Book::getQuantity).isEqualTo(0);
+        assertThat(holdService.getHoldsOfBook(book.getId()))
+            .extracting(HoldDTO::getLogin, HoldDTO::getPosition)
+            .containsExactly(tuple(first.getLogin(), null), tuple(second.getLogin(), 1));
+        verify(mailService).sendHoldReadyEmail(argThat(user -> first.getLogin().equals(user.getLogin())), eq(TITLE));
+
+        assertThatThrownBy(() -> circulationService.checkout(new Borrowing().book(book).user(second))).isInstanceOf(BookUnavailableException.class);
+        circulationService.checkout(new Borrowing().book(book).user(first));
+        assertThat(bookRepository.findById(book.getId())).get().extracting(Book::getQuantity).isEqualTo(0);
+        assertThat(holdService.getHoldsOfUser(first.getLogin())).isEmpty();
+        assertThat(holdService.getHoldsOfUser(second.getLogin())).extracting(HoldDTO::getPosition).containsExactly(1);
+    }
+
+    @Test
+    void assertThatCancellingAReadyHoldPassesTheCopyOn() {
+        User first = newUser();
+        User second = newUser();
+        HoldDTO firstHold = holdService.place(book.getId(), first).orElseThrow();
+        HoldDTO secondHold = holdService.place(book.getId(), second).orElseThrow();
+        circulationService.checkin(borrowing.getId());
+
+        assertThat(holdService.cancel(firstHold.getId(), second.getLogin())).isEmpty();
+        assertThat(holdService.cancel(firstHold.getId(), first.getLogin())).isPresent();
+        assertThat(holdService.getHoldsOfUser(second.getLogin())).extracting(HoldDTO::getReadyDate).doesNotContainNull();
+        assertThat(bookRepository.findById(book.getId())).get().extracting(Book::getQuantity).isEqualTo(0);
+
+        assertThat(holdService.cancel(secondHold.getId(), null)).isPresent();
+        assertThat(holdService.getHoldsOfBook(book.getId())).isEmpty();
+        assertThat(bookRepository.findById(book.getId())).get().extracting(Book::getQuantity).isEqualTo(1);
+        assertThat(bookSearchService.search(TITLE, PageRequest.of(0, 100)).getContent())
+            .filteredOn(found -> book.getId().equals(found.getId()))
+            .extracting(Book::getQuantity)
+            .containsExactly(1);
+        assertThatThrownBy(() -> holdService.place(book.getId(), first)).isInstanceOf(BookAvailableException.class);
+    }
+
+    @Test
+    void assertThatAnUncollectedHoldExpires() {
+        User first = newUser();
+        User second = newUser();
+        holdService.place(book.getId(), first).orElseThrow();
+        holdService.place(book.getId(), second).orElseThrow();
+        circulationService.checkin(borrowing.getId());
+
+        // Not yet expired within the pickup days
+        holdService.expire(Instant.now().plus(HoldService.PICKUP_DAYS - 1, ChronoUnit.DAYS));
+        assertThat(holdService.getHoldsOfUser(first.getLogin())).extracting(HoldDTO::getReadyDate).doesNotContainNull();
+
+        // The copy is passed on to the second hold, then put back
+        assertThat(holdService.expire(Instant.now().plus(HoldService.PICKUP_DAYS + 1, ChronoUnit.DAYS))).isPositive();
+        assertThat(holdService.getHoldsOfUser(first.getLogin())).isEmpty();
+        assertThat(holdService.getHoldsOfUser(second.getLogin())).extracting(HoldDTO::getReadyDate).doesNotContainNull();
+        assertThat(bookRepository.findById(book.getId())).get().extracting(Book::getQuantity).isEqualTo(0);
+
+        holdService.expire(Instant.now().plus(2 * HoldService.PICKUP_DAYS + 1, ChronoUnit.DAYS));
+        assertThat(holdService.getHoldsOfBook(book.getId())).isEmpty();
+        assertThat(bookRepository.findById(book.getId())).get().extracting(Book::getQuantity).isEqualTo(1);
+    }
+
+    private User newUser() {
+        User user = new User();
+        user.setLogin(RandomStringUtils.randomAlphabetic(10).toLowerCase());
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        user = userRepository.saveAndFlush(user);
+        users.add(user);
+        return user;
+    }
+}
@@ -0,0 +1,200 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Spaces;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.SpacesRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.service.dto.SpaceAvailabilityDTO;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for {@link SpaceBookingService}.
+ * <p>
+ * These tests are not transactional, as the bookings are made by concurrent threads that commit their own transactions.
+ */
+@IntegrationTest
+class SpaceBookingServiceIT {
+
+    private static final LocalDate DAY = LocalDate.now().plusYears(5);
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private SpaceBookingService spaceBookingService;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private SpaceAvailabilityService spaceAvailabilityService;
+
+    @Autowired
+    private SpacesRepository spacesRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<User> users = new ArrayList<>();
+
+    @AfterEach
+    public void cleanup() {
+        spacesRepository.deleteAll(
+            spacesRepository.findAll().stream().filter(spaces -> DAY.equals(spaces.getDate())).collect(Collectors.toList())
+        );
+        spaceBookingService.reconcile();
+        spaceAvailabilityService.evict(DAY);
+        userRepository.deleteAll(users);
+    }
+
+    @Test
+    void assertThatConcurrentBookingsNeverExceedTheCapacity() throws Exception {
+        List<Callable<Boolean>> bookings = new ArrayList<>();
+        for (int i = 0; i < capacity() * 3; i++) {
+            User user = newUser();
+            bookings.add(() -> book(user));
+        }
+
+        assertThat(runConcurrently(bookings)).isEqualTo(capacity());
+        assertThat(countBookings()).isEqualTo(capacity());
+        assertThat(spaceBookingService.getBooked(DAY)).isEqualTo(capacity());
+        assertThat(spaceBookingService.reconcile()).isZero();
+    }
+
+    @Test
+    void assertThatConcurrentBookingsOfAUserAreAcceptedOnce() throws Exception {
+        User user = newUser();
+        List<Callable<Boolean>> bookings = new ArrayList<>();
+        for (int i = 0; i < THREADS * 4; i++) {
+            bookings.add(() -> book(user));
+        }
+
+        assertThat(runConcurrently(bookings)).isEqualTo(1);
+        assertThat(countBookings()).isEqualTo(1);
+        assertThatThrownBy(() -> spaceBookingService.book(new Spaces().date(DAY).user(user)))
+            .isInstanceOf(SpaceAlreadyBookedException.class);
+    }
+
+    @Test
+    void assertThatCancelledAndExternalBookingsAreCounted() {
+        User user = newUser();
+        Spaces spaces = spaceBookingService.book(new Spaces().date(DAY).user(user));
+        assertThat(spaceBookingService.getBooked(DAY)).isEqualTo(1);
+
+        spaceBookingService.cancel(spaces.getDate(), user.getId());
+        spacesRepository.deleteById(spaces.getId());
+        assertThat(spaceBookingService.getBooked(DAY)).isZero();
+        spaceBookingService.book(new Spaces().date(DAY).user(user));
+
+        // Written without the service, so only counted once reconciled
+        spacesRepository.saveAndFlush(new Spaces().date(DAY).user(newUser()));
+        assertThat(spaceBookingService.getBooked(DAY)).isEqualTo(1);
+        assertThat(spaceBookingService.reconcile()).isEqualTo(1);
+        assertThat(spaceBookingService.getBooked(DAY)).isEqualTo(2);
+    }
+
+    @Test
+    void assertThatTheAvailabilityOfABookedDayIsEvicted() {
+        LocalDate otherDay = DAY.minusMonths(1);
+        assertThat(spaceAvailabilityService.getAvailability(DAY, DAY)).extracting(SpaceAvailabilityDTO::getBooked).containsExactly(0);
+        assertThat(spaceAvailabilityService.getAvailability(otherDay, otherDay)).extracting(SpaceAvailabilityDTO::getBooked).containsExactly(0);
+
+        spaceBookingService.book(new Spaces().date(DAY).user(newUser()));
+        spacesRepository.saveAndFlush(new Spaces().date(otherDay));
+
+        assertThat(spaceAvailabilityService.getAvailability(DAY, DAY))
+            .extracting(SpaceAvailabilityDTO::getBooked, SpaceAvailabilityDTO::getFree)
+            .containsExactly(tuple(1, capacity() - 1));
+        // Written without the service, so still cached
+        assertThat(spaceAvailabilityService.getAvailability(otherDay, otherDay)).extracting(SpaceAvailabilityDTO::getBooked).containsExactly(0);
+        spacesRepository.deleteAll(
+            spacesRepository.findAll().stream().filter(spaces -> otherDay.equals(spaces.getDate())).collect(Collectors.toList())
+        );
+        spaceAvailabilityService.evict(otherDay);
+    }
+
+    @Test
+    void assertThatAClosedDayTakesNoBooking() {
+        LocalDate closed = LocalDate.of(2040, 12, 25);
+        assertThat(applicationProperties.getSpaces().getCapacity(closed)).isZero();
+
+        assertThatThrownBy(() -> spaceBookingService.book(new Spaces().date(closed).user(newUser())))
+            .isInstanceOf(SpaceFullException.class);
+        assertThat(spaceAvailabilityService.getAvailability(closed, closed.plusDays(1)))
+            .extracting(SpaceAvailabilityDTO::getFree)
+            .containsExactly(0, capacity());
+        spaceAvailabilityService.evict(closed);
+    }
+
+    private int capacity() {
+        return applicationProperties.getSpaces().getCapacity(DAY);
+    }
+
+    private boolean book(User user) {
+        try {
+            spaceBookingService.book(new Spaces().date(DAY).user(user));
+            return true;
+        } catch (SpaceFullException | SpaceAlreadyBookedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Run the bookings on {@link #THREADS} threads, all started at once.
+     *
+     * @return the number of accepted bookings.
+     */
+    private int runConcurrently(List<Callable<Boolean>> bookings) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (Callable<Boolean> booking : bookings) {
+            results.add(
+                executor.submit(() -> {
+                    start.await();
+                    return booking.call();
+                })
+            );
+        }
+        start.countDown();
+        int accepted = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                accepted++;
+            }
+        }
+        executor.shutdown();
+        return accepted;
+    }
+
+    private long countBookings() {
+        return spacesRepository.findAll().stream().filter(spaces -> DAY.equals(spaces.getDate())).count();
+    }
+
+    private User newUser() {
+        User user = new User();
+        user.setLogin(RandomStringUtils.randomAlphabetic(10).toLowerCase());
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        user = userRepository.saveAndFlush(user);
+        users.add(user);
+        return user;
+    }
+}
@@ -182,4 +182,16 @@ class UserServiceIT {
         Optional<User> maybeDbUser = userRepository.findById(dbUser.getId());
         assertThat(maybeDbUser).contains(dbUser);
     }
+
+    @Test
+    @Transactional
+    void assertThatDeletedUserIdIsNotResolvedAnymore() {
+        userRepository.saveAndFlush(user);
+        assertThat(userRepository.findIdByLogin(DEFAULT_LOGIN)).contains(user.getId());
+
+        userService.deleteUser(DEFAULT_LOGIN);
+        userRepository.flush();
+
+        assertThat(userRepository.findIdByLogin(DEFAULT_LOGIN)).isEmpty();
+    }
 }
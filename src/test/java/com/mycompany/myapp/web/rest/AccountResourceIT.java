@@ -7,8 +7,10 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.config.Constants;
+import com.mycompany.myapp.domain.FineBalance;
 import com.mycompany.myapp.domain.User;
 import com.mycompany.myapp.repository.AuthorityRepository;
+import com.mycompany.myapp.repository.FineBalanceRepository;
 import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.security.AuthoritiesConstants;
 import com.mycompany.myapp.service.UserService;
@@ -45,6 +47,9 @@ class AccountResourceIT {
     @Autowired
     private AuthorityRepository authorityRepository;
 
+    @Autowired
+    private FineBalanceRepository fineBalanceRepository;
+
     @Autowired
     private UserService userService;
 
@@ -106,6 +111,28 @@ class AccountResourceIT {
             .andExpect(jsonPath("$.authorities").value(AuthoritiesConstants.ADMIN));
     }
 
+    @Test
+    @Transactional
+    @WithMockUser("account-fines")
+    void testGetAccountFines() throws Exception {
+        User user = UserResourceIT.createEntity(null);
+        user.setLogin("account-fines");
+        userRepository.saveAndFlush(user);
+
+        // A user who never owed anything
+        restAccountMockMvc
+            .perform(get("/api/account/fines").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.login").value("account-fines"))
+            .andExpect(jsonPath("$.balance").value(0));
+
+        fineBalanceRepository.saveAndFlush(new FineBalance().userId(user.getId()).balance(42));
+        restAccountMockMvc
+            .perform(get("/api/account/fines").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.balance").value(42));
+    }
+
     @Test
     void testGetUnknownAccount() throws Exception {
         restAccountMockMvc
@@ -0,0 +1,113 @@
+package com.mycompany.myapp.web.rest;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.ArchivedBorrowing;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import javax.persistence.EntityManager;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link ArchivedBorrowingResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser(ArchivedBorrowingResourceIT.LOGIN)
+class ArchivedBorrowingResourceIT {
+
+    static final String LOGIN = "archive-user";
+
+    private static final String ENTITY_API_URL = "/api/archived-borrowings";
+    private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+
+    private static final LocalDate RETURN_DATE = LocalDate.ofEpochDay(0L);
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restArchivedBorrowingMockMvc;
+
+    private ArchivedBorrowing own;
+
+    private ArchivedBorrowing other;
+
+    @BeforeEach
+    public void initTest() {
+        User user = new User();
+        user.setLogin(LOGIN);
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        em.persist(user);
+        own = createEntity(1_000_001L, user.getId());
+        other = createEntity(1_000_002L, null);
+    }
+
+    private ArchivedBorrowing createEntity(Long id, Long userId) {
+        ArchivedBorrowing archivedBorrowing = new ArchivedBorrowing();
+        archivedBorrowing.setId(id);
+        archivedBorrowing.setReturn_date(RETURN_DATE);
+        archivedBorrowing.setFine(2);
+        archivedBorrowing.setUserId(userId);
+        archivedBorrowing.setArchivedDate(Instant.now().truncatedTo(ChronoUnit.MILLIS));
+        em.persist(archivedBorrowing);
+        return archivedBorrowing;
+    }
+
+    @Test
+    @Transactional
+    void getOwnArchivedBorrowings() throws Exception {
+        em.flush();
+
+        restArchivedBorrowingMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(own.getId().intValue())))
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(other.getId().intValue()))))
+            .andExpect(jsonPath("$.[*].return_date").value(hasItem(RETURN_DATE.toString())));
+
+        restArchivedBorrowingMockMvc.perform(get(ENTITY_API_URL_ID, own.getId())).andExpect(status().isOk());
+        restArchivedBorrowingMockMvc.perform(get(ENTITY_API_URL_ID, other.getId())).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void getAllArchivedBorrowingsAsAdmin() throws Exception {
+        em.flush();
+
+        restArchivedBorrowingMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(own.getId().intValue())))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(other.getId().intValue())));
+
+        restArchivedBorrowingMockMvc
+            .perform(get(ENTITY_API_URL_ID, other.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.fine").value(2));
+    }
+
+    @Test
+    @Transactional
+    void archiveIsReadOnly() throws Exception {
+        restArchivedBorrowingMockMvc.perform(delete(ENTITY_API_URL_ID, own.getId())).andExpect(status().isMethodNotAllowed());
+    }
+}
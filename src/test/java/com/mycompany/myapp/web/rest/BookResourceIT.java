@@ -1,24 +1,39 @@
 package com.mycompany.myapp.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.Hold;
+import com.mycompany.myapp.domain.User;
 import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.CategoryRepository;
+import com.mycompany.myapp.repository.HoldRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.service.BookFacetService;
+import com.mycompany.myapp.service.BookSearchService;
+import com.mycompany.myapp.service.BookSuggestService;
+import java.time.Instant;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import javax.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -53,6 +68,24 @@ class BookResourceIT {
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookSearchService bookSearchService;
+
+    @Autowired
+    private BookFacetService bookFacetService;
+
+    @Autowired
+    private BookSuggestService bookSuggestService;
+
     @Autowired
     private EntityManager em;
 
@@ -155,6 +188,271 @@ class BookResourceIT {
             .andExpect(jsonPath("$.[*].quantity").value(hasItem(DEFAULT_QUANTITY)));
     }
 
+    @Test
+    @Transactional
+    void getAllBooksByCursor() throws Exception {
+        // Initialize the database
+        Book first = bookRepository.saveAndFlush(createEntity(em).title("first"));
+        Book second = bookRepository.saveAndFlush(createEntity(em).title("second"));
+        Book third = bookRepository.saveAndFlush(createEntity(em).title("third"));
+
+        // Get the first page, newest first
+        MvcResult result = restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?after=&size=2&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].id").value(third.getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(second.getId().intValue()))
+            .andReturn();
+
+        // Follow the link to the next page
+        String link = result.getResponse().getHeader(HttpHeaders.LINK);
+        assertThat(link).endsWith("; rel=\"next\"");
+        String next = link.substring(link.indexOf("/api/"), link.indexOf('>'));
+        restBookMockMvc
+            .perform(get(next))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(first.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksByCursorOnTitle() throws Exception {
+        // Initialize the database
+        Book b = bookRepository.saveAndFlush(createEntity(em).title("b"));
+        Book a = bookRepository.saveAndFlush(createEntity(em).title("a"));
+        Book c = bookRepository.saveAndFlush(createEntity(em).title("c"));
+
+        MvcResult result = restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?after=&size=1&sort=title,asc"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(a.getId().intValue()))
+            .andReturn();
+        String link = result.getResponse().getHeader(HttpHeaders.LINK);
+        result =
+            restBookMockMvc
+                .perform(get(link.substring(link.indexOf("/api/"), link.indexOf('>'))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[0].id").value(b.getId().intValue()))
+                .andReturn();
+        link = result.getResponse().getHeader(HttpHeaders.LINK);
+        restBookMockMvc
+            .perform(get(link.substring(link.indexOf("/api/"), link.indexOf('>'))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(c.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksWithInvalidCursor() throws Exception {
+        restBookMockMvc.perform(get(ENTITY_API_URL + "?after=not-a-cursor")).andExpect(status().isBadRequest());
+        restBookMockMvc.perform(get(ENTITY_API_URL + "?after=&sort=category,asc")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void importBooksFromCsv() throws Exception {
+        Category category = categoryRepository.saveAndFlush(new Category().name("import-category"));
+        String csv =
+            "id;title;author;fine_amount;publisher;quantity;category\n" +
+            "1;Imported one;Some author;10;Some publisher;3;import-category\n" +
+            "2;\"Imported; two\";Other author;;Other publisher;4;\n" +
+            "3;Imported three;Author;not-a-number;Publisher;1;\n" +
+            "4;Imported four;Author;1;Publisher;1;unknown-category\n" +
+            "5;Imported " + "five ".repeat(60) + ";Author;1;Publisher;1;\n" +
+            "6;Imported six;Author;1;Publisher;-1;\n";
+
+        restBookMockMvc
+            .perform(post(ENTITY_API_URL + "/_import").contentType("text/csv").content(csv))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rowsRead").value(6))
+            .andExpect(jsonPath("$.rowsImported").value(2))
+            .andExpect(jsonPath("$.rowsRejected").value(4))
+            .andExpect(jsonPath("$.errors.[*].line").value(contains(4, 5, 6, 7)));
+
+        List<Book> imported = bookRepository
+            .findAll()
+            .stream()
+            .filter(b -> b.getTitle() != null && b.getTitle().startsWith("Imported"))
+            .collect(Collectors.toList());
+        assertThat(imported).extracting(Book::getTitle).containsExactlyInAnyOrder("Imported one", "Imported; two");
+        assertThat(imported)
+            .filteredOn(b -> b.getTitle().equals("Imported one"))
+            .singleElement()
+            .satisfies(b -> {
+                assertThat(b.getFine_amount()).isEqualTo(10);
+                assertThat(b.getCategory().getId()).isEqualTo(category.getId());
+            });
+
+        bookRepository.deleteAll(imported);
+        categoryRepository.delete(category);
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void importBooksFromNdjson() throws Exception {
+        String ndjson =
+            "{\"title\":\"Imported json\",\"author\":\"Author\",\"fine_amount\":5,\"quantity\":2}\n" +
+            "\n" +
+            "{not json}\n";
+
+        restBookMockMvc
+            .perform(post(ENTITY_API_URL + "/_import").contentType("application/x-ndjson").content(ndjson))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rowsImported").value(1))
+            .andExpect(jsonPath("$.rowsRejected").value(1))
+            .andExpect(jsonPath("$.errors.[0].line").value(3));
+
+        List<Book> imported = bookRepository
+            .findAll()
+            .stream()
+            .filter(b -> "Imported json".equals(b.getTitle()))
+            .collect(Collectors.toList());
+        assertThat(imported).hasSize(1);
+        assertThat(imported.get(0).getQuantity()).isEqualTo(2);
+        bookRepository.deleteAll(imported);
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void importBooksWithInvalidHeader() throws Exception {
+        restBookMockMvc
+            .perform(post(ENTITY_API_URL + "/_import").contentType("text/csv").content("title;isbn\nA;B\n"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void importBooksRequiresAdmin() throws Exception {
+        restBookMockMvc
+            .perform(post(ENTITY_API_URL + "/_import").contentType("text/csv").content("title\nA\n"))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void exportBooksAsCsv() throws Exception {
+        // Initialize the database, outside of a transaction so that the export transaction sees the book
+        book.setTitle("Exported; one");
+        bookRepository.saveAndFlush(book);
+
+        MvcResult result = restBookMockMvc
+            .perform(get(ENTITY_API_URL + "/_export?format=csv"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        String csv = restBookMockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("text/csv"))
+            .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"books.csv\""))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        assertThat(csv.split("\n")[0]).isEqualTo("id;title;author;fine_amount;publisher;quantity;category_id");
+        assertThat(csv).contains(book.getId() + ";\"Exported; one\";" + DEFAULT_AUTHOR + ";" + DEFAULT_FINE_AMOUNT + ";");
+
+        bookRepository.deleteById(book.getId());
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void exportBooksAsNdjson() throws Exception {
+        bookRepository.saveAndFlush(book);
+
+        MvcResult result = restBookMockMvc.perform(get(ENTITY_API_URL + "/_export")).andExpect(request().asyncStarted()).andReturn();
+        String ndjson = restBookMockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/x-ndjson"))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        assertThat(ndjson.lines()).anySatisfy(line -> assertThat(line).startsWith("{\"id\":" + book.getId() + ","));
+
+        bookRepository.deleteById(book.getId());
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void exportBooksWithInvalidFormat() throws Exception {
+        restBookMockMvc.perform(get(ENTITY_API_URL + "/_export?format=xml")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportBooksRequiresAdmin() throws Exception {
+        restBookMockMvc.perform(get(ENTITY_API_URL + "/_export")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void getBookFacets() throws Exception {
+        // Initialize the database and the facet counts, outside of a transaction so that the counts are updated at once
+        Category category = categoryRepository.saveAndFlush(new Category().name("facet-category"));
+        book.setAuthor("Facet Author");
+        book.setCategory(category);
+        bookRepository.saveAndFlush(book);
+        bookFacetService.index(book);
+
+        // Get the facets of the category
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "/facets?categoryId={categoryId}", category.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.total").value(1))
+            .andExpect(jsonPath("$.categories.[0].id").value(category.getId().intValue()))
+            .andExpect(jsonPath("$.categories.[0].value").value("facet-category"))
+            .andExpect(jsonPath("$.authors.[0].value").value("Facet Author"))
+            .andExpect(jsonPath("$.authors.[0].count").value(1));
+
+        bookRepository.deleteById(book.getId());
+        bookFacetService.remove(book.getId());
+        categoryRepository.delete(category);
+    }
+
+    @Test
+    void suggestBooks() throws Exception {
+        // Initialize the database and the suggestions, outside of a transaction so that the suggestions are updated at once
+        book.setTitle("Zyzzyva Tales");
+        bookRepository.saveAndFlush(book);
+        bookSuggestService.index(book);
+
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "/_suggest?prefix=zyzz"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[0].value").value("Zyzzyva Tales"))
+            .andExpect(jsonPath("$.[0].field").value("TITLE"));
+
+        bookRepository.deleteById(book.getId());
+        bookSuggestService.remove(book.getId());
+    }
+
+    @Test
+    void suggestBooksWithInvalidSize() throws Exception {
+        restBookMockMvc.perform(get(ENTITY_API_URL + "/_suggest?prefix=zyzz&size=-1")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchBooks() throws Exception {
+        // Initialize the database and the search index, outside of a transaction so that the index is updated at once
+        book.setTitle("The Left Hand of Darkness");
+        bookRepository.saveAndFlush(book);
+        bookSearchService.index(book);
+
+        // Search the book
+        restBookMockMvc
+            .perform(get("/api/_search/books?q=darkness left"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string("X-Total-Count", "1"))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(book.getId().intValue())))
+            .andExpect(jsonPath("$.[*].author").value(hasItem(DEFAULT_AUTHOR)));
+
+        bookRepository.deleteById(book.getId());
+        bookSearchService.remove(book.getId());
+    }
+
     @Test
     @Transactional
     void getBook() throws Exception {
@@ -174,11 +472,130 @@ class BookResourceIT {
             .andExpect(jsonPath("$.quantity").value(DEFAULT_QUANTITY));
     }
 
+    @Test
+    @Transactional
+    void getBookWithETag() throws Exception {
+        // Initialize the database
+        bookRepository.saveAndFlush(book);
+
+        String etag = restBookMockMvc
+            .perform(get(ENTITY_API_URL_ID, book.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        // An unchanged book is not sent again
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL_ID, book.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, etag))
+            .andExpect(content().string(""));
+
+        // An updated book is
+        book.setTitle(UPDATED_TITLE);
+        bookRepository.saveAndFlush(book);
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL_ID, book.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value(UPDATED_TITLE));
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksWithETag() throws Exception {
+        // Initialize the database
+        bookRepository.saveAndFlush(book);
+
+        String etag = restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified());
+
+        bookRepository.saveAndFlush(createEntity(em));
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @Transactional
+    void getBookWithExpandedCategory() throws Exception {
+        // Initialize the database
+        Category category = categoryRepository.saveAndFlush(new Category().name("expanded-category"));
+        book.setCategory(category);
+        bookRepository.saveAndFlush(book);
+        em.clear();
+
+        // The category is only sent with its id unless expanded
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL_ID, book.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.category.id").value(category.getId().intValue()))
+            .andExpect(jsonPath("$.category.name").doesNotExist());
+        em.clear();
+
+        String etag = restBookMockMvc
+            .perform(get(ENTITY_API_URL_ID + "?expand=category", book.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.category.id").value(category.getId().intValue()))
+            .andExpect(jsonPath("$.category.name").value("expanded-category"))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        // Both representations have their own ETag
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL_ID, book.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk());
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL_ID + "?expand=category", book.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksWithExpandedCategory() throws Exception {
+        // Initialize the database
+        Category category = categoryRepository.saveAndFlush(new Category().name("expanded-category"));
+        book.setCategory(category);
+        bookRepository.saveAndFlush(book);
+        em.clear();
+
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&expand=category"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].category.name").value(hasItem("expanded-category")));
+        em.clear();
+
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&after=&expand=category"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].category.name").value(hasItem("expanded-category")));
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksWithInvalidExpand() throws Exception {
+        restBookMockMvc.perform(get(ENTITY_API_URL + "?expand=borrowings")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getNonExistingBook() throws Exception {
         // Get the book
-        restBookMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE))
+            .andExpect(status().isNotFound())
+            .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON));
     }
 
     @Test
@@ -346,6 +763,33 @@ class BookResourceIT {
         assertThat(testBook.getQuantity()).isEqualTo(UPDATED_QUANTITY);
     }
 
+    @Test
+    @Transactional
+    void patchQuantityServesWaitingHolds() throws Exception {
+        // Initialize the database
+        book.setQuantity(0);
+        bookRepository.saveAndFlush(book);
+        User user = userRepository.saveAndFlush(UserResourceIT.initTestUser(userRepository, em));
+        Hold hold = holdRepository.saveAndFlush(new Hold().placedDate(Instant.now()).book(book).user(user));
+
+        Book partialUpdatedBook = new Book();
+        partialUpdatedBook.setId(book.getId());
+        partialUpdatedBook.quantity(UPDATED_QUANTITY);
+
+        // One of the added copies is reserved for the hold, the other goes on the shelf
+        restBookMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedBook.getId())
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedBook))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.quantity").value(UPDATED_QUANTITY - 1));
+
+        assertThat(bookRepository.findById(book.getId())).get().extracting(Book::getQuantity).isEqualTo(UPDATED_QUANTITY - 1);
+        assertThat(holdRepository.findById(hold.getId())).get().extracting(Hold::getReadyDate).isNotNull();
+    }
+
     @Test
     @Transactional
     void patchNonExistingBook() throws Exception {
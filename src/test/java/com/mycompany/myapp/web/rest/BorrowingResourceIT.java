@@ -1,15 +1,24 @@
 package com.mycompany.myapp.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.jayway.jsonpath.JsonPath;
 import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Book;
 import com.mycompany.myapp.domain.Borrowing;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.BookRepository;
 import com.mycompany.myapp.repository.BorrowingRepository;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.service.CirculationService;
+import com.mycompany.myapp.service.dto.CirculationOperationDTO;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
@@ -52,6 +61,9 @@ class BorrowingResourceIT {
     @Autowired
     private BorrowingRepository borrowingRepository;
 
+    @Autowired
+    private BookRepository bookRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -132,6 +144,183 @@ class BorrowingResourceIT {
         assertThat(borrowingList).hasSize(databaseSizeBeforeCreate);
     }
 
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void createOpenBorrowingTakesACopy() throws Exception {
+        // Initialize the database, outside of a transaction as the circulation commits its own transactions
+        Book book = bookRepository.saveAndFlush(BookResourceIT.createEntity(em).quantity(1));
+        borrowing.setReturn_date(null);
+        borrowing.setBook(book);
+
+        String created = restBorrowingMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(borrowing)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.date_borrowed").value(DEFAULT_DATE_BORROWED.toString()))
+            .andExpect(jsonPath("$.book.quantity").value(0))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        Long id = ((Number) JsonPath.read(created, "$.id")).longValue();
+
+        // No copy is left for another open borrowing
+        restBorrowingMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(borrowing)))
+            .andExpect(status().isBadRequest());
+
+        // Returning it puts back the copy it took
+        restBorrowingMockMvc
+            .perform(post(ENTITY_API_URL_ID + "/_return", id))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.book.quantity").value(1));
+
+        borrowingRepository.deleteById(id);
+        bookRepository.deleteById(book.getId());
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void updateAndDeleteOpenBorrowingKeepTheCopies() throws Exception {
+        // Initialize the database, outside of a transaction as the circulation commits its own transactions
+        Book book = bookRepository.saveAndFlush(BookResourceIT.createEntity(em).quantity(1));
+        Book other = bookRepository.saveAndFlush(BookResourceIT.createEntity(em).quantity(1));
+        borrowing.setReturn_date(null);
+        borrowing.setBook(book);
+        String created = restBorrowingMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_checkout").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(borrowing))
+            )
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        Long id = ((Number) JsonPath.read(created, "$.id")).longValue();
+
+        // Neither a return nor a change of book can bypass the circulation
+        Borrowing returned = new Borrowing().id(id).return_date(UPDATED_RETURN_DATE);
+        restBorrowingMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, id).contentType("application/merge-patch+json").content(TestUtil.convertObjectToJsonBytes(returned))
+            )
+            .andExpect(status().isBadRequest());
+        Borrowing moved = createEntity(em).id(id).return_date(null).book(other);
+        restBorrowingMockMvc
+            .perform(put(ENTITY_API_URL_ID, id).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(moved)))
+            .andExpect(status().isBadRequest());
+        assertThat(borrowingRepository.findById(id)).get().extracting(Borrowing::getReturn_date).isNull();
+
+        // Deleting the open borrowing puts its copy back
+        restBorrowingMockMvc.perform(delete(ENTITY_API_URL_ID, id)).andExpect(status().isNoContent());
+        assertThat(borrowingRepository.existsById(id)).isFalse();
+        assertThat(bookRepository.findById(book.getId())).get().extracting(Book::getQuantity).isEqualTo(1);
+        assertThat(bookRepository.findById(other.getId())).get().extracting(Book::getQuantity).isEqualTo(1);
+
+        bookRepository.deleteById(book.getId());
+        bookRepository.deleteById(other.getId());
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void checkoutAndReturnBook() throws Exception {
+        // Initialize the database, outside of a transaction as the circulation commits its own transactions
+        Book book = bookRepository.saveAndFlush(BookResourceIT.createEntity(em).quantity(1));
+        borrowing.setReturn_date(null);
+        borrowing.setBook(book);
+
+        // Check out the only copy
+        String created = restBorrowingMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_checkout").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(borrowing))
+            )
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.book.quantity").value(0))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        Long id = ((Number) JsonPath.read(created, "$.id")).longValue();
+
+        // No copy is left
+        restBorrowingMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_checkout").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(borrowing))
+            )
+            .andExpect(status().isBadRequest());
+
+        // Return it, only once
+        restBorrowingMockMvc
+            .perform(post(ENTITY_API_URL_ID + "/_return", id))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.return_date").isNotEmpty())
+            .andExpect(jsonPath("$.book.quantity").value(1));
+        restBorrowingMockMvc.perform(post(ENTITY_API_URL_ID + "/_return", id)).andExpect(status().isBadRequest());
+        restBorrowingMockMvc.perform(post(ENTITY_API_URL_ID + "/_return", Long.MAX_VALUE)).andExpect(status().isNotFound());
+
+        borrowingRepository.deleteById(id);
+        bookRepository.deleteById(book.getId());
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void executeCirculationBatch() throws Exception {
+        // Initialize the database, outside of a transaction as the circulation commits its own transactions
+        Book book = bookRepository.saveAndFlush(BookResourceIT.createEntity(em).quantity(2));
+
+        String results = restBorrowingMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        TestUtil.convertObjectToJsonBytes(
+                            List.of(
+                                CirculationOperationDTO.checkout(book.getId(), null),
+                                CirculationOperationDTO.checkout(book.getId(), null),
+                                CirculationOperationDTO.checkout(book.getId(), null)
+                            )
+                        )
+                    )
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].succeeded").value(contains(true, true, false)))
+            .andExpect(jsonPath("$.[2].error").value("bookunavailable"))
+            .andExpect(jsonPath("$.[0].borrowing.book.quantity").value(0))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        List<Number> ids = JsonPath.read(results, "$.[0:2].borrowing.id");
+        assertThat(bookRepository.findById(book.getId())).get().extracting(Book::getQuantity).isEqualTo(0);
+
+        // Return both copies in one batch
+        restBorrowingMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        TestUtil.convertObjectToJsonBytes(
+                            List.of(CirculationOperationDTO.checkin(ids.get(0).longValue()), CirculationOperationDTO.checkin(ids.get(1).longValue()))
+                        )
+                    )
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].succeeded").value(contains(true, true)))
+            .andExpect(jsonPath("$.[*].borrowing.return_date").isNotEmpty());
+        assertThat(bookRepository.findById(book.getId())).get().extracting(Book::getQuantity).isEqualTo(2);
+
+        ids.forEach(id -> borrowingRepository.deleteById(id.longValue()));
+        bookRepository.deleteById(book.getId());
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void executeTooLargeCirculationBatch() throws Exception {
+        List<CirculationOperationDTO> operations = Collections.nCopies(
+            CirculationService.MAX_BATCH_SIZE + 1,
+            CirculationOperationDTO.checkin(Long.MAX_VALUE)
+        );
+
+        restBorrowingMockMvc
+            .perform(post(ENTITY_API_URL + "/_batch").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(operations)))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getAllBorrowings() throws Exception {
@@ -168,6 +357,42 @@ class BorrowingResourceIT {
             .andExpect(jsonPath("$.status").value(DEFAULT_STATUS.booleanValue()));
     }
 
+    @Test
+    @Transactional
+    void getBorrowingWithExpandedBookAndUser() throws Exception {
+        // Initialize the database
+        Book book = bookRepository.saveAndFlush(BookResourceIT.createEntity(em));
+        User user = UserResourceIT.createEntity(em);
+        em.persist(user);
+        borrowingRepository.saveAndFlush(borrowing.book(book).user(user));
+        em.clear();
+
+        // The associations are only sent with their id unless expanded
+        restBorrowingMockMvc
+            .perform(get(ENTITY_API_URL_ID, borrowing.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.book.id").value(book.getId().intValue()))
+            .andExpect(jsonPath("$.book.title").doesNotExist())
+            .andExpect(jsonPath("$.user.id").value(user.getId().intValue()))
+            .andExpect(jsonPath("$.user.login").doesNotExist());
+        em.clear();
+
+        restBorrowingMockMvc
+            .perform(get(ENTITY_API_URL_ID + "?expand=book", borrowing.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.book.title").value(book.getTitle()))
+            .andExpect(jsonPath("$.user.login").doesNotExist());
+        em.clear();
+
+        restBorrowingMockMvc
+            .perform(get(ENTITY_API_URL_ID + "?expand=user,book", borrowing.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.book.title").value(book.getTitle()))
+            .andExpect(jsonPath("$.user.login").value(user.getLogin()));
+
+        restBorrowingMockMvc.perform(get(ENTITY_API_URL_ID + "?expand=category", borrowing.getId())).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getNonExistingBorrowing() throws Exception {
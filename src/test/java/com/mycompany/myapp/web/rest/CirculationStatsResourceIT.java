@@ -0,0 +1,54 @@
+package com.mycompany.myapp.web.rest;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for the {@link CirculationStatsResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+class CirculationStatsResourceIT {
+
+    private static final String API_URL = "/api/stats/circulation";
+
+    @Autowired
+    private MockMvc restCirculationStatsMockMvc;
+
+    @Test
+    void getCirculationStats() throws Exception {
+        restCirculationStatsMockMvc
+            .perform(get(API_URL + "?from=2020-01-01&to=2020-12-31"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.from").value("2020-01-01"))
+            .andExpect(jsonPath("$.to").value("2020-12-31"))
+            .andExpect(jsonPath("$.days").isArray())
+            .andExpect(jsonPath("$.weeks").isArray())
+            .andExpect(jsonPath("$.months").isArray())
+            .andExpect(jsonPath("$.topBooks").isArray())
+            .andExpect(jsonPath("$.categories").isArray());
+    }
+
+    @Test
+    void getCirculationStatsOfInvalidPeriod() throws Exception {
+        restCirculationStatsMockMvc.perform(get(API_URL + "?from=2020-12-31&to=2020-01-01")).andExpect(status().isBadRequest());
+        restCirculationStatsMockMvc.perform(get(API_URL + "?from=2010-01-01&to=2020-01-01")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    void getCirculationStatsAsUser() throws Exception {
+        restCirculationStatsMockMvc.perform(get(API_URL)).andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,139 @@
+package com.mycompany.myapp.web.rest;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.jayway.jsonpath.JsonPath;
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.HoldRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.service.dto.HoldDTO;
+import javax.persistence.EntityManager;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for the {@link HoldResource} REST controller.
+ * <p>
+ * These tests are not transactional, as the holds are kept in memory once they are committed.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser(HoldResourceIT.LOGIN)
+class HoldResourceIT {
+
+    static final String LOGIN = "hold-user";
+
+    private static final String ENTITY_API_URL = "/api/holds";
+    private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restHoldMockMvc;
+
+    private Book book;
+
+    private User user;
+
+    @BeforeEach
+    public void initTest() {
+        book = bookRepository.saveAndFlush(BookResourceIT.createEntity(em).quantity(0));
+        user = new User();
+        user.setLogin(LOGIN);
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        user = userRepository.saveAndFlush(user);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        holdRepository.findAll().stream().filter(hold -> book.getId().equals(hold.getBook().getId())).forEach(holdRepository::delete);
+        bookRepository.deleteById(book.getId());
+        userRepository.delete(user);
+    }
+
+    @Test
+    void placeViewAndCancelHold() throws Exception {
+        HoldDTO hold = new HoldDTO();
+        hold.setBookId(book.getId());
+
+        String created = restHoldMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(hold)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.login").value(LOGIN))
+            .andExpect(jsonPath("$.position").value(1))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        Long id = ((Number) JsonPath.read(created, "$.id")).longValue();
+
+        // A book is held once per user
+        restHoldMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(hold)))
+            .andExpect(status().isBadRequest());
+
+        restHoldMockMvc
+            .perform(get(ENTITY_API_URL))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(id.intValue()))
+            .andExpect(jsonPath("$.[*].bookId").value(book.getId().intValue()));
+
+        restHoldMockMvc.perform(delete(ENTITY_API_URL_ID, id)).andExpect(status().isNoContent());
+        restHoldMockMvc.perform(delete(ENTITY_API_URL_ID, id)).andExpect(status().isNotFound());
+        restHoldMockMvc.perform(get(ENTITY_API_URL)).andExpect(status().isOk()).andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    void placeHoldOnAvailableBook() throws Exception {
+        bookRepository.saveAndFlush(book.quantity(1));
+        HoldDTO hold = new HoldDTO();
+        hold.setBookId(book.getId());
+
+        restHoldMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(hold)))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void placeHoldOnUnknownBook() throws Exception {
+        HoldDTO hold = new HoldDTO();
+        hold.setBookId(Long.MAX_VALUE);
+
+        restHoldMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(hold)))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getBookHoldsRequiresAdmin() throws Exception {
+        restHoldMockMvc.perform(get("/api/books/{id}/holds", book.getId())).andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void getBookHolds() throws Exception {
+        restHoldMockMvc.perform(get("/api/books/{id}/holds", book.getId())).andExpect(status().isOk()).andExpect(jsonPath("$").isEmpty());
+    }
+}
@@ -6,8 +6,11 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.domain.Spaces;
+import com.mycompany.myapp.domain.User;
 import com.mycompany.myapp.repository.SpacesRepository;
+import com.mycompany.myapp.repository.UserRepository;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.List;
@@ -40,9 +43,15 @@ class SpacesResourceIT {
     private static Random random = new Random();
     private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
 
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
     @Autowired
     private SpacesRepository spacesRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -142,6 +151,64 @@ class SpacesResourceIT {
             .andExpect(jsonPath("$.date").value(DEFAULT_DATE.toString()));
     }
 
+    @Test
+    @Transactional
+    void getSpacesWithExpandedUser() throws Exception {
+        // Initialize the database
+        User user = userRepository.findOneByLogin("user").orElseThrow();
+        spacesRepository.saveAndFlush(spaces.user(user));
+        em.clear();
+
+        // The user is only sent with its id unless expanded
+        restSpacesMockMvc
+            .perform(get(ENTITY_API_URL_ID, spaces.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.user.id").value(user.getId().intValue()))
+            .andExpect(jsonPath("$.user.login").doesNotExist());
+        em.clear();
+
+        restSpacesMockMvc
+            .perform(get(ENTITY_API_URL_ID + "?expand=user", spaces.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.user.login").value("user"));
+        em.clear();
+
+        // The spaces of the current user
+        restSpacesMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&expand=user"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(spaces.getId().intValue())))
+            .andExpect(jsonPath("$.[*].user.login").value(hasItem("user")));
+
+        restSpacesMockMvc.perform(get(ENTITY_API_URL + "?expand=book")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getSpacesAvailability() throws Exception {
+        LocalDate day = LocalDate.of(2040, 2, 10);
+        spacesRepository.saveAndFlush(new Spaces().date(day));
+        spacesRepository.saveAndFlush(new Spaces().date(day));
+
+        restSpacesMockMvc
+            .perform(get(ENTITY_API_URL + "/availability?from=2040-02-01&to=2040-02-29"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(29))
+            .andExpect(jsonPath("$.[0].date").value("2040-02-01"))
+            .andExpect(jsonPath("$.[0].booked").value(0))
+            .andExpect(jsonPath("$.[9].date").value(day.toString()))
+            .andExpect(jsonPath("$.[9].booked").value(2))
+            .andExpect(jsonPath("$.[9].free").value(applicationProperties.getSpaces().getCapacity(day) - 2));
+    }
+
+    @Test
+    @Transactional
+    void getSpacesAvailabilityOfInvalidRange() throws Exception {
+        restSpacesMockMvc.perform(get(ENTITY_API_URL + "/availability?from=2040-03-01&to=2040-02-01")).andExpect(status().isBadRequest());
+        restSpacesMockMvc.perform(get(ENTITY_API_URL + "/availability?from=2040-01-01&to=2042-01-01")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getNonExistingSpaces() throws Exception {
@@ -27,6 +27,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -249,6 +250,23 @@ class UserResourceIT {
             .andExpect(jsonPath("$.[*].langKey").value(hasItem(DEFAULT_LANGKEY)));
     }
 
+    @Test
+    void exportUsersAsCsv() throws Exception {
+        MvcResult result = restUserMockMvc.perform(get("/api/admin/users/_export?format=csv")).andExpect(request().asyncStarted()).andReturn();
+        String csv = restUserMockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("text/csv"))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        assertThat(csv.split("\n")[0]).startsWith("id;login;first_name;");
+        assertThat(csv.lines()).anySatisfy(line ->
+            assertThat(line).contains(";admin;").endsWith(";" + AuthoritiesConstants.ADMIN + "," + AuthoritiesConstants.USER)
+        );
+    }
+
     @Test
     @Transactional
     void getUser() throws Exception {